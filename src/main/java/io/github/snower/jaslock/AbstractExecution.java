@@ -2,11 +2,9 @@ package io.github.snower.jaslock;
 
 import io.github.snower.jaslock.datas.LockResultData;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 public abstract class AbstractExecution {
     protected final SlockDatabase database;
@@ -16,20 +14,11 @@ public abstract class AbstractExecution {
     protected short count;
     protected byte rCount;
     protected LockResultData currentLockData;
+    protected final java.util.concurrent.locks.ReentrantLock executionLock = new java.util.concurrent.locks.ReentrantLock();
 
     public AbstractExecution(SlockDatabase database, byte[] lockKey, int timeout, int expried, short count, byte rCount) {
         this.database = database;
-        if(lockKey.length > 16) {
-            try {
-                MessageDigest digest = MessageDigest.getInstance("MD5");
-                this.lockKey = digest.digest(lockKey);
-            } catch (NoSuchAlgorithmException e) {
-                this.lockKey = Arrays.copyOfRange(lockKey, 0, 16);
-            }
-        } else {
-            this.lockKey = new byte[16];
-            System.arraycopy(lockKey, 0, this.lockKey, 16 - lockKey.length, lockKey.length);
-        }
+        this.lockKey = KeyNormalizer.normalizeKey(lockKey);
         this.timeout = timeout;
         this.expried = expried;
         this.count = count;
@@ -40,6 +29,17 @@ public abstract class AbstractExecution {
         this(database, lockKey, timeout, expried, (short)0, (byte)0);
     }
 
+    protected static Throwable unwrapAsyncException(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    protected static CompletionException wrapAsyncException(Throwable e) {
+        return e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+    }
+
     public void setTimeout(short timeout) {
         this.timeout = (((int) timeout) & 0xffff) | (this.timeout & 0xffff0000);
     }
@@ -0,0 +1,160 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.callback.CallbackFuture;
+import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.datas.LockData;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CommandBatch {
+    private final ISlockClient client;
+    private final List<LockCommand> commands;
+    private final List<AbstractExecution> executions;
+
+    public CommandBatch(ISlockClient client) {
+        this.client = client;
+        this.commands = new ArrayList<>();
+        this.executions = new ArrayList<>();
+    }
+
+    public ISlockClient getClient() {
+        return client;
+    }
+
+    public List<LockCommand> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public void clear() {
+        commands.clear();
+        executions.clear();
+    }
+
+    public CommandBatch add(LockCommand command) {
+        return add(command, null);
+    }
+
+    private CommandBatch add(LockCommand command, AbstractExecution execution) {
+        commands.add(command);
+        executions.add(execution);
+        return this;
+    }
+
+    public CommandBatch acquire(Lock lock) {
+        return acquire(lock, (byte) 0, null);
+    }
+
+    public CommandBatch acquire(Lock lock, byte flag, LockData lockData) {
+        return add(new LockCommand(ICommand.COMMAND_TYPE_LOCK, lockData != null ? (byte) (flag | ICommand.LOCK_FLAG_CONTAINS_DATA) : flag,
+                lock.database.getDbId(), lock.lockKey, lock.getLockId(), lock.timeout, lock.expried, lock.count, lock.rCount, lockData), lock);
+    }
+
+    public CommandBatch release(Lock lock) {
+        return release(lock, (byte) 0, null);
+    }
+
+    public CommandBatch release(Lock lock, byte flag, LockData lockData) {
+        lock.unregisterLeaseWatchdog();
+        return add(new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, lockData != null ? (byte) (flag | ICommand.UNLOCK_FLAG_CONTAINS_DATA) : flag,
+                lock.database.getDbId(), lock.lockKey, lock.getLockId(), lock.timeout, lock.expried, lock.count, lock.rCount, lockData), lock);
+    }
+
+    public CommandBatch set(Event event) {
+        return set(event, null);
+    }
+
+    public CommandBatch set(Event event, LockData lockData) {
+        Lock eventLock = event.getEventLock();
+        return event.isDefaultSeted() ? release(eventLock, (byte) 0, lockData) : acquire(eventLock, ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData);
+    }
+
+    public CommandBatch clear(Event event) {
+        return clear(event, null);
+    }
+
+    public CommandBatch clear(Event event, LockData lockData) {
+        Lock eventLock = event.getEventLock();
+        return event.isDefaultSeted() ? acquire(eventLock, ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData) : release(eventLock, (byte) 0, lockData);
+    }
+
+    public CommandBatch acquire(Semaphore semaphore) {
+        return add(new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, semaphore.database.getDbId(), semaphore.lockKey, LockCommand.genLockId(),
+                semaphore.timeout, semaphore.expried, semaphore.count, (byte) 0), semaphore);
+    }
+
+    public CommandBatch release(Semaphore semaphore) {
+        return add(new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED, semaphore.database.getDbId(),
+                semaphore.lockKey, new byte[16], semaphore.timeout, semaphore.expried, semaphore.count, (byte) 0), semaphore);
+    }
+
+    public List<LockCommandResult> executeAll() throws SlockException {
+        List<LockCommandResult> lockCommandResults = new ArrayList<>(commands.size());
+        for (CallbackCommandResult callbackCommandResult : executeEach()) {
+            lockCommandResults.add((LockCommandResult) callbackCommandResult.getResult());
+        }
+        return lockCommandResults;
+    }
+
+    public List<CallbackCommandResult> executeEach() throws SlockException {
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<CallbackCommandResult> callbackCommandResults = client.sendCommandsEach(commands);
+        for (int i = 0; i < callbackCommandResults.size(); i++) {
+            CommandResult commandResult = callbackCommandResults.get(i).getCommandResult();
+            AbstractExecution execution = executions.get(i);
+            if (execution != null && commandResult != null) {
+                execution.currentLockData = ((LockCommandResult) commandResult).getLockResultData();
+            }
+        }
+        return callbackCommandResults;
+    }
+
+    public List<CallbackFuture<LockCommandResult>> execute() throws SlockException {
+        List<CallbackFuture<LockCommandResult>> callbackFutures = new ArrayList<>(this.commands.size());
+        if (this.commands.isEmpty()) {
+            return callbackFutures;
+        }
+
+        List<LockCommand> commands = new ArrayList<>(this.commands);
+        List<AbstractExecution> executions = new ArrayList<>(this.executions);
+
+        Map<LockCommand, Integer> commandIndexes = new IdentityHashMap<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            commandIndexes.put(commands.get(i), i);
+            callbackFutures.add(new CallbackFuture<>(null));
+        }
+        client.sendCommands(commands, callbackCommandResult -> {
+            int index = commandIndexes.get(callbackCommandResult.getCommand());
+            try {
+                LockCommandResult lockCommandResult = (LockCommandResult) callbackCommandResult.getResult();
+                AbstractExecution execution = executions.get(index);
+                if (execution != null) {
+                    execution.currentLockData = lockCommandResult.getLockResultData();
+                }
+                callbackFutures.get(index).setResult(lockCommandResult);
+            } catch (SlockException e) {
+                callbackFutures.get(index).setResult(null, e);
+            }
+        });
+        return callbackFutures;
+    }
+}
@@ -8,7 +8,8 @@ import io.github.snower.jaslock.datas.LockSetData;
 import io.github.snower.jaslock.datas.LockUnsetData;
 import io.github.snower.jaslock.exceptions.*;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 public class Event extends AbstractExecution {
@@ -27,11 +28,27 @@ public class Event extends AbstractExecution {
     }
 
     public Event(SlockDatabase database, String eventKey, int timeout, int expried, boolean defaultSeted) {
-        this(database, eventKey.getBytes(StandardCharsets.UTF_8), timeout, expried, defaultSeted);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(eventKey), timeout, expried, defaultSeted);
     }
 
     public Event(SlockDatabase database, String eventKey, int timeout, int expried) {
-        this(database, eventKey.getBytes(StandardCharsets.UTF_8), timeout, expried, true);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(eventKey), timeout, expried, true);
+    }
+
+    public boolean isDefaultSeted() {
+        return defaultSeted;
+    }
+
+    Lock getEventLock() {
+        executionLock.lock();
+        try {
+            if(eventLock == null) {
+                eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) (defaultSeted ? 0 : 1), (byte) 0);
+            }
+            return eventLock;
+        } finally {
+            executionLock.unlock();
+        }
     }
 
     public void clear() throws SlockException {
@@ -48,10 +65,13 @@ public class Event extends AbstractExecution {
 
     public void clear(LockData lockData) throws SlockException {
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(eventLock == null) {
                     eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             try {
                 eventLock.acquire(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData);
@@ -59,10 +79,13 @@ public class Event extends AbstractExecution {
             return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(eventLock == null) {
                 eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             eventLock.release((byte) 0, lockData);
@@ -84,10 +107,13 @@ public class Event extends AbstractExecution {
     public CallbackFuture<Boolean> clear(LockData lockData, Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(eventLock == null) {
                     eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             eventLock.acquire(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData, callbackCommandResult -> {
                 try {
@@ -102,10 +128,13 @@ public class Event extends AbstractExecution {
             return callbackFuture;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(eventLock == null) {
                 eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         eventLock.release((byte) 0, lockData, callbackCommandResult -> {
             try {
@@ -134,10 +163,13 @@ public class Event extends AbstractExecution {
 
     public void set(LockData lockData) throws SlockException {
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(eventLock == null) {
                     eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             try {
                 eventLock.release((byte) 0, lockData);
@@ -146,10 +178,13 @@ public class Event extends AbstractExecution {
             return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(eventLock == null) {
                 eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             eventLock.acquire(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData);
@@ -172,10 +207,13 @@ public class Event extends AbstractExecution {
     public CallbackFuture<Boolean> set(LockData lockData, Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(eventLock == null) {
                     eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             eventLock.release((byte) 0, lockData, callbackCommandResult -> {
                 try {
@@ -190,10 +228,13 @@ public class Event extends AbstractExecution {
             return callbackFuture;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(eventLock == null) {
                 eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         eventLock.acquire(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData, callbackCommandResult -> {
             try {
@@ -210,10 +251,13 @@ public class Event extends AbstractExecution {
 
     public boolean isSet() throws SlockException {
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(checkLock == null) {
                     checkLock = new Lock(database, lockKey, null, 0, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             try {
                 checkLock.acquire();
@@ -223,10 +267,13 @@ public class Event extends AbstractExecution {
             return true;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(checkLock == null) {
                 checkLock = new Lock(database, lockKey, null, 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             checkLock.acquire();
@@ -239,12 +286,15 @@ public class Event extends AbstractExecution {
     public CallbackFuture<Boolean> isSet(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(checkLock == null) {
                     checkLock = new Lock(database, lockKey, null, 0, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
-            checkLock.acquire((byte) 0, callbackCommandResult -> {
+            checkLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
                 try {
                     callbackCommandResult.getResult();
                     callbackFuture.setResult(true);
@@ -257,12 +307,15 @@ public class Event extends AbstractExecution {
             return callbackFuture;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(checkLock == null) {
                 checkLock = new Lock(database, lockKey, null, 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
-        checkLock.acquire((byte) 0, callbackCommandResult -> {
+        checkLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -277,10 +330,13 @@ public class Event extends AbstractExecution {
 
     public void wait(int timeout) throws SlockException {
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(waitLock == null) {
                     waitLock = new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             try {
                 waitLock.acquire();
@@ -291,10 +347,13 @@ public class Event extends AbstractExecution {
             return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(waitLock == null) {
                 waitLock = new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             waitLock.acquire();
@@ -306,19 +365,25 @@ public class Event extends AbstractExecution {
 
     public void waitAndTimeoutRetryClear(int timeout) throws SlockException {
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(waitLock == null) {
                     waitLock = new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
 
             try {
                 waitLock.acquire(new LockUnsetData());
             } catch (LockTimeoutException | ClientCommandTimeoutException ignored) {
-                synchronized (this) {
+                executionLock.lock();
+                try {
                     if(eventLock == null) {
                         eventLock = new Lock(database, lockKey, lockKey, this.timeout, expried, (short) 0, (byte) 0);
                     }
+                } finally {
+                    executionLock.unlock();
                 }
 
                 try {
@@ -335,10 +400,13 @@ public class Event extends AbstractExecution {
             return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(waitLock == null) {
                 waitLock = new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             waitLock.acquire(new LockUnsetData());
@@ -346,10 +414,13 @@ public class Event extends AbstractExecution {
             throw new EventWaitTimeoutException();
         }
         currentLockData = waitLock.getCurrentLockData();
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(eventLock == null) {
                 eventLock = new Lock(database, lockKey, lockKey, this.timeout, expried, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
         try {
             eventLock.release();
@@ -359,12 +430,15 @@ public class Event extends AbstractExecution {
     public CallbackFuture<Boolean> wait(int timeout, Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(waitLock == null) {
                     waitLock = new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
-            waitLock.acquire((byte) 0, callbackCommandResult -> {
+            waitLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
                 try {
                     callbackCommandResult.getResult();
                 } catch (LockTimeoutException | ClientCommandTimeoutException ignored) {
@@ -380,12 +454,15 @@ public class Event extends AbstractExecution {
             return callbackFuture;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(waitLock == null) {
                 waitLock = new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
-        waitLock.acquire((byte) 0, callbackCommandResult -> {
+        waitLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
             } catch (LockTimeoutException | ClientCommandTimeoutException ignored) {
@@ -404,20 +481,26 @@ public class Event extends AbstractExecution {
     public CallbackFuture<Boolean> waitAndTimeoutRetryClear(int timeout, Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if(defaultSeted) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if(waitLock == null) {
                     waitLock = new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
 
-            waitLock.acquire((byte) 0, new LockUnsetData(), callbackCommandResult -> {
+            waitLock.acquire((byte) 0, new LockUnsetData(), callbackFuture, callbackCommandResult -> {
                 try {
                     callbackCommandResult.getResult();
                 } catch (LockTimeoutException | ClientCommandTimeoutException ignored) {
-                    synchronized (this) {
+                    executionLock.lock();
+                    try {
                         if (eventLock == null) {
                             eventLock = new Lock(database, lockKey, lockKey, this.timeout, expried, (short) 0, (byte) 0);
                         }
+                    } finally {
+                        executionLock.unlock();
                     }
 
                     try {
@@ -441,12 +524,15 @@ public class Event extends AbstractExecution {
             return callbackFuture;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(waitLock == null) {
                 waitLock = new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
-        waitLock.acquire((byte) 0, new LockUnsetData(), callbackCommandResult -> {
+        waitLock.acquire((byte) 0, new LockUnsetData(), callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
             } catch (LockTimeoutException | ClientCommandTimeoutException ignored) {
@@ -456,10 +542,13 @@ public class Event extends AbstractExecution {
                 callbackFuture.setResult(false, e);
                 return;
             }
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if (eventLock == null) {
                     eventLock = new Lock(database, lockKey, lockKey, this.timeout, expried, (short) 1, (byte) 0);
                 }
+            } finally {
+                executionLock.unlock();
             }
             try {
                 eventLock.release();
@@ -470,6 +559,177 @@ public class Event extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> clearAsync() {
+        return clearAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> clearAsync(LockData lockData) {
+        if(defaultSeted) {
+            executionLock.lock();
+            try {
+                if(eventLock == null) {
+                    eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
+                }
+            } finally {
+                executionLock.unlock();
+            }
+            return eventLock.acquireAsync(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData).handle((commandResult, e) -> {
+                if (e == null || unwrapAsyncException(e) instanceof LockLockedException) {
+                    return true;
+                }
+                throw wrapAsyncException(e);
+            });
+        }
+
+        executionLock.lock();
+        try {
+            if(eventLock == null) {
+                eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return eventLock.releaseAsync((byte) 0, lockData).handle((commandResult, e) -> {
+            if (e == null || unwrapAsyncException(e) instanceof LockUnlockedException) {
+                return true;
+            }
+            throw wrapAsyncException(e);
+        });
+    }
+
+    public CompletableFuture<Boolean> setAsync() {
+        return setAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> setAsync(LockData lockData) {
+        if(defaultSeted) {
+            executionLock.lock();
+            try {
+                if(eventLock == null) {
+                    eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 0, (byte) 0);
+                }
+            } finally {
+                executionLock.unlock();
+            }
+            return eventLock.releaseAsync((byte) 0, lockData).handle((commandResult, e) -> {
+                if (e == null || unwrapAsyncException(e) instanceof LockUnlockedException) {
+                    return true;
+                }
+                throw wrapAsyncException(e);
+            });
+        }
+
+        executionLock.lock();
+        try {
+            if(eventLock == null) {
+                eventLock = new Lock(database, lockKey, lockKey, timeout, expried, (short) 1, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return eventLock.acquireAsync(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData).handle((commandResult, e) -> {
+            if (e == null || unwrapAsyncException(e) instanceof LockLockedException) {
+                return true;
+            }
+            throw wrapAsyncException(e);
+        });
+    }
+
+    public CompletableFuture<Boolean> isSetAsync() {
+        if(defaultSeted) {
+            executionLock.lock();
+            try {
+                if(checkLock == null) {
+                    checkLock = new Lock(database, lockKey, null, 0, 0, (short) 0, (byte) 0);
+                }
+            } finally {
+                executionLock.unlock();
+            }
+            return checkLock.acquireAsync().handle((result, e) -> {
+                if (e == null) return true;
+                if (unwrapAsyncException(e) instanceof LockTimeoutException) return false;
+                throw wrapAsyncException(e);
+            });
+        }
+
+        executionLock.lock();
+        try {
+            if(checkLock == null) {
+                checkLock = new Lock(database, lockKey, null, 0x02000000, 0, (short) 1, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return checkLock.acquireAsync().handle((result, e) -> {
+            if (e == null) return true;
+            Throwable exception = unwrapAsyncException(e);
+            if (exception instanceof LockNotOwnException || exception instanceof LockTimeoutException) return false;
+            throw wrapAsyncException(e);
+        });
+    }
+
+    public CompletableFuture<Boolean> waitAsync(int timeout) {
+        executionLock.lock();
+        try {
+            if(waitLock == null) {
+                waitLock = defaultSeted ? new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0)
+                        : new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return waitLock.acquireAsync((byte) 0, null).handle((commandResult, e) -> {
+            if (e != null) {
+                Throwable exception = unwrapAsyncException(e);
+                if (exception instanceof LockTimeoutException || exception instanceof ClientCommandTimeoutException) {
+                    throw new CompletionException(new EventWaitTimeoutException());
+                }
+                throw wrapAsyncException(e);
+            }
+            currentLockData = commandResult.getLockResultData();
+            return true;
+        });
+    }
+
+    public CompletableFuture<Boolean> waitAndTimeoutRetryClearAsync(int timeout) {
+        executionLock.lock();
+        try {
+            if(waitLock == null) {
+                waitLock = defaultSeted ? new Lock(database, lockKey, null, timeout, 0, (short) 0, (byte) 0)
+                        : new Lock(database, lockKey, null, timeout | 0x02000000, 0, (short) 1, (byte) 0);
+            }
+            if(eventLock == null) {
+                eventLock = new Lock(database, lockKey, lockKey, this.timeout, expried, (short) (defaultSeted ? 0 : 1), (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return waitLock.acquireAsync((byte) 0, new LockUnsetData()).handle((commandResult, e) -> {
+            if (e == null) {
+                currentLockData = commandResult.getLockResultData();
+                if (defaultSeted) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                return eventLock.releaseAsync().handle((result, ignored) -> true);
+            }
+
+            Throwable exception = unwrapAsyncException(e);
+            if (!(exception instanceof LockTimeoutException) && !(exception instanceof ClientCommandTimeoutException)) {
+                throw wrapAsyncException(e);
+            }
+            if (!defaultSeted) {
+                throw new CompletionException(new EventWaitTimeoutException());
+            }
+            return eventLock.acquireAsync(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, new LockUnsetData()).handle((result, e2) -> {
+                if (e2 != null) {
+                    throw new CompletionException(new EventWaitTimeoutException());
+                }
+                currentLockData = result.getLockResultData();
+                return eventLock.releaseAsync().handle((r, ignored) -> true);
+            }).thenCompose(f -> f);
+        }).thenCompose(f -> f);
+    }
+
     public AutoCloseable with() {
         return () -> {
             if (defaultSeted) {
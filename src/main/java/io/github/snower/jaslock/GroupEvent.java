@@ -11,8 +11,9 @@ import io.github.snower.jaslock.datas.LockUnsetData;
 import io.github.snower.jaslock.exceptions.*;
 
 import java.io.ByteArrayOutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 public class GroupEvent extends AbstractExecution {
@@ -26,7 +27,7 @@ public class GroupEvent extends AbstractExecution {
     }
 
     public GroupEvent(SlockDatabase database, String groupKey, long clientId, long versionId, int timeout, int expried) {
-        this(database, groupKey.getBytes(StandardCharsets.UTF_8), clientId, versionId, timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(groupKey), clientId, versionId, timeout, expried);
     }
 
     public long getClientId() {
@@ -146,7 +147,7 @@ public class GroupEvent extends AbstractExecution {
     public CallbackFuture<Boolean> isSet(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         Lock checkLock = new Lock(database, lockKey, LockCommand.genLockId(), 0, 0, (short) 0, (byte) 0);
-        checkLock.acquire((byte) 0, callbackCommandResult -> {
+        checkLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -265,7 +266,7 @@ public class GroupEvent extends AbstractExecution {
         Lock waitLock = new Lock(database, lockKey, lockId, timeout | (ICommand.TIMEOUT_FLAG_LESS_LOCK_VERSION_IS_LOCK_SUCCED << 16),
                 0, (short) 0, (byte) 0);
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        waitLock.acquire((byte) 0, callbackCommandResult -> {
+        waitLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 LockCommandResult lockCommandResult = (LockCommandResult) callbackCommandResult.getResult();
                 byte[] rlockId = lockCommandResult.getLockId();
@@ -289,7 +290,7 @@ public class GroupEvent extends AbstractExecution {
         Lock waitLock = new Lock(database, lockKey, lockId, timeout | (ICommand.TIMEOUT_FLAG_LESS_LOCK_VERSION_IS_LOCK_SUCCED << 16),
                 0, (short) 0, (byte) 0);
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        waitLock.acquire((byte) 0, new LockUnsetData(), callbackCommandResult -> {
+        waitLock.acquire((byte) 0, new LockUnsetData(), callbackFuture, callbackCommandResult -> {
             try {
                 LockCommandResult lockCommandResult = (LockCommandResult) callbackCommandResult.getResult();
                 byte[] rlockId = lockCommandResult.getLockId();
@@ -320,6 +321,81 @@ public class GroupEvent extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> clearAsync() {
+        return clearAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> clearAsync(LockData lockData) {
+        byte[] lockId = encodeLockId(0, versionId);
+        int timeout = this.timeout | (ICommand.TIMEOUT_FLAG_LESS_LOCK_VERSION_IS_LOCK_SUCCED << 16);
+        Lock eventLock = new Lock(database, lockKey, lockId, timeout, expried, (short) 0, (byte) 0);
+        return eventLock.updateAsync(lockData);
+    }
+
+    public CompletableFuture<Boolean> setAsync() {
+        return setAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> setAsync(LockData lockData) {
+        byte[] lockId = new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        Lock eventLock = new Lock(database, lockKey, lockId, timeout, expried, (short) 0, (byte) 0);
+        return eventLock.releaseHeadAsync(lockData).handle((commandResult, e) -> {
+            if (e == null || unwrapAsyncException(e) instanceof LockUnlockedException) {
+                return true;
+            }
+            throw wrapAsyncException(e);
+        });
+    }
+
+    public CompletableFuture<Boolean> isSetAsync() {
+        Lock checkLock = new Lock(database, lockKey, LockCommand.genLockId(), 0, 0, (short) 0, (byte) 0);
+        return checkLock.acquireAsync().handle((result, e) -> {
+            if (e == null) return true;
+            if (unwrapAsyncException(e) instanceof LockTimeoutException) return false;
+            throw wrapAsyncException(e);
+        });
+    }
+
+    public CompletableFuture<Boolean> wakeupAsync() {
+        return wakeupAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> wakeupAsync(LockData lockData) {
+        byte[] lockId = new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        int timeout = this.timeout | (ICommand.TIMEOUT_FLAG_LESS_LOCK_VERSION_IS_LOCK_SUCCED << 16);
+        Lock eventLock = new Lock(database, lockKey, lockId, timeout, expried, (short) 0, (byte) 0);
+        return eventLock.releaseHeadRetoLockWaitAsync(lockData).thenApply(lockCommandResult -> {
+            byte[] rlockId = lockCommandResult.getLockId();
+            if (!Arrays.equals(lockId, rlockId)) {
+                versionId = ((long) rlockId[0]) | (((long) rlockId[1])<<8) | (((long) rlockId[2])<<16) | (((long) rlockId[3])<<24)
+                        | (((long) rlockId[4])<<32) | (((long) rlockId[5])<<40) | (((long) rlockId[6])<<48) | (((long) rlockId[7])<<56);
+            }
+            return true;
+        });
+    }
+
+    public CompletableFuture<Boolean> waitAsync(int timeout) {
+        byte[] lockId = encodeLockId(clientId, versionId);
+        Lock waitLock = new Lock(database, lockKey, lockId, timeout | (ICommand.TIMEOUT_FLAG_LESS_LOCK_VERSION_IS_LOCK_SUCCED << 16),
+                0, (short) 0, (byte) 0);
+        return waitLock.acquireAsync((byte) 0, null).handle((lockCommandResult, e) -> {
+            if (e != null) {
+                Throwable exception = unwrapAsyncException(e);
+                if (exception instanceof LockTimeoutException || exception instanceof ClientCommandTimeoutException) {
+                    throw new CompletionException(new EventWaitTimeoutException());
+                }
+                throw wrapAsyncException(e);
+            }
+            byte[] rlockId = lockCommandResult.getLockId();
+            if (!Arrays.equals(lockId, rlockId)) {
+                versionId = ((long) rlockId[0]) | (((long) rlockId[1])<<8) | (((long) rlockId[2])<<16) | (((long) rlockId[3])<<24)
+                        | (((long) rlockId[4])<<32) | (((long) rlockId[5])<<40) | (((long) rlockId[6])<<48) | (((long) rlockId[7])<<56);
+            }
+            currentLockData = lockCommandResult.getLockResultData();
+            return true;
+        });
+    }
+
     private byte[] encodeLockId(long clientId, long versionId) {
         ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(16);
         byteArrayOutputStream.write((byte) (versionId & 0xff));
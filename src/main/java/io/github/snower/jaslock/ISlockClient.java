@@ -3,26 +3,56 @@ package io.github.snower.jaslock;
 import io.github.snower.jaslock.callback.CallbackExecutorManager;
 import io.github.snower.jaslock.commands.Command;
 import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.WaitStrategy;
 import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.callback.CallbackDispatchStats;
 import io.github.snower.jaslock.callback.ExecutorOption;
 import io.github.snower.jaslock.exceptions.ClientUnconnectException;
 import io.github.snower.jaslock.exceptions.SlockException;
+import io.github.snower.jaslock.network.EventLoopGroup;
+import io.github.snower.jaslock.network.WriteOption;
+import io.github.snower.jaslock.network.WriteStats;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 public interface ISlockClient {
     boolean enableAsyncCallback();
     boolean enableAsyncCallback(ExecutorOption executorOption);
     boolean enableAsyncCallback(CallbackExecutorManager callbackExecutorManager);
+    boolean enableNioTransport();
+    boolean enableNioTransport(int ioThreadCount);
+    boolean enableNioTransport(EventLoopGroup eventLoopGroup);
+    void setWriteOption(WriteOption writeOption);
+    WriteStats getWriteStats();
+    CallbackDispatchStats getCallbackDispatchStats();
+    void setWaitStrategy(WaitStrategy waitStrategy);
+    void setMillisecondTimeoutGrace(long millisecondTimeoutGrace);
+    void setInflightOption(InflightOption inflightOption);
+    InflightWindow getInflightWindow();
+    void setAsyncExecutor(Executor asyncExecutor);
     void setDefaultTimeoutFlag(short defaultTimeoutFlag);
     void setDefaultExpriedFlag(short defaultExpriedFlag);
+    boolean enableLeaseWatchdog();
+    boolean enableLeaseWatchdog(LeaseWatchdogOption leaseWatchdogOption);
+    LeaseWatchdog getLeaseWatchdog();
+    void setNearLockOption(NearLockOption nearLockOption);
     void open() throws IOException, ClientUnconnectException;
     ISlockClient tryOpen();
     void close();
     CommandResult sendCommand(Command command) throws SlockException;
     void sendCommand(Command command, Consumer<CallbackCommandResult> callback) throws SlockException;
+    void sendCommand(Command command, Consumer<CallbackCommandResult> callback, Executor executor) throws SlockException;
+    CompletableFuture<CommandResult> sendCommandAsync(Command command);
+    List<CommandResult> sendCommands(List<? extends Command> commands) throws SlockException;
+    List<CallbackCommandResult> sendCommandsEach(List<? extends Command> commands) throws SlockException;
+    void sendCommands(List<? extends Command> commands, Consumer<CallbackCommandResult> callback) throws SlockException;
     void writeCommand(Command command) throws SlockException;
+    boolean cancelCommand(Command command);
+    CommandBatch batch();
     boolean ping() throws SlockException;
     SlockDatabase selectDatabase(byte dbId);
     Lock newLock(byte[] lockKey, int timeout, int expried);
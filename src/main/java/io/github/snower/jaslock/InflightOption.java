@@ -0,0 +1,55 @@
+package io.github.snower.jaslock;
+
+import java.util.concurrent.TimeUnit;
+
+public class InflightOption {
+    public final static int ADMISSION_POLICY_BLOCK = 0;
+    public final static int ADMISSION_POLICY_FAIL_FAST = 1;
+    public final static int ADMISSION_POLICY_ASYNC_WAIT = 2;
+
+    public final static InflightOption DefaultOption = new InflightOption(0, ADMISSION_POLICY_BLOCK, 60, TimeUnit.SECONDS);
+
+    private final int maxInflight;
+    private final int admissionPolicy;
+    private final long admissionTimeout;
+    private final TimeUnit admissionTimeUnit;
+
+    public InflightOption(int maxInflight, int admissionPolicy, long admissionTimeout, TimeUnit admissionTimeUnit) {
+        this.maxInflight = Math.max(maxInflight, 0);
+        this.admissionPolicy = admissionPolicy;
+        this.admissionTimeout = admissionTimeout;
+        this.admissionTimeUnit = admissionTimeUnit;
+    }
+
+    public static InflightOption block(int maxInflight) {
+        return new InflightOption(maxInflight, ADMISSION_POLICY_BLOCK, 60, TimeUnit.SECONDS);
+    }
+
+    public static InflightOption failFast(int maxInflight) {
+        return new InflightOption(maxInflight, ADMISSION_POLICY_FAIL_FAST, 0, TimeUnit.SECONDS);
+    }
+
+    public static InflightOption asyncWait(int maxInflight) {
+        return new InflightOption(maxInflight, ADMISSION_POLICY_ASYNC_WAIT, 60, TimeUnit.SECONDS);
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public int getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    public long getAdmissionTimeout() {
+        return admissionTimeout;
+    }
+
+    public TimeUnit getAdmissionTimeUnit() {
+        return admissionTimeUnit;
+    }
+
+    public boolean isUnlimited() {
+        return maxInflight <= 0;
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.exceptions.ClientInflightLimitException;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class InflightWindow {
+    private final InflightOption inflightOption;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<WaitingTask> waitingTasks;
+    private final AtomicInteger queuedCount;
+    private final AtomicInteger drainCount;
+    private final AtomicBoolean expireScheduled;
+    private final LongAdder admittedCount;
+    private final LongAdder rejectedCount;
+    private final Executor executor;
+
+    public InflightWindow(InflightOption inflightOption) {
+        this(inflightOption, SharedScheduledExecutor.get());
+    }
+
+    public InflightWindow(InflightOption inflightOption, Executor executor) {
+        this.inflightOption = inflightOption;
+        this.permits = new Semaphore(inflightOption.getMaxInflight());
+        this.waitingTasks = new ConcurrentLinkedQueue<>();
+        this.queuedCount = new AtomicInteger(0);
+        this.drainCount = new AtomicInteger(0);
+        this.expireScheduled = new AtomicBoolean(false);
+        this.admittedCount = new LongAdder();
+        this.rejectedCount = new LongAdder();
+        this.executor = executor;
+    }
+
+    public InflightOption getInflightOption() {
+        return inflightOption;
+    }
+
+    public int getMaxInflight() {
+        return inflightOption.getMaxInflight();
+    }
+
+    public int getInflightCount() {
+        return inflightOption.getMaxInflight() - permits.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public boolean tryAcquire(int count) {
+        if (queuedCount.get() > 0 || !permits.tryAcquire(count)) {
+            return false;
+        }
+        admittedCount.add(count);
+        return true;
+    }
+
+    public void acquire(int count) throws ClientInflightLimitException {
+        checkCount(count);
+        if (tryAcquire(count)) {
+            return;
+        }
+        if (inflightOption.getAdmissionPolicy() == InflightOption.ADMISSION_POLICY_FAIL_FAST) {
+            throw reject("Too many in-flight commands, max " + inflightOption.getMaxInflight());
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(count, inflightOption.getAdmissionTimeout(), inflightOption.getAdmissionTimeUnit());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted while waiting for an in-flight slot");
+        }
+        if (!acquired) {
+            throw reject("Timed out waiting for an in-flight slot, max " + inflightOption.getMaxInflight());
+        }
+        admittedCount.add(count);
+    }
+
+    public boolean acquireOrQueue(int count, Runnable task) throws ClientInflightLimitException {
+        return acquireOrQueue(count, task, null);
+    }
+
+    public boolean acquireOrQueue(int count, Runnable task, Consumer<ClientInflightLimitException> rejectCallback) throws ClientInflightLimitException {
+        checkCount(count);
+        if (tryAcquire(count)) {
+            return true;
+        }
+        if (inflightOption.getAdmissionPolicy() != InflightOption.ADMISSION_POLICY_ASYNC_WAIT) {
+            acquire(count);
+            return true;
+        }
+
+        long admissionTimeoutNanos = inflightOption.getAdmissionTimeUnit().toNanos(inflightOption.getAdmissionTimeout());
+        queuedCount.incrementAndGet();
+        waitingTasks.add(new WaitingTask(count, task, rejectCallback, System.nanoTime() + admissionTimeoutNanos));
+        drain();
+        scheduleExpire(admissionTimeoutNanos);
+        return false;
+    }
+
+    public void release(int count) {
+        permits.release(count);
+        if (queuedCount.get() > 0) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (drainCount.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        while (true) {
+            long now = System.nanoTime();
+            while (true) {
+                WaitingTask waitingTask = waitingTasks.peek();
+                if (waitingTask == null) {
+                    break;
+                }
+                if (waitingTask.expiredNanos - now <= 0) {
+                    waitingTasks.poll();
+                    queuedCount.decrementAndGet();
+                    ClientInflightLimitException exception = reject("Timed out waiting for an in-flight slot, max " + inflightOption.getMaxInflight());
+                    if (waitingTask.rejectCallback != null) {
+                        executor.execute(() -> waitingTask.rejectCallback.accept(exception));
+                    }
+                    continue;
+                }
+                if (!permits.tryAcquire(waitingTask.count)) {
+                    break;
+                }
+                waitingTasks.poll();
+                queuedCount.decrementAndGet();
+                admittedCount.add(waitingTask.count);
+                executor.execute(() -> {
+                    try {
+                        waitingTask.task.run();
+                    } catch (RuntimeException e) {
+                        release(waitingTask.count);
+                    }
+                });
+            }
+
+            missed = drainCount.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void scheduleExpire(long delayNanos) {
+        if (!expireScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        SharedScheduledExecutor.get().schedule(this::expire, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+    }
+
+    private void expire() {
+        expireScheduled.set(false);
+        drain();
+        WaitingTask waitingTask = waitingTasks.peek();
+        if (waitingTask != null) {
+            scheduleExpire(waitingTask.expiredNanos - System.nanoTime());
+        }
+    }
+
+    private void checkCount(int count) throws ClientInflightLimitException {
+        if (count > inflightOption.getMaxInflight()) {
+            throw reject("Command count " + count + " exceeds the in-flight window " + inflightOption.getMaxInflight());
+        }
+    }
+
+    private ClientInflightLimitException reject(String message) {
+        rejectedCount.increment();
+        return new ClientInflightLimitException(message);
+    }
+
+    @Override
+    public String toString() {
+        return "InflightWindow{" +
+                "maxInflight=" + getMaxInflight() +
+                ", inflightCount=" + getInflightCount() +
+                ", queuedCount=" + getQueuedCount() +
+                ", admittedCount=" + getAdmittedCount() +
+                ", rejectedCount=" + getRejectedCount() +
+                '}';
+    }
+
+    private static class WaitingTask {
+        private final int count;
+        private final Runnable task;
+        private final Consumer<ClientInflightLimitException> rejectCallback;
+        private final long expiredNanos;
+
+        private WaitingTask(int count, Runnable task, Consumer<ClientInflightLimitException> rejectCallback, long expiredNanos) {
+            this.count = count;
+            this.task = task;
+            this.rejectCallback = rejectCallback;
+            this.expiredNanos = expiredNanos;
+        }
+    }
+}
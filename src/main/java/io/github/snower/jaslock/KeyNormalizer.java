@@ -0,0 +1,116 @@
+package io.github.snower.jaslock;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class KeyNormalizer {
+    public final static KeyNormalizer DefaultNormalizer = new KeyNormalizer(8192);
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    });
+
+    private final Segment[] segments;
+    private final int capacity;
+
+    public KeyNormalizer(int capacity) {
+        this.capacity = capacity;
+        this.segments = new Segment[SEGMENT_COUNT];
+        int segmentCapacity = Math.max(capacity / SEGMENT_COUNT, 1);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                size += segment.keys.size();
+            } finally {
+                segment.unlock();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                segment.keys.clear();
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    public byte[] normalize(String key) {
+        if (capacity <= 0) {
+            return normalizeKey(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int hash = key.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+        segment.lock();
+        try {
+            byte[] normalizedKey = segment.keys.get(key);
+            if (normalizedKey != null) {
+                return normalizedKey;
+            }
+        } finally {
+            segment.unlock();
+        }
+
+        byte[] normalizedKey = normalizeKey(key.getBytes(StandardCharsets.UTF_8));
+        segment.lock();
+        try {
+            segment.keys.put(key, normalizedKey);
+        } finally {
+            segment.unlock();
+        }
+        return normalizedKey;
+    }
+
+    public static byte[] normalizeKey(byte[] key) {
+        if (key.length > 16) {
+            MessageDigest digest = digests.get();
+            if (digest == null) {
+                return Arrays.copyOfRange(key, 0, 16);
+            }
+            return digest.digest(key);
+        }
+
+        byte[] normalizedKey = new byte[16];
+        System.arraycopy(key, 0, normalizedKey, 16 - key.length, key.length);
+        return normalizedKey;
+    }
+
+    private static final class Segment extends ReentrantLock {
+        private final LinkedHashMap<String, byte[]> keys;
+
+        private Segment(int capacity) {
+            this.keys = new LinkedHashMap<String, byte[]>(Math.min(capacity, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
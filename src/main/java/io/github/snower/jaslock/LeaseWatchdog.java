@@ -0,0 +1,207 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.callback.TimingWheel;
+import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.exceptions.LockException;
+import io.github.snower.jaslock.exceptions.LockNotOwnException;
+import io.github.snower.jaslock.exceptions.LockTimeoutException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+public class LeaseWatchdog {
+    private final ISlockClient client;
+    private final LeaseWatchdogOption leaseWatchdogOption;
+    private final LeaseWatchdogStats stats;
+    private final ConcurrentHashMap<Lock, Lease> leases;
+    private final TimingWheel timingWheel;
+    private volatile BiConsumer<Lock, SlockException> failureListener;
+    private ScheduledExecutorService scheduledExecutor;
+
+    public LeaseWatchdog(ISlockClient client, LeaseWatchdogOption leaseWatchdogOption) {
+        this.client = client;
+        this.leaseWatchdogOption = leaseWatchdogOption == null ? LeaseWatchdogOption.DefaultOption : leaseWatchdogOption;
+        this.stats = new LeaseWatchdogStats();
+        this.leases = new ConcurrentHashMap<>();
+        this.timingWheel = new TimingWheel(this.leaseWatchdogOption.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public LeaseWatchdogOption getLeaseWatchdogOption() {
+        return leaseWatchdogOption;
+    }
+
+    public LeaseWatchdogStats getStats() {
+        return stats;
+    }
+
+    public int size() {
+        return leases.size();
+    }
+
+    public void setFailureListener(BiConsumer<Lock, SlockException> failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    public synchronized void start() {
+        if (scheduledExecutor != null) return;
+
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jaslock-lease-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutor.scheduleWithFixedDelay(this::tick, timingWheel.getTickNanos(), timingWheel.getTickNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduledExecutor == null) return;
+
+        scheduledExecutor.shutdown();
+        try {
+            scheduledExecutor.awaitTermination(60, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {}
+        scheduledExecutor = null;
+        for (Lock lock : new ArrayList<>(leases.keySet())) {
+            unregister(lock);
+        }
+        timingWheel.clear();
+    }
+
+    public boolean register(Lock lock) {
+        long expriedNanos = LockCommand.getExpriedNanos(lock.expried);
+        if (expriedNanos <= 0) {
+            return false;
+        }
+
+        Lease lease = new Lease(lock, (long) (expriedNanos * leaseWatchdogOption.getRenewRatio()));
+        if (leases.putIfAbsent(lock, lease) != null) {
+            return false;
+        }
+        lock.setLeaseWatchdog(this);
+        schedule(lease, jitter(lease.intervalNanos));
+        return true;
+    }
+
+    public boolean unregister(Lock lock) {
+        Lease lease = leases.remove(lock);
+        if (lease == null) {
+            return false;
+        }
+        lease.registered = false;
+        lease.cancel();
+        lock.setLeaseWatchdog(null);
+        return true;
+    }
+
+    public boolean isRegistered(Lock lock) {
+        return leases.containsKey(lock);
+    }
+
+    private void schedule(Lease lease, long delayNanos) {
+        if (!lease.registered) return;
+        lease.dueNanos = System.nanoTime() + delayNanos;
+        timingWheel.add(lease, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private long jitter(long intervalNanos) {
+        double jitterRatio = leaseWatchdogOption.getJitterRatio();
+        if (jitterRatio <= 0) {
+            return intervalNanos;
+        }
+        return (long) (intervalNanos * (1d - jitterRatio * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private void tick() {
+        List<Lease> dueLeases = new ArrayList<>();
+        timingWheel.advance(timeout -> dueLeases.add((Lease) timeout));
+        int maxBatchSize = leaseWatchdogOption.getMaxBatchSize();
+        for (int i = 0; i < dueLeases.size(); i += maxBatchSize) {
+            try {
+                renew(dueLeases.subList(i, Math.min(i + maxBatchSize, dueLeases.size())));
+            } catch (Throwable ignored) {}
+        }
+    }
+
+    private void renew(List<Lease> dueLeases) {
+        long startNanos = System.nanoTime();
+        List<Lease> renewLeases = new ArrayList<>(dueLeases.size());
+        List<LockCommand> commands = new ArrayList<>(dueLeases.size());
+        for (Lease lease : dueLeases) {
+            if (!lease.registered) continue;
+            Lock lock = lease.lock;
+            stats.recordLag(startNanos - lease.dueNanos);
+            renewLeases.add(lease);
+            commands.add(new LockCommand(ICommand.COMMAND_TYPE_LOCK, ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lock.database.getDbId(),
+                    lock.lockKey, lock.getLockId(), lock.timeout & 0xffff0000, lock.expried, lock.count, lock.rCount));
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        List<CommandResult> commandResults;
+        try {
+            commandResults = client.sendCommands(commands);
+        } catch (SlockException e) {
+            for (Lease lease : renewLeases) {
+                stats.recordFailed();
+                notifyFailure(lease.lock, e);
+                schedule(lease, lease.intervalNanos / 4);
+            }
+            return;
+        }
+        stats.recordBatch(System.nanoTime() - startNanos);
+
+        for (int i = 0; i < renewLeases.size(); i++) {
+            Lease lease = renewLeases.get(i);
+            CommandResult commandResult = commandResults.get(i);
+            if (commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED || commandResult.getResult() == ICommand.COMMAND_RESULT_LOCKED_ERROR) {
+                stats.recordRenewed();
+                schedule(lease, jitter(lease.intervalNanos));
+                continue;
+            }
+
+            stats.recordFailed();
+            if (!unregister(lease.lock)) continue;
+            switch (commandResult.getResult()) {
+                case ICommand.COMMAND_RESULT_UNOWN_ERROR:
+                    notifyFailure(lease.lock, new LockNotOwnException(commands.get(i), commandResult));
+                    break;
+                case ICommand.COMMAND_RESULT_TIMEOUT:
+                    notifyFailure(lease.lock, new LockTimeoutException(commands.get(i), commandResult));
+                    break;
+                default:
+                    notifyFailure(lease.lock, new LockException(commands.get(i), commandResult));
+            }
+        }
+    }
+
+    private void notifyFailure(Lock lock, SlockException e) {
+        BiConsumer<Lock, SlockException> failureListener = this.failureListener;
+        if (failureListener == null) return;
+        try {
+            failureListener.accept(lock, e);
+        } catch (Throwable ignored) {}
+    }
+
+    private static class Lease extends TimingWheel.Timeout {
+        private final Lock lock;
+        private final long intervalNanos;
+        private volatile boolean registered;
+        private long dueNanos;
+
+        public Lease(Lock lock, long intervalNanos) {
+            this.lock = lock;
+            this.intervalNanos = intervalNanos;
+            this.registered = true;
+        }
+    }
+}
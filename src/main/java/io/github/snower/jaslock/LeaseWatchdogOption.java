@@ -0,0 +1,37 @@
+package io.github.snower.jaslock;
+
+public class LeaseWatchdogOption {
+    public final static LeaseWatchdogOption DefaultOption = new LeaseWatchdogOption(100, 0.5d, 0.2d, 256);
+
+    private final int tickMillis;
+    private final double renewRatio;
+    private final double jitterRatio;
+    private final int maxBatchSize;
+
+    public LeaseWatchdogOption(int tickMillis, double renewRatio, double jitterRatio, int maxBatchSize) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        this.renewRatio = Math.min(Math.max(renewRatio, 0.05d), 0.95d);
+        this.jitterRatio = Math.min(Math.max(jitterRatio, 0d), 0.9d);
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+    }
+
+    public static LeaseWatchdogOption batch(int maxBatchSize) {
+        return new LeaseWatchdogOption(100, 0.5d, 0.2d, maxBatchSize);
+    }
+
+    public int getTickMillis() {
+        return tickMillis;
+    }
+
+    public double getRenewRatio() {
+        return renewRatio;
+    }
+
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.snower.jaslock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LeaseWatchdogStats {
+    private final LongAdder renewedCount;
+    private final LongAdder failedCount;
+    private final LongAdder batchCount;
+    private final LongAdder latencyNanos;
+    private final LongAdder lagCount;
+    private final LongAdder lagNanos;
+    private final AtomicLong maxLatencyNanos;
+    private final AtomicLong maxLagNanos;
+
+    public LeaseWatchdogStats() {
+        this.renewedCount = new LongAdder();
+        this.failedCount = new LongAdder();
+        this.batchCount = new LongAdder();
+        this.latencyNanos = new LongAdder();
+        this.lagCount = new LongAdder();
+        this.lagNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong(0);
+        this.maxLagNanos = new AtomicLong(0);
+    }
+
+    public void recordBatch(long nanos) {
+        batchCount.increment();
+        latencyNanos.add(nanos);
+        updateMax(maxLatencyNanos, nanos);
+    }
+
+    public void recordLag(long nanos) {
+        nanos = Math.max(nanos, 0);
+        lagCount.increment();
+        lagNanos.add(nanos);
+        updateMax(maxLagNanos, nanos);
+    }
+
+    public void recordRenewed() {
+        renewedCount.increment();
+    }
+
+    public void recordFailed() {
+        failedCount.increment();
+    }
+
+    private static void updateMax(AtomicLong max, long nanos) {
+        long maxNanos = max.get();
+        while (nanos > maxNanos) {
+            if (max.compareAndSet(maxNanos, nanos)) {
+                break;
+            }
+            maxNanos = max.get();
+        }
+    }
+
+    public long getRenewedCount() {
+        return renewedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos.get();
+    }
+
+    public double getAverageLatencyNanos() {
+        long count = batchCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) latencyNanos.sum() / count;
+    }
+
+    public double getAverageLagNanos() {
+        long count = lagCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) lagNanos.sum() / count;
+    }
+
+    public void reset() {
+        renewedCount.reset();
+        failedCount.reset();
+        batchCount.reset();
+        latencyNanos.reset();
+        lagCount.reset();
+        lagNanos.reset();
+        maxLatencyNanos.set(0);
+        maxLagNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaseWatchdogStats{" +
+                "renewedCount=" + getRenewedCount() +
+                ", failedCount=" + getFailedCount() +
+                ", batchCount=" + getBatchCount() +
+                ", averageLatencyNanos=" + getAverageLatencyNanos() +
+                ", maxLatencyNanos=" + getMaxLatencyNanos() +
+                ", averageLagNanos=" + getAverageLagNanos() +
+                ", maxLagNanos=" + getMaxLagNanos() +
+                '}';
+    }
+}
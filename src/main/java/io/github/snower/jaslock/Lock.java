@@ -9,14 +9,13 @@ import io.github.snower.jaslock.callback.CallbackCommandResult;
 import io.github.snower.jaslock.datas.LockData;
 import io.github.snower.jaslock.exceptions.*;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 public class Lock extends AbstractExecution {
     private byte[] lockId;
+    private volatile LeaseWatchdog leaseWatchdog;
 
     public byte[] getLockKey() {
         return lockKey;
@@ -26,23 +25,28 @@ public class Lock extends AbstractExecution {
         return lockId;
     }
 
+    public LeaseWatchdog getLeaseWatchdog() {
+        return leaseWatchdog;
+    }
+
+    protected void setLeaseWatchdog(LeaseWatchdog leaseWatchdog) {
+        this.leaseWatchdog = leaseWatchdog;
+    }
+
+    protected void unregisterLeaseWatchdog() {
+        LeaseWatchdog leaseWatchdog = this.leaseWatchdog;
+        if (leaseWatchdog != null) {
+            leaseWatchdog.unregister(this);
+        }
+    }
+
     public Lock(SlockDatabase database, byte[] lockKey, byte[] lockId, int timeout, int expried, short count, byte rCount) {
         super(database, lockKey, timeout, expried, count, rCount);
 
         if(lockId == null) {
             this.lockId = LockCommand.genLockId();
         } else {
-            if(lockId.length > 16) {
-                try {
-                    MessageDigest digest = MessageDigest.getInstance("MD5");
-                    this.lockId = digest.digest(lockId);
-                } catch (NoSuchAlgorithmException e) {
-                    this.lockId = Arrays.copyOfRange(lockId, 0, 16);
-                }
-            } else {
-                this.lockId = new byte[16];
-                System.arraycopy(lockId, 0, this.lockId, 16 - lockId.length, lockId.length);
-            }
+            this.lockId = KeyNormalizer.normalizeKey(lockId);
         }
         this.timeout = timeout;
         this.expried = expried;
@@ -55,7 +59,7 @@ public class Lock extends AbstractExecution {
     }
 
     public Lock(SlockDatabase database, String lockKey, int timeout, int expried) {
-        this(database, lockKey.getBytes(StandardCharsets.UTF_8), null, timeout, expried, (short) 0, (byte) 0);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(lockKey), null, timeout, expried, (short) 0, (byte) 0);
     }
 
     public LockCommandResult acquire(byte flag) throws SlockException {
@@ -63,8 +67,12 @@ public class Lock extends AbstractExecution {
     }
 
     public LockCommandResult acquire(byte flag, LockData lockData) throws SlockException {
+        return sendAcquireCommand(flag, lockData, timeout);
+    }
+
+    protected LockCommandResult sendAcquireCommand(byte flag, LockData lockData, int timeout) throws SlockException {
         LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, lockData != null ? (byte) (flag | ICommand.LOCK_FLAG_CONTAINS_DATA) :  flag,
-                database.getDbId(), lockKey, lockId, timeout, expried, count, rCount, lockData);
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
         LockCommandResult commandResult = (LockCommandResult) database.getClient().sendCommand(command);
         currentLockData = commandResult.getLockResultData();
         if(commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED)  {
@@ -90,9 +98,17 @@ public class Lock extends AbstractExecution {
     }
 
     public void acquire(byte flag, LockData lockData, Consumer<CallbackCommandResult> callback) throws SlockException {
+        acquire(flag, lockData, null, callback);
+    }
+
+    public void acquire(byte flag, LockData lockData, CallbackFuture<?> callbackFuture, Consumer<CallbackCommandResult> callback) throws SlockException {
         LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, lockData != null ? (byte) (flag | ICommand.LOCK_FLAG_CONTAINS_DATA) :  flag,
-                database.getDbId(), lockKey, lockId, timeout, expried, count, rCount, lockData);
-        database.getClient().sendCommand(command, callbackCommandResult -> {
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
+        ISlockClient client = database.getClient();
+        if (callbackFuture != null) {
+            callbackFuture.setCancelCallback(() -> client.cancelCommand(command));
+        }
+        client.sendCommand(command, callbackCommandResult -> {
             try {
                 CommandResult commandResult = callbackCommandResult.getResult();
                 currentLockData = ((LockCommandResult) commandResult).getLockResultData();
@@ -123,6 +139,27 @@ public class Lock extends AbstractExecution {
         });
     }
 
+    public CompletableFuture<LockCommandResult> acquireAsync(byte flag, LockData lockData) {
+        LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, lockData != null ? (byte) (flag | ICommand.LOCK_FLAG_CONTAINS_DATA) :  flag,
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
+        return sendLockCommandAsync(command);
+    }
+
+    public CompletableFuture<Boolean> acquireAsync() {
+        return acquireAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> acquireAsync(LockData lockData) {
+        CompletableFuture<LockCommandResult> future = acquireAsync((byte) 0, lockData);
+        CompletableFuture<Boolean> resultFuture = future.thenApply(commandResult -> true);
+        resultFuture.whenComplete((result, e) -> {
+            if (resultFuture.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        return resultFuture;
+    }
+
     public void acquire() throws SlockException {
         acquire((byte) 0, (LockData) null);
     }
@@ -137,7 +174,7 @@ public class Lock extends AbstractExecution {
 
     public CallbackFuture<Boolean> acquire(LockData lockData, Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        acquire((byte) 0, lockData, callbackCommandResult -> {
+        acquire((byte) 0, lockData, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -153,8 +190,9 @@ public class Lock extends AbstractExecution {
     }
 
     public LockCommandResult release(byte flag, LockData lockData) throws SlockException {
+        unregisterLeaseWatchdog();
         LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, lockData != null ? (byte) (flag | ICommand.UNLOCK_FLAG_CONTAINS_DATA) :  flag,
-                database.getDbId(), lockKey, lockId, timeout, expried, count, rCount, lockData);
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
         LockCommandResult commandResult = (LockCommandResult) database.getClient().sendCommand(command);
         currentLockData = commandResult.getLockResultData();
         if(commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED)  {
@@ -180,8 +218,9 @@ public class Lock extends AbstractExecution {
     }
 
     public void release(byte flag, LockData lockData, Consumer<CallbackCommandResult> callback) throws SlockException {
+        unregisterLeaseWatchdog();
         LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, lockData != null ? (byte) (flag | ICommand.UNLOCK_FLAG_CONTAINS_DATA) :  flag,
-                database.getDbId(), lockKey, lockId, timeout, expried, count, rCount, lockData);
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
         database.getClient().sendCommand(command, callbackCommandResult -> {
             try {
                 CommandResult commandResult = callbackCommandResult.getResult();
@@ -214,6 +253,21 @@ public class Lock extends AbstractExecution {
     }
 
 
+    public CompletableFuture<LockCommandResult> releaseAsync(byte flag, LockData lockData) {
+        unregisterLeaseWatchdog();
+        LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, lockData != null ? (byte) (flag | ICommand.UNLOCK_FLAG_CONTAINS_DATA) :  flag,
+                database.getDbId(), lockKey, getLockId(), timeout, expried, count, rCount, lockData);
+        return sendLockCommandAsync(command);
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        return releaseAsync((LockData) null);
+    }
+
+    public CompletableFuture<Boolean> releaseAsync(LockData lockData) {
+        return releaseAsync((byte) 0, lockData).thenApply(commandResult -> true);
+    }
+
     public void release() throws SlockException {
         release((byte) 0, (LockData) null);
     }
@@ -269,6 +323,23 @@ public class Lock extends AbstractExecution {
         });
     }
 
+    public CompletableFuture<CommandResult> showAsync() {
+        return showAsync(null);
+    }
+
+    public CompletableFuture<CommandResult> showAsync(LockData lockData) {
+        return acquireAsync(ICommand.LOCK_FLAG_SHOW_WHEN_LOCKED, lockData).handle((commandResult, e) -> {
+            if (e == null) {
+                return null;
+            }
+            Throwable exception = unwrapAsyncException(e);
+            if (exception instanceof LockNotOwnException) {
+                return ((LockNotOwnException) exception).getCommandResult();
+            }
+            throw wrapAsyncException(e);
+        });
+    }
+
     public void update() throws SlockException {
         update((LockData) null);
     }
@@ -296,6 +367,19 @@ public class Lock extends AbstractExecution {
         });
     }
 
+    public CompletableFuture<Boolean> updateAsync() {
+        return updateAsync(null);
+    }
+
+    public CompletableFuture<Boolean> updateAsync(LockData lockData) {
+        return acquireAsync(ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, lockData).handle((commandResult, e) -> {
+            if (e == null || unwrapAsyncException(e) instanceof LockLockedException) {
+                return true;
+            }
+            throw wrapAsyncException(e);
+        });
+    }
+
     public void releaseHead() throws SlockException {
         releaseHead((LockData) null);
     }
@@ -323,6 +407,17 @@ public class Lock extends AbstractExecution {
         });
     }
 
+    public CompletableFuture<LockCommandResult> releaseHeadAsync() {
+        return releaseHeadAsync(null);
+    }
+
+    public CompletableFuture<LockCommandResult> releaseHeadAsync(LockData lockData) {
+        byte[] lockId = new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        Lock lock = new Lock(database, lockKey, lockId, timeout, expried, count, (byte) 0);
+        return lock.releaseAsync(ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED, lockData)
+                .whenComplete((commandResult, e) -> currentLockData = lock.getCurrentLockData());
+    }
+
     public LockCommandResult releaseHeadRetoLockWait() throws SlockException {
         return releaseHeadRetoLockWait((LockData) null);
     }
@@ -339,6 +434,51 @@ public class Lock extends AbstractExecution {
         release((byte) (ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED | ICommand.UNLOCK_FLAG_SUCCED_TO_LOCK_WAIT), lockData, callback);
     }
 
+    public CompletableFuture<LockCommandResult> releaseHeadRetoLockWaitAsync() {
+        return releaseHeadRetoLockWaitAsync(null);
+    }
+
+    public CompletableFuture<LockCommandResult> releaseHeadRetoLockWaitAsync(LockData lockData) {
+        return releaseAsync((byte) (ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED | ICommand.UNLOCK_FLAG_SUCCED_TO_LOCK_WAIT), lockData);
+    }
+
+    private CompletableFuture<LockCommandResult> sendLockCommandAsync(LockCommand command) {
+        ISlockClient client;
+        try {
+            client = database.getClient();
+        } catch (SlockException e) {
+            CompletableFuture<LockCommandResult> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        CompletableFuture<LockCommandResult> future = client.sendCommandAsync(command).thenApply(result -> {
+            LockCommandResult commandResult = (LockCommandResult) result;
+            currentLockData = commandResult.getLockResultData();
+            switch (commandResult.getResult()) {
+                case ICommand.COMMAND_RESULT_SUCCED:
+                    return commandResult;
+                case ICommand.COMMAND_RESULT_LOCKED_ERROR:
+                    throw new CompletionException(new LockLockedException(command, commandResult));
+                case ICommand.COMMAND_RESULT_UNLOCK_ERROR:
+                    throw new CompletionException(new LockUnlockedException(command, commandResult));
+                case ICommand.COMMAND_RESULT_UNOWN_ERROR:
+                    throw new CompletionException(new LockNotOwnException(command, commandResult));
+                case ICommand.COMMAND_RESULT_TIMEOUT:
+                    throw new CompletionException(new LockTimeoutException(command, commandResult));
+                default:
+                    throw new CompletionException(new LockException(command, commandResult));
+            }
+        });
+        if (command.getCommandType() == ICommand.COMMAND_TYPE_LOCK) {
+            future.whenComplete((result, e) -> {
+                if (future.isCancelled()) {
+                    client.cancelCommand(command);
+                }
+            });
+        }
+        return future;
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
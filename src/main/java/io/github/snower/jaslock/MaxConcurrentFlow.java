@@ -4,12 +4,13 @@ import io.github.snower.jaslock.callback.CallbackFuture;
 import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class MaxConcurrentFlow extends AbstractExecution {
     private byte priority;
     private volatile Lock flowLock;
+    private volatile PermitPool permitPool;
 
     public MaxConcurrentFlow(SlockDatabase database, byte[] flowKey, short count, int timeout, int expried, byte priority) {
         super(database, flowKey, timeout, expried, (short) (count > 0 ? count - 1 : 0), (byte) 0);
@@ -22,11 +23,11 @@ public class MaxConcurrentFlow extends AbstractExecution {
     }
 
     public MaxConcurrentFlow(SlockDatabase database, String flowKey, short count, int timeout, int expried, byte priority) {
-        this(database, flowKey.getBytes(StandardCharsets.UTF_8), count, timeout, expried, priority);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, timeout, expried, priority);
     }
 
     public MaxConcurrentFlow(SlockDatabase database, String flowKey, short count, int timeout, int expried) {
-        this(database, flowKey.getBytes(StandardCharsets.UTF_8), count, timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, timeout, expried);
     }
 
     public byte getPriority() {
@@ -37,13 +38,38 @@ public class MaxConcurrentFlow extends AbstractExecution {
         this.priority = priority;
     }
 
+    public void setPermitLeaseOption(PermitLeaseOption permitLeaseOption) {
+        PermitPool permitPool = this.permitPool;
+        final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+        this.permitPool = permitLeaseOption == null ? null : new PermitPool(database, lockKey, timeout, expried, count, priority, permitLeaseOption);
+        if (permitPool != null) {
+            permitPool.close();
+        }
+    }
+
+    public PermitPool getPermitPool() {
+        return permitPool;
+    }
+
+    public void close() {
+        setPermitLeaseOption(null);
+    }
+
     public void acquire() throws SlockException {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            permitPool.acquire();
+            return;
+        }
         if (flowLock == null) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if (flowLock == null) {
                     final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
                     flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
                 }
+            } finally {
+                executionLock.unlock();
             }
         }
         flowLock.acquire();
@@ -52,14 +78,17 @@ public class MaxConcurrentFlow extends AbstractExecution {
     public CallbackFuture<Boolean> acquire(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if (flowLock == null) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if (flowLock == null) {
                     final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
                     flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
                 }
+            } finally {
+                executionLock.unlock();
             }
         }
-        flowLock.acquire((byte) 0, callbackCommandResult -> {
+        flowLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -71,12 +100,19 @@ public class MaxConcurrentFlow extends AbstractExecution {
     }
 
     public void release() throws SlockException {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null && permitPool.release()) {
+            return;
+        }
         if (flowLock == null) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if (flowLock == null) {
                     final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
                     flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
                 }
+            } finally {
+                executionLock.unlock();
             }
         }
         flowLock.release();
@@ -85,11 +121,14 @@ public class MaxConcurrentFlow extends AbstractExecution {
     public CallbackFuture<Boolean> release(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         if (flowLock == null) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 if (flowLock == null) {
                     final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
                     flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
                 }
+            } finally {
+                executionLock.unlock();
             }
         }
         flowLock.release((byte) 0, callbackCommandResult -> {
@@ -103,6 +142,48 @@ public class MaxConcurrentFlow extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            return permitPool.acquireAsync();
+        }
+        if (flowLock == null) {
+            executionLock.lock();
+            try {
+                if (flowLock == null) {
+                    final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+                    flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
+                }
+            } finally {
+                executionLock.unlock();
+            }
+        }
+        return flowLock.acquireAsync();
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            return permitPool.releaseAsync().thenCompose(released -> released ? CompletableFuture.completedFuture(true) : releaseFlowLockAsync());
+        }
+        return releaseFlowLockAsync();
+    }
+
+    private CompletableFuture<Boolean> releaseFlowLockAsync() {
+        if (flowLock == null) {
+            executionLock.lock();
+            try {
+                if (flowLock == null) {
+                    final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+                    flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, priority);
+                }
+            } finally {
+                executionLock.unlock();
+            }
+        }
+        return flowLock.releaseAsync();
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
@@ -0,0 +1,279 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.exceptions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public final class MultiLock {
+    private MultiLock() {
+    }
+
+    public static void acquireAll(ISlockClient client, Lock... locks) throws SlockException {
+        Lock[] sortedLocks = sortLocks(locks);
+        if (sortedLocks.length == 0) return;
+
+        List<LockCommand> commands = new ArrayList<>(sortedLocks.length);
+        for (Lock lock : sortedLocks) {
+            commands.add(newAcquireCommand(lock, lock.timeout & 0xffff0000));
+        }
+        List<CommandResult> commandResults;
+        try {
+            commandResults = client.sendCommands(commands);
+        } catch (SlockException e) {
+            rollback(client, Arrays.asList(sortedLocks));
+            throw e;
+        }
+
+        List<Lock> heldLocks = new ArrayList<>(sortedLocks.length);
+        List<Lock> outOfOrderLocks = new ArrayList<>();
+        int waitIndex = -1;
+        SlockException exception = null;
+        for (int i = 0; i < sortedLocks.length; i++) {
+            LockCommandResult commandResult = (LockCommandResult) commandResults.get(i);
+            sortedLocks[i].currentLockData = commandResult.getLockResultData();
+            if (commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED) {
+                (waitIndex < 0 ? heldLocks : outOfOrderLocks).add(sortedLocks[i]);
+            } else if (commandResult.getResult() == ICommand.COMMAND_RESULT_TIMEOUT) {
+                if (waitIndex < 0) waitIndex = i;
+            } else if (exception == null) {
+                exception = toException(commands.get(i), commandResult);
+            }
+        }
+
+        if (exception != null) {
+            heldLocks.addAll(outOfOrderLocks);
+            rollback(client, heldLocks);
+            throw exception;
+        }
+        if (waitIndex < 0) return;
+        if (!outOfOrderLocks.isEmpty()) {
+            rollback(client, outOfOrderLocks);
+        }
+
+        for (int i = waitIndex; i < sortedLocks.length; i++) {
+            try {
+                LockCommand command = newAcquireCommand(sortedLocks[i], sortedLocks[i].timeout);
+                LockCommandResult commandResult = (LockCommandResult) client.sendCommand(command);
+                sortedLocks[i].currentLockData = commandResult.getLockResultData();
+                if (commandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED) {
+                    throw toException(command, commandResult);
+                }
+            } catch (SlockException e) {
+                rollback(client, heldLocks);
+                throw e;
+            }
+            heldLocks.add(sortedLocks[i]);
+        }
+    }
+
+    public static CompletableFuture<Boolean> acquireAllAsync(ISlockClient client, Lock... locks) {
+        Lock[] sortedLocks = sortLocks(locks);
+        if (sortedLocks.length == 0) return CompletableFuture.completedFuture(true);
+
+        List<LockCommand> commands = new ArrayList<>(sortedLocks.length);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sortedLocks.length];
+        for (int i = 0; i < sortedLocks.length; i++) {
+            LockCommand command = newAcquireCommand(sortedLocks[i], sortedLocks[i].timeout & 0xffff0000);
+            commands.add(command);
+            futures[i] = client.sendCommandAsync(command);
+        }
+
+        return CompletableFuture.allOf(futures).handle((v, e) -> null).thenCompose(v -> {
+            List<Lock> heldLocks = new ArrayList<>(sortedLocks.length);
+            List<Lock> outOfOrderLocks = new ArrayList<>();
+            int waitIndex = -1;
+            Throwable exception = null;
+            for (int i = 0; i < sortedLocks.length; i++) {
+                LockCommandResult commandResult;
+                try {
+                    commandResult = (LockCommandResult) futures[i].join();
+                } catch (CompletionException e) {
+                    if (exception == null) exception = AbstractExecution.unwrapAsyncException(e);
+                    continue;
+                }
+                sortedLocks[i].currentLockData = commandResult.getLockResultData();
+                if (commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED) {
+                    (waitIndex < 0 ? heldLocks : outOfOrderLocks).add(sortedLocks[i]);
+                } else if (commandResult.getResult() == ICommand.COMMAND_RESULT_TIMEOUT) {
+                    if (waitIndex < 0) waitIndex = i;
+                } else if (exception == null) {
+                    exception = toException(commands.get(i), commandResult);
+                }
+            }
+
+            if (exception != null) {
+                heldLocks.addAll(outOfOrderLocks);
+                Throwable finalException = exception;
+                return rollbackAsync(client, heldLocks).<Boolean>thenApply(r -> {
+                    throw AbstractExecution.wrapAsyncException(finalException);
+                });
+            }
+            if (waitIndex < 0) {
+                return CompletableFuture.completedFuture(true);
+            }
+            int finalWaitIndex = waitIndex;
+            return rollbackAsync(client, outOfOrderLocks).thenCompose(r -> acquireSequentialAsync(client, sortedLocks, finalWaitIndex, heldLocks));
+        });
+    }
+
+    private static CompletableFuture<Boolean> acquireSequentialAsync(ISlockClient client, Lock[] sortedLocks, int index, List<Lock> heldLocks) {
+        if (index >= sortedLocks.length) {
+            return CompletableFuture.completedFuture(true);
+        }
+        Lock lock = sortedLocks[index];
+        LockCommand command = newAcquireCommand(lock, lock.timeout);
+        return client.sendCommandAsync(command).handle((r, e) -> {
+            if (e == null) {
+                LockCommandResult commandResult = (LockCommandResult) r;
+                lock.currentLockData = commandResult.getLockResultData();
+                if (commandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED) {
+                    e = toException(command, commandResult);
+                }
+            }
+            if (e != null) {
+                Throwable exception = AbstractExecution.unwrapAsyncException(e);
+                return rollbackAsync(client, heldLocks).<Boolean>thenApply(v -> {
+                    throw AbstractExecution.wrapAsyncException(exception);
+                });
+            }
+            heldLocks.add(lock);
+            return acquireSequentialAsync(client, sortedLocks, index + 1, heldLocks);
+        }).thenCompose(future -> future);
+    }
+
+    public static void releaseAll(ISlockClient client, Lock... locks) throws SlockException {
+        Lock[] sortedLocks = sortLocks(locks);
+        if (sortedLocks.length == 0) return;
+
+        List<LockCommand> commands = new ArrayList<>(sortedLocks.length);
+        for (Lock lock : sortedLocks) {
+            commands.add(newReleaseCommand(lock));
+        }
+        List<CommandResult> commandResults;
+        try {
+            commandResults = client.sendCommands(commands);
+        } catch (SlockException e) {
+            for (Lock lock : sortedLocks) {
+                try {
+                    client.sendCommand(newReleaseCommand(lock));
+                } catch (SlockException ignored) {}
+            }
+            throw e;
+        }
+        SlockException exception = null;
+        for (int i = 0; i < sortedLocks.length; i++) {
+            LockCommandResult commandResult = (LockCommandResult) commandResults.get(i);
+            sortedLocks[i].currentLockData = commandResult.getLockResultData();
+            if (commandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED && exception == null) {
+                exception = toException(commands.get(i), commandResult);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    public static CompletableFuture<Boolean> releaseAllAsync(ISlockClient client, Lock... locks) {
+        Lock[] sortedLocks = sortLocks(locks);
+        if (sortedLocks.length == 0) return CompletableFuture.completedFuture(true);
+
+        List<LockCommand> commands = new ArrayList<>(sortedLocks.length);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[sortedLocks.length];
+        for (int i = 0; i < sortedLocks.length; i++) {
+            LockCommand command = newReleaseCommand(sortedLocks[i]);
+            commands.add(command);
+            futures[i] = client.sendCommandAsync(command);
+        }
+
+        return CompletableFuture.allOf(futures).handle((v, e) -> null).thenApply(v -> {
+            Throwable exception = null;
+            for (int i = 0; i < sortedLocks.length; i++) {
+                LockCommandResult commandResult;
+                try {
+                    commandResult = (LockCommandResult) futures[i].join();
+                } catch (CompletionException e) {
+                    if (exception == null) exception = AbstractExecution.unwrapAsyncException(e);
+                    continue;
+                }
+                sortedLocks[i].currentLockData = commandResult.getLockResultData();
+                if (commandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED && exception == null) {
+                    exception = toException(commands.get(i), commandResult);
+                }
+            }
+            if (exception != null) {
+                throw AbstractExecution.wrapAsyncException(exception);
+            }
+            return true;
+        });
+    }
+
+    private static void rollback(ISlockClient client, List<Lock> locks) {
+        if (locks.isEmpty()) return;
+        try {
+            releaseAll(client, locks.toArray(new Lock[0]));
+        } catch (SlockException ignored) {}
+    }
+
+    private static CompletableFuture<Boolean> rollbackAsync(ISlockClient client, List<Lock> locks) {
+        if (locks.isEmpty()) return CompletableFuture.completedFuture(true);
+        return releaseAllAsync(client, locks.toArray(new Lock[0])).handle((r, e) -> e == null);
+    }
+
+    private static Lock[] sortLocks(Lock[] locks) {
+        Set<Lock> uniqueLocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Lock> sortedLocks = new ArrayList<>(locks.length);
+        for (Lock lock : locks) {
+            if (lock != null && uniqueLocks.add(lock)) {
+                sortedLocks.add(lock);
+            }
+        }
+        Lock[] result = sortedLocks.toArray(new Lock[0]);
+        Arrays.sort(result, (a, b) -> compareKey(a.getLockKey(), b.getLockKey()));
+        return result;
+    }
+
+    private static int compareKey(byte[] a, byte[] b) {
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            int c = (a[i] & 0xff) - (b[i] & 0xff);
+            if (c != 0) return c;
+        }
+        return a.length - b.length;
+    }
+
+    private static LockCommand newAcquireCommand(Lock lock, int timeout) {
+        return new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, lock.database.getDbId(), lock.lockKey, lock.getLockId(),
+                timeout, lock.expried, lock.count, lock.rCount);
+    }
+
+    private static LockCommand newReleaseCommand(Lock lock) {
+        lock.unregisterLeaseWatchdog();
+        return new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, (byte) 0, lock.database.getDbId(), lock.lockKey, lock.getLockId(),
+                lock.timeout, lock.expried, lock.count, lock.rCount);
+    }
+
+    private static SlockException toException(LockCommand command, CommandResult commandResult) {
+        switch (commandResult.getResult()) {
+            case ICommand.COMMAND_RESULT_LOCKED_ERROR:
+                return new LockLockedException(command, commandResult);
+            case ICommand.COMMAND_RESULT_UNLOCK_ERROR:
+                return new LockUnlockedException(command, commandResult);
+            case ICommand.COMMAND_RESULT_UNOWN_ERROR:
+                return new LockNotOwnException(command, commandResult);
+            case ICommand.COMMAND_RESULT_TIMEOUT:
+                return new LockTimeoutException(command, commandResult);
+            default:
+                return new LockException(command, commandResult);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.datas.LockData;
+import io.github.snower.jaslock.exceptions.ClientCommandException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class NearLock extends Lock {
+    private final NearLockGroup nearLockGroup;
+    private volatile NearLockGroup.NearLockQueue nearLockQueue;
+
+    public NearLock(SlockDatabase database, byte[] lockKey, int timeout, int expried, NearLockGroup nearLockGroup) {
+        super(database, lockKey, timeout, expried);
+        this.nearLockGroup = nearLockGroup;
+    }
+
+    public NearLockGroup getNearLockGroup() {
+        return nearLockGroup;
+    }
+
+    @Override
+    public byte[] getLockId() {
+        NearLockGroup.NearLockQueue queue = nearLockQueue;
+        if (queue != null) {
+            NearLock remoteLock = queue.getRemoteLock();
+            if (remoteLock != null && remoteLock != this) {
+                return remoteLock.getOwnLockId();
+            }
+        }
+        return super.getLockId();
+    }
+
+    private byte[] getOwnLockId() {
+        return super.getLockId();
+    }
+
+    @Override
+    public LockCommandResult acquire(byte flag, LockData lockData) throws SlockException {
+        if (flag != 0 || lockData != null || count != 0 || rCount != 0 || nearLockQueue != null) {
+            return super.acquire(flag, lockData);
+        }
+        NearLockGroup.NearLockQueue queue = nearLockGroup.acquire(this);
+        nearLockQueue = queue;
+        return queue.getCommandResult();
+    }
+
+    @Override
+    public LockCommandResult release(byte flag, LockData lockData) throws SlockException {
+        NearLockGroup.NearLockQueue queue = nearLockQueue;
+        if (queue == null) {
+            return super.release(flag, lockData);
+        }
+        unregisterLeaseWatchdog();
+        nearLockQueue = null;
+        LockCommandResult commandResult = nearLockGroup.release(queue, flag, lockData);
+        if (flag != 0 || lockData != null) {
+            currentLockData = commandResult.getLockResultData();
+        }
+        return commandResult;
+    }
+
+    @Override
+    public void release(byte flag, LockData lockData, Consumer<CallbackCommandResult> callback) throws SlockException {
+        if (nearLockQueue != null) {
+            throw new ClientCommandException("Near lock must be released synchronously");
+        }
+        super.release(flag, lockData, callback);
+    }
+
+    @Override
+    public CompletableFuture<LockCommandResult> releaseAsync(byte flag, LockData lockData) {
+        if (nearLockQueue != null) {
+            CompletableFuture<LockCommandResult> future = new CompletableFuture<>();
+            future.completeExceptionally(new ClientCommandException("Near lock must be released synchronously"));
+            return future;
+        }
+        return super.releaseAsync(flag, lockData);
+    }
+
+    protected LockCommandResult acquireRemote(int timeout) throws SlockException {
+        return sendAcquireCommand((byte) 0, null, timeout);
+    }
+
+    protected LockCommandResult releaseRemote(byte flag, LockData lockData) throws SlockException {
+        return super.release(flag, lockData);
+    }
+
+    protected LockCommandResult renewRemote() throws SlockException {
+        LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, database.getDbId(),
+                lockKey, getLockId(), timeout & 0xffff0000, expried, count, rCount);
+        return (LockCommandResult) database.getClient().sendCommand(command);
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.datas.LockData;
+import io.github.snower.jaslock.exceptions.ClientCommandTimeoutException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class NearLockGroup {
+    private final NearLockOption nearLockOption;
+    private final ConcurrentHashMap<String, NearLockQueue> queues;
+    private final LongAdder remoteAcquireCount;
+    private final LongAdder handoffCount;
+    private final LongAdder renewCount;
+
+    public NearLockGroup(NearLockOption nearLockOption) {
+        this.nearLockOption = nearLockOption;
+        this.queues = new ConcurrentHashMap<>();
+        this.remoteAcquireCount = new LongAdder();
+        this.handoffCount = new LongAdder();
+        this.renewCount = new LongAdder();
+    }
+
+    public NearLockOption getNearLockOption() {
+        return nearLockOption;
+    }
+
+    public int getQueueCount() {
+        return queues.size();
+    }
+
+    public long getRemoteAcquireCount() {
+        return remoteAcquireCount.sum();
+    }
+
+    public long getHandoffCount() {
+        return handoffCount.sum();
+    }
+
+    public long getRenewCount() {
+        return renewCount.sum();
+    }
+
+    protected NearLockQueue acquire(NearLock lock) throws SlockException {
+        NearLockQueue queue = retain(lock.getLockKey());
+        long timeoutNanos = LockCommand.getTimeoutNanos(lock.timeout);
+        long waitStartNanos = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = queue.permit.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            free(queue);
+            throw new ClientCommandTimeoutException("Interrupted while waiting for the near lock");
+        }
+        if (!acquired) {
+            free(queue);
+            throw new ClientCommandTimeoutException("Timed out waiting for the near lock");
+        }
+
+        if (queue.remoteLock != null) {
+            handoffCount.increment();
+            return queue;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            queue.commandResult = lock.acquireRemote(remainingTimeout(lock.timeout, timeoutNanos - (startNanos - waitStartNanos)));
+        } catch (SlockException e) {
+            queue.permit.release();
+            free(queue);
+            throw e;
+        }
+        queue.remoteLock = lock;
+        queue.handoffs = 0;
+        queue.leaseExpiredNanos = startNanos + LockCommand.getExpriedNanos(lock.expried);
+        remoteAcquireCount.increment();
+        return queue;
+    }
+
+    protected LockCommandResult release(NearLockQueue queue, byte flag, LockData lockData) throws SlockException {
+        try {
+            if (flag == 0 && lockData == null && queue.handoffs < nearLockOption.getMaxHandoffs() && queue.permit.hasQueuedThreads() && renewLease(queue)) {
+                queue.handoffs++;
+                return queue.commandResult;
+            }
+
+            NearLock remoteLock = queue.remoteLock;
+            queue.remoteLock = null;
+            queue.commandResult = null;
+            return remoteLock.releaseRemote(flag, lockData);
+        } finally {
+            queue.permit.release();
+            free(queue);
+        }
+    }
+
+    private boolean renewLease(NearLockQueue queue) {
+        NearLock remoteLock = queue.remoteLock;
+        long expriedNanos = LockCommand.getExpriedNanos(remoteLock.expried);
+        if (expriedNanos <= 0) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        if (queue.leaseExpiredNanos - startNanos > expriedNanos / 2) {
+            return true;
+        }
+
+        try {
+            LockCommandResult commandResult = remoteLock.renewRemote();
+            if (commandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED && commandResult.getResult() != ICommand.COMMAND_RESULT_LOCKED_ERROR) {
+                return false;
+            }
+        } catch (SlockException e) {
+            return false;
+        }
+        queue.leaseExpiredNanos = startNanos + expriedNanos;
+        renewCount.increment();
+        return true;
+    }
+
+    static int remainingTimeout(int timeout, long remainingNanos) {
+        if (remainingNanos >= LockCommand.getTimeoutNanos(timeout)) {
+            return timeout;
+        }
+        int flags = (timeout & 0xffff0000) & ~(ICommand.TIMEOUT_FLAG_MINUTE_TIME << 16);
+        if (remainingNanos <= 0) {
+            return flags & ~(ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16);
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remainingNanos);
+        if (remainingMillis <= 0xffff) {
+            return flags | (ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16) | (int) remainingMillis;
+        }
+        return (flags & ~(ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16)) | (int) Math.min(TimeUnit.NANOSECONDS.toSeconds(remainingNanos), 0xffff);
+    }
+
+    private NearLockQueue retain(byte[] lockKey) {
+        return queues.compute(new String(lockKey, StandardCharsets.ISO_8859_1), (key, queue) -> {
+            if (queue == null) {
+                queue = new NearLockQueue(key);
+            }
+            queue.refCount++;
+            return queue;
+        });
+    }
+
+    private void free(NearLockQueue queue) {
+        boolean[] removed = new boolean[]{false};
+        queues.computeIfPresent(queue.key, (key, q) -> {
+            if (q != queue || --q.refCount > 0) {
+                return q;
+            }
+            removed[0] = true;
+            return null;
+        });
+
+        NearLock remoteLock = queue.remoteLock;
+        if (removed[0] && remoteLock != null) {
+            queue.remoteLock = null;
+            try {
+                remoteLock.releaseRemote((byte) 0, null);
+            } catch (SlockException ignored) {}
+        }
+    }
+
+    protected static class NearLockQueue {
+        private final String key;
+        private final Semaphore permit;
+        private volatile NearLock remoteLock;
+        private LockCommandResult commandResult;
+        private int handoffs;
+        private long leaseExpiredNanos;
+        private int refCount;
+
+        public NearLockQueue(String key) {
+            this.key = key;
+            this.permit = new Semaphore(1, true);
+            this.refCount = 0;
+        }
+
+        public LockCommandResult getCommandResult() {
+            return commandResult;
+        }
+
+        public NearLock getRemoteLock() {
+            return remoteLock;
+        }
+    }
+}
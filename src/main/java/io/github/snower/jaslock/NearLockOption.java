@@ -0,0 +1,23 @@
+package io.github.snower.jaslock;
+
+public class NearLockOption {
+    public final static NearLockOption DefaultOption = new NearLockOption(0);
+
+    private final int maxHandoffs;
+
+    public NearLockOption(int maxHandoffs) {
+        this.maxHandoffs = Math.max(maxHandoffs, 0);
+    }
+
+    public static NearLockOption handoff(int maxHandoffs) {
+        return new NearLockOption(maxHandoffs);
+    }
+
+    public int getMaxHandoffs() {
+        return maxHandoffs;
+    }
+
+    public boolean isEnabled() {
+        return maxHandoffs > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.snower.jaslock;
+
+public class PermitLeaseOption {
+    public final static PermitLeaseOption DefaultOption = new PermitLeaseOption(8, 32, 1000);
+
+    private final int blockSize;
+    private final int maxLocalPermits;
+    private final int idleMillis;
+
+    public PermitLeaseOption(int blockSize, int maxLocalPermits, int idleMillis) {
+        this.blockSize = Math.max(blockSize, 1);
+        this.maxLocalPermits = Math.max(maxLocalPermits, this.blockSize);
+        this.idleMillis = Math.max(idleMillis, 1);
+    }
+
+    public static PermitLeaseOption block(int blockSize, int maxLocalPermits) {
+        return new PermitLeaseOption(blockSize, maxLocalPermits, 1000);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getMaxLocalPermits() {
+        return maxLocalPermits;
+    }
+
+    public int getIdleMillis() {
+        return idleMillis;
+    }
+}
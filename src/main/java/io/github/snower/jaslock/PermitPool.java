@@ -0,0 +1,429 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PermitPool {
+    private final SlockDatabase database;
+    private final byte[] lockKey;
+    private final int timeout;
+    private final int expried;
+    private final short count;
+    private final byte rCount;
+    private final PermitLeaseOption permitLeaseOption;
+    private final long maxLeaseNanos;
+    private final long renewLeaseNanos;
+    private final ReentrantLock poolLock;
+    private final ArrayDeque<Permit> idlePermits;
+    private final ArrayDeque<Permit> usedPermits;
+    private final LongAdder localAcquireCount;
+    private final LongAdder remoteAcquireCount;
+    private final LongAdder remoteReleaseCount;
+    private final LongAdder renewCount;
+    private ScheduledFuture<?> reapFuture;
+    private int releasingCount;
+    private boolean closed;
+
+    public PermitPool(SlockDatabase database, byte[] lockKey, int timeout, int expried, short count, byte rCount, PermitLeaseOption permitLeaseOption) {
+        this.database = database;
+        this.lockKey = lockKey;
+        this.timeout = timeout;
+        this.expried = expried;
+        this.count = count;
+        this.rCount = rCount;
+        this.permitLeaseOption = permitLeaseOption == null ? PermitLeaseOption.DefaultOption : permitLeaseOption;
+        long expriedNanos = LockCommand.getExpriedNanos(expried);
+        this.maxLeaseNanos = expriedNanos > 0 ? expriedNanos - expriedNanos / 4 : Long.MAX_VALUE;
+        this.renewLeaseNanos = expriedNanos > 0 ? expriedNanos / 2 : Long.MAX_VALUE;
+        this.poolLock = new ReentrantLock();
+        this.idlePermits = new ArrayDeque<>();
+        this.usedPermits = new ArrayDeque<>();
+        this.localAcquireCount = new LongAdder();
+        this.remoteAcquireCount = new LongAdder();
+        this.remoteReleaseCount = new LongAdder();
+        this.renewCount = new LongAdder();
+        this.closed = false;
+    }
+
+    public PermitLeaseOption getPermitLeaseOption() {
+        return permitLeaseOption;
+    }
+
+    public int getIdleCount() {
+        poolLock.lock();
+        try {
+            return idlePermits.size();
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    public int getLeasedCount() {
+        poolLock.lock();
+        try {
+            return idlePermits.size() + usedPermits.size();
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    public int getReleasingCount() {
+        poolLock.lock();
+        try {
+            return releasingCount;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    public long getLocalAcquireCount() {
+        return localAcquireCount.sum();
+    }
+
+    public long getRemoteAcquireCount() {
+        return remoteAcquireCount.sum();
+    }
+
+    public long getRemoteReleaseCount() {
+        return remoteReleaseCount.sum();
+    }
+
+    public long getRenewCount() {
+        return renewCount.sum();
+    }
+
+    public void acquire() throws SlockException {
+        List<Lock> staleLocks = new ArrayList<>();
+        Permit permit;
+        int reserveCount = 0;
+        poolLock.lock();
+        try {
+            permit = pollIdlePermit(staleLocks);
+            if (permit == null) {
+                reserveCount = Math.min(permitLeaseOption.getBlockSize(), permitLeaseOption.getMaxLocalPermits() - usedPermits.size());
+            }
+        } finally {
+            poolLock.unlock();
+        }
+        if (permit != null && !renewPermit(permit)) {
+            addReleasingCount(1);
+            staleLocks.add(permit.lock);
+            permit = null;
+        }
+        releaseRemote(staleLocks);
+        if (permit != null) {
+            addUsedPermit(permit);
+            return;
+        }
+
+        List<Lock> locks = reserveCount > 0 ? reserve(reserveCount) : new ArrayList<>();
+        if (locks.isEmpty()) {
+            Lock lock = newLock(timeout);
+            lock.acquire();
+            locks.add(lock);
+        }
+        remoteAcquireCount.add(locks.size());
+
+        long now = System.nanoTime();
+        poolLock.lock();
+        try {
+            usedPermits.addLast(new Permit(locks.get(0), now));
+            for (int i = 1; i < locks.size(); i++) {
+                Permit idlePermit = new Permit(locks.get(i), now);
+                idlePermit.idleAt = now;
+                idlePermits.addLast(idlePermit);
+            }
+            scheduleReap();
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    public CompletableFuture<Boolean> acquireAsync() {
+        List<Lock> staleLocks = new ArrayList<>();
+        Permit permit;
+        poolLock.lock();
+        try {
+            permit = pollIdlePermit(staleLocks);
+        } finally {
+            poolLock.unlock();
+        }
+        if (!staleLocks.isEmpty()) {
+            releaseRemoteAsync(staleLocks);
+        }
+        if (permit == null) {
+            return acquireRemoteAsync();
+        }
+        if (System.nanoTime() - permit.leasedAt < renewLeaseNanos) {
+            addUsedPermit(permit);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        long now = System.nanoTime();
+        CompletableFuture<CommandResult> renewFuture;
+        try {
+            renewFuture = database.getClient().sendCommandAsync(newRenewCommand(permit.lock));
+        } catch (SlockException e) {
+            renewFuture = new CompletableFuture<>();
+            renewFuture.completeExceptionally(e);
+        }
+        return renewFuture.handle((commandResult, e) -> {
+            if (e == null && isRenewed(commandResult)) {
+                permit.leasedAt = now;
+                renewCount.increment();
+                addUsedPermit(permit);
+                return CompletableFuture.completedFuture(true);
+            }
+            List<Lock> locks = new ArrayList<>();
+            locks.add(permit.lock);
+            addReleasingCount(1);
+            releaseRemoteAsync(locks);
+            return acquireRemoteAsync();
+        }).thenCompose(future -> future);
+    }
+
+    private CompletableFuture<Boolean> acquireRemoteAsync() {
+        Lock lock = newLock(timeout);
+        return lock.acquireAsync().thenApply(result -> {
+            remoteAcquireCount.increment();
+            poolLock.lock();
+            try {
+                usedPermits.addLast(new Permit(lock, System.nanoTime()));
+            } finally {
+                poolLock.unlock();
+            }
+            return true;
+        });
+    }
+
+    public boolean release() throws SlockException {
+        Permit permit = pollUsedPermit();
+        if (permit == null) {
+            return false;
+        }
+        if (!offerIdlePermit(permit)) {
+            remoteReleaseCount.increment();
+            permit.lock.release();
+        }
+        return true;
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        Permit permit = pollUsedPermit();
+        if (permit == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (offerIdlePermit(permit)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        remoteReleaseCount.increment();
+        return permit.lock.releaseAsync();
+    }
+
+    public void close() {
+        List<Lock> locks = new ArrayList<>();
+        poolLock.lock();
+        try {
+            closed = true;
+            for (Permit permit : idlePermits) {
+                locks.add(permit.lock);
+            }
+            idlePermits.clear();
+            releasingCount += locks.size();
+            if (reapFuture != null) {
+                reapFuture.cancel(false);
+                reapFuture = null;
+            }
+        } finally {
+            poolLock.unlock();
+        }
+        releaseRemote(locks);
+    }
+
+    private Lock newLock(int timeout) {
+        return new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, rCount);
+    }
+
+    private Permit pollIdlePermit(List<Lock> staleLocks) {
+        long now = System.nanoTime();
+        while (true) {
+            Permit permit = idlePermits.pollFirst();
+            if (permit == null) return null;
+            if (now - permit.leasedAt < maxLeaseNanos) return permit;
+            releasingCount++;
+            staleLocks.add(permit.lock);
+        }
+    }
+
+    private void addUsedPermit(Permit permit) {
+        poolLock.lock();
+        try {
+            usedPermits.addLast(permit);
+        } finally {
+            poolLock.unlock();
+        }
+        localAcquireCount.increment();
+    }
+
+    private boolean renewPermit(Permit permit) {
+        long now = System.nanoTime();
+        if (now - permit.leasedAt < renewLeaseNanos) {
+            return true;
+        }
+        try {
+            if (!isRenewed(database.getClient().sendCommand(newRenewCommand(permit.lock)))) {
+                return false;
+            }
+        } catch (SlockException e) {
+            return false;
+        }
+        permit.leasedAt = now;
+        renewCount.increment();
+        return true;
+    }
+
+    private LockCommand newRenewCommand(Lock lock) {
+        return new LockCommand(ICommand.COMMAND_TYPE_LOCK, ICommand.LOCK_FLAG_UPDATE_WHEN_LOCKED, database.getDbId(), lockKey, lock.getLockId(),
+                timeout & 0xffff0000, expried, count, rCount);
+    }
+
+    private static boolean isRenewed(CommandResult commandResult) {
+        return commandResult.getResult() == ICommand.COMMAND_RESULT_SUCCED || commandResult.getResult() == ICommand.COMMAND_RESULT_LOCKED_ERROR;
+    }
+
+    private Permit pollUsedPermit() {
+        poolLock.lock();
+        try {
+            return usedPermits.pollLast();
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    private boolean offerIdlePermit(Permit permit) {
+        long now = System.nanoTime();
+        poolLock.lock();
+        try {
+            if (closed || now - permit.leasedAt >= maxLeaseNanos
+                    || idlePermits.size() + usedPermits.size() >= permitLeaseOption.getMaxLocalPermits()) {
+                return false;
+            }
+            permit.idleAt = now;
+            idlePermits.addFirst(permit);
+            scheduleReap();
+            return true;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    private List<Lock> reserve(int reserveCount) throws SlockException {
+        List<Lock> locks = new ArrayList<>(reserveCount);
+        List<LockCommand> commands = new ArrayList<>(reserveCount);
+        for (int i = 0; i < reserveCount; i++) {
+            Lock lock = newLock(timeout & 0xffff0000);
+            locks.add(lock);
+            commands.add(new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, database.getDbId(), lockKey, lock.getLockId(),
+                    lock.timeout, expried, count, rCount));
+        }
+        List<CommandResult> commandResults;
+        try {
+            commandResults = database.getClient().sendCommands(commands);
+        } catch (SlockException e) {
+            try {
+                MultiLock.releaseAll(database.getClient(), locks.toArray(new Lock[0]));
+            } catch (SlockException ignored) {}
+            throw e;
+        }
+        List<Lock> reservedLocks = new ArrayList<>(reserveCount);
+        for (int i = 0; i < reserveCount; i++) {
+            if (commandResults.get(i).getResult() == ICommand.COMMAND_RESULT_SUCCED) {
+                reservedLocks.add(locks.get(i));
+            }
+        }
+        return reservedLocks;
+    }
+
+    private void scheduleReap() {
+        if (reapFuture != null || closed || idlePermits.isEmpty()) return;
+
+        ScheduledExecutorService scheduledExecutor = SharedScheduledExecutor.get();
+        long idleMillis = permitLeaseOption.getIdleMillis();
+        reapFuture = scheduledExecutor.scheduleWithFixedDelay(this::reap, idleMillis, idleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reap() {
+        List<Lock> locks = new ArrayList<>();
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(permitLeaseOption.getIdleMillis());
+        poolLock.lock();
+        try {
+            while (!idlePermits.isEmpty()) {
+                Permit permit = idlePermits.peekLast();
+                if (now - permit.idleAt < idleNanos && now - permit.leasedAt < maxLeaseNanos) break;
+                idlePermits.pollLast();
+                releasingCount++;
+                locks.add(permit.lock);
+            }
+            if (idlePermits.isEmpty() && reapFuture != null) {
+                reapFuture.cancel(false);
+                reapFuture = null;
+            }
+        } finally {
+            poolLock.unlock();
+        }
+        releaseRemote(locks);
+    }
+
+    private void addReleasingCount(int count) {
+        poolLock.lock();
+        try {
+            releasingCount += count;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    private void releaseRemote(List<Lock> locks) {
+        if (locks.isEmpty()) return;
+        try {
+            MultiLock.releaseAll(database.getClient(), locks.toArray(new Lock[0]));
+        } catch (SlockException ignored) {
+        } finally {
+            addReleasingCount(-locks.size());
+        }
+        remoteReleaseCount.add(locks.size());
+    }
+
+    private void releaseRemoteAsync(List<Lock> locks) {
+        try {
+            MultiLock.releaseAllAsync(database.getClient(), locks.toArray(new Lock[0])).whenComplete((result, e) -> addReleasingCount(-locks.size()));
+        } catch (SlockException e) {
+            addReleasingCount(-locks.size());
+        }
+        remoteReleaseCount.add(locks.size());
+    }
+
+    private static class Permit {
+        private final Lock lock;
+        private volatile long leasedAt;
+        private long idleAt;
+
+        public Permit(Lock lock, long leasedAt) {
+            this.lock = lock;
+            this.leasedAt = leasedAt;
+        }
+    }
+}
@@ -4,7 +4,7 @@ import io.github.snower.jaslock.callback.CallbackFuture;
 import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class PriorityLock extends AbstractExecution {
@@ -22,11 +22,11 @@ public class PriorityLock extends AbstractExecution {
     }
 
     public PriorityLock(SlockDatabase database, String lockKey, byte priority, int timeout, int expried, short count) {
-        this(database, lockKey.getBytes(StandardCharsets.UTF_8), priority, timeout, expried, count);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(lockKey), priority, timeout, expried, count);
     }
 
     public PriorityLock(SlockDatabase database, String lockKey, byte priority, int timeout, int expried) {
-        this(database, lockKey.getBytes(StandardCharsets.UTF_8), priority, timeout, expried, (short) 0);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(lockKey), priority, timeout, expried, (short) 0);
     }
 
     public byte getPriority() {
@@ -38,22 +38,28 @@ public class PriorityLock extends AbstractExecution {
     }
 
     public void acquire() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.acquire();
     }
 
     public CallbackFuture<Boolean> acquire(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
             }
+        } finally {
+            executionLock.unlock();
         }
-        lock.acquire((byte) 0, callbackCommandResult -> {
+        lock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -65,20 +71,26 @@ public class PriorityLock extends AbstractExecution {
     }
 
     public void release() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.release();
     }
 
     public CallbackFuture<Boolean> release(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.release((byte) 0, callbackCommandResult -> {
             try {
@@ -91,6 +103,30 @@ public class PriorityLock extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        executionLock.lock();
+        try {
+            if(lock == null) {
+                lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return lock.acquireAsync();
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        executionLock.lock();
+        try {
+            if(lock == null) {
+                lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout | 0x00100000, expried, count, priority);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return lock.releaseAsync();
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
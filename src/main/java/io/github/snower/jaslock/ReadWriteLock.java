@@ -4,14 +4,15 @@ import io.github.snower.jaslock.callback.CallbackFuture;
 import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class ReadWriteLock extends AbstractExecution {
     private final LinkedList<Lock> readLocks;
     private Lock writeLock;
+    private volatile SharedReadLock sharedReadLock;
 
     public ReadWriteLock(SlockDatabase database, byte[] lockKey, int timeout, int expried) {
         super(database, lockKey, timeout, expried);
@@ -19,79 +20,161 @@ public class ReadWriteLock extends AbstractExecution {
     }
 
     public ReadWriteLock(SlockDatabase database, String lockKey, int timeout, int expried) {
-        this(database, lockKey.getBytes(StandardCharsets.UTF_8), timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(lockKey), timeout, expried);
+    }
+
+    public void setSharedReadOption(SharedReadOption sharedReadOption) {
+        this.sharedReadLock = sharedReadOption == null || !sharedReadOption.isEnabled() ? null
+                : new SharedReadLock(database, lockKey, timeout, expried, sharedReadOption);
+    }
+
+    public SharedReadLock getSharedReadLock() {
+        return sharedReadLock;
     }
 
     public void acquireWrite() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(writeLock == null) {
                 writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
+        }
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock == null) {
+            writeLock.acquire();
+            return;
+        }
+        sharedReadLock.beginWrite();
+        try {
+            writeLock.acquire();
+        } catch (SlockException e) {
+            sharedReadLock.endWrite();
+            throw e;
         }
-        writeLock.acquire();
     }
 
     public CallbackFuture<Boolean> acquireWrite(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(writeLock == null) {
                 writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
-        writeLock.acquire((byte) 0, callbackCommandResult -> {
-            try {
-                callbackCommandResult.getResult();
-                callbackFuture.setResult(true);
-            } catch (SlockException e) {
-                callbackFuture.setResult(false, e);
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            sharedReadLock.beginWrite();
+        }
+        try {
+            writeLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
+                try {
+                    callbackCommandResult.getResult();
+                    callbackFuture.setResult(true);
+                } catch (SlockException e) {
+                    if (sharedReadLock != null) {
+                        sharedReadLock.endWrite();
+                    }
+                    callbackFuture.setResult(false, e);
+                }
+            });
+        } catch (SlockException e) {
+            if (sharedReadLock != null) {
+                sharedReadLock.endWrite();
             }
-        });
+            throw e;
+        }
         return callbackFuture;
     }
 
     public void releaseWrite() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(writeLock == null) {
                 writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
+        }
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock == null) {
+            writeLock.release();
+            return;
+        }
+        try {
+            writeLock.release();
+        } finally {
+            sharedReadLock.endWrite();
         }
-        writeLock.release();
     }
 
     public CallbackFuture<Boolean> releaseWrite(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(writeLock == null) {
                 writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
             }
+        } finally {
+            executionLock.unlock();
         }
-        writeLock.release((byte) 0, callbackCommandResult -> {
-            try {
-                callbackCommandResult.getResult();
-                callbackFuture.setResult(true);
-            } catch (SlockException e) {
-                callbackFuture.setResult(false, e);
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        try {
+            writeLock.release((byte) 0, callbackCommandResult -> {
+                if (sharedReadLock != null) {
+                    sharedReadLock.endWrite();
+                }
+                try {
+                    callbackCommandResult.getResult();
+                    callbackFuture.setResult(true);
+                } catch (SlockException e) {
+                    callbackFuture.setResult(false, e);
+                }
+            });
+        } catch (SlockException e) {
+            if (sharedReadLock != null) {
+                sharedReadLock.endWrite();
             }
-        });
+            throw e;
+        }
         return callbackFuture;
     }
 
     public void acquireRead() throws SlockException {
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            sharedReadLock.acquire();
+            return;
+        }
         Lock readLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0xffff, (byte) 0);
         readLock.acquire();
-        synchronized (this) {
+        executionLock.lock();
+        try {
             readLocks.add(readLock);
+        } finally {
+            executionLock.unlock();
         }
     }
 
     public CallbackFuture<Boolean> acquireRead(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            sharedReadLock.acquireAsync().whenComplete((result, e) -> setCallbackResult(callbackFuture, e));
+            return callbackFuture;
+        }
         Lock readLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0xffff, (byte) 0);
-        readLock.acquire((byte) 0, callbackCommandResult -> {
+        readLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
-                synchronized (this) {
+                executionLock.lock();
+                try {
                     readLocks.add(readLock);
+                } finally {
+                    executionLock.unlock();
                 }
                 callbackFuture.setResult(true);
             } catch (SlockException e) {
@@ -102,27 +185,47 @@ public class ReadWriteLock extends AbstractExecution {
     }
 
     public void releaseRead() throws SlockException {
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null && sharedReadLock.release()) {
+            return;
+        }
+        releasePerReader();
+    }
+
+    private void releasePerReader() throws SlockException {
         Lock readLock;
-        synchronized (this) {
+        executionLock.lock();
+        try {
             try {
                 readLock = readLocks.removeFirst();
             } catch (NoSuchElementException e) {
                 return;
             }
+        } finally {
+            executionLock.unlock();
         }
         readLock.release();
     }
 
     public CallbackFuture<Boolean> releaseRead(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            sharedReadLock.releaseAsync().thenCompose(released -> released ? CompletableFuture.completedFuture(true) : releasePerReaderAsync())
+                    .whenComplete((result, e) -> setCallbackResult(callbackFuture, e));
+            return callbackFuture;
+        }
         Lock readLock;
-        synchronized (this) {
+        executionLock.lock();
+        try {
             try {
                 readLock = readLocks.removeFirst();
             } catch (NoSuchElementException e) {
                 callbackFuture.setResult(true);
                 return callbackFuture;
             }
+        } finally {
+            executionLock.unlock();
         }
         readLock.release((byte) 0, callbackCommandResult -> {
             try {
@@ -135,6 +238,92 @@ public class ReadWriteLock extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> acquireWriteAsync() {
+        executionLock.lock();
+        try {
+            if(writeLock == null) {
+                writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock == null) {
+            return writeLock.acquireAsync();
+        }
+        sharedReadLock.beginWrite();
+        return writeLock.acquireAsync().whenComplete((result, e) -> {
+            if (e != null) {
+                sharedReadLock.endWrite();
+            }
+        });
+    }
+
+    public CompletableFuture<Boolean> releaseWriteAsync() {
+        executionLock.lock();
+        try {
+            if(writeLock == null) {
+                writeLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock == null) {
+            return writeLock.releaseAsync();
+        }
+        return writeLock.releaseAsync().whenComplete((result, e) -> sharedReadLock.endWrite());
+    }
+
+    public CompletableFuture<Boolean> acquireReadAsync() {
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            return sharedReadLock.acquireAsync();
+        }
+        Lock readLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0xffff, (byte) 0);
+        return readLock.acquireAsync().thenApply(result -> {
+            executionLock.lock();
+            try {
+                readLocks.add(readLock);
+            } finally {
+                executionLock.unlock();
+            }
+            return true;
+        });
+    }
+
+    public CompletableFuture<Boolean> releaseReadAsync() {
+        SharedReadLock sharedReadLock = this.sharedReadLock;
+        if (sharedReadLock != null) {
+            return sharedReadLock.releaseAsync().thenCompose(released -> released ? CompletableFuture.completedFuture(true) : releasePerReaderAsync());
+        }
+        return releasePerReaderAsync();
+    }
+
+    private CompletableFuture<Boolean> releasePerReaderAsync() {
+        Lock readLock;
+        executionLock.lock();
+        try {
+            try {
+                readLock = readLocks.removeFirst();
+            } catch (NoSuchElementException e) {
+                return CompletableFuture.completedFuture(true);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return readLock.releaseAsync();
+    }
+
+    private static void setCallbackResult(CallbackFuture<Boolean> callbackFuture, Throwable e) {
+        if (e == null) {
+            callbackFuture.setResult(true);
+            return;
+        }
+        Throwable cause = unwrapAsyncException(e);
+        callbackFuture.setResult(false, cause instanceof SlockException ? (SlockException) cause : new SlockException(cause.toString()));
+    }
+
     public void acquire() throws SlockException {
         acquireWrite();
     }
@@ -151,6 +340,14 @@ public class ReadWriteLock extends AbstractExecution {
         return releaseWrite(callback);
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        return acquireWriteAsync();
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        return releaseWriteAsync();
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
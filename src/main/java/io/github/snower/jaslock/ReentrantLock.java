@@ -4,7 +4,7 @@ import io.github.snower.jaslock.callback.CallbackFuture;
 import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class ReentrantLock extends AbstractExecution {
@@ -15,26 +15,32 @@ public class ReentrantLock extends AbstractExecution {
     }
 
     public ReentrantLock(SlockDatabase database, String lockKey, int timeout, int expried) {
-        this(database, lockKey.getBytes(StandardCharsets.UTF_8), timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(lockKey), timeout, expried);
     }
 
     public void acquire() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.acquire();
     }
 
     public CallbackFuture<Boolean> acquire(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
             }
+        } finally {
+            executionLock.unlock();
         }
-        lock.acquire((byte) 0, callbackCommandResult -> {
+        lock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -46,20 +52,26 @@ public class ReentrantLock extends AbstractExecution {
     }
 
     public void release() throws SlockException {
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.release();
     }
 
     public CallbackFuture<Boolean> release(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        synchronized (this) {
+        executionLock.lock();
+        try {
             if(lock == null) {
                 lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
             }
+        } finally {
+            executionLock.unlock();
         }
         lock.release((byte) 0, callbackCommandResult -> {
             try {
@@ -72,6 +84,30 @@ public class ReentrantLock extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        executionLock.lock();
+        try {
+            if(lock == null) {
+                lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return lock.acquireAsync();
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        executionLock.lock();
+        try {
+            if(lock == null) {
+                lock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0, (byte) 0xff);
+            }
+        } finally {
+            executionLock.unlock();
+        }
+        return lock.releaseAsync();
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
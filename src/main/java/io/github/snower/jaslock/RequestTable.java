@@ -0,0 +1,258 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class RequestTable {
+    private static final int DEFAULT_SEGMENT_COUNT = 64;
+    private static final int DEFAULT_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public RequestTable(int segmentCount) {
+        int size = 1;
+        while (size < segmentCount) {
+            size <<= 1;
+        }
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment(DEFAULT_SEGMENT_CAPACITY);
+        }
+        this.segmentMask = size - 1;
+    }
+
+    public RequestTable() {
+        this(DEFAULT_SEGMENT_COUNT);
+    }
+
+    public static long readIdHigh(byte[] id) {
+        return readLong(id, 0);
+    }
+
+    public static long readIdLow(byte[] id) {
+        return readLong(id, 8);
+    }
+
+    private static long readLong(byte[] buf, int offset) {
+        return ((buf[offset] & 0xffL) << 56) | ((buf[offset + 1] & 0xffL) << 48) | ((buf[offset + 2] & 0xffL) << 40)
+                | ((buf[offset + 3] & 0xffL) << 32) | ((buf[offset + 4] & 0xffL) << 24) | ((buf[offset + 5] & 0xffL) << 16)
+                | ((buf[offset + 6] & 0xffL) << 8) | (buf[offset + 7] & 0xffL);
+    }
+
+    private static int hash(long high, long low) {
+        long h = high * 0x9e3779b97f4a7c15L ^ low;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 24) & segmentMask];
+    }
+
+    public Command put(long high, long low, Command command) {
+        int hash = hash(high, low);
+        return segmentFor(hash).put(hash, high, low, command);
+    }
+
+    public Command put(Command command) {
+        byte[] requestId = command.getRequestId();
+        return put(readIdHigh(requestId), readIdLow(requestId), command);
+    }
+
+    public Command get(long high, long low) {
+        int hash = hash(high, low);
+        return segmentFor(hash).get(hash, high, low);
+    }
+
+    public Command get(byte[] requestId) {
+        return get(readIdHigh(requestId), readIdLow(requestId));
+    }
+
+    public Command remove(long high, long low) {
+        int hash = hash(high, low);
+        return segmentFor(hash).remove(hash, high, low);
+    }
+
+    public Command remove(byte[] requestId) {
+        return remove(readIdHigh(requestId), readIdLow(requestId));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int drainAll(Consumer<Command> consumer) {
+        int count = 0;
+        for (Segment segment : segments) {
+            List<Command> commands = segment.drain();
+            if (commands == null) {
+                continue;
+            }
+            for (Command command : commands) {
+                consumer.accept(command);
+            }
+            count += commands.size();
+        }
+        return count;
+    }
+
+    private static final class Segment extends ReentrantLock {
+        private long[] keys;
+        private Command[] values;
+        private volatile int size;
+        private int mask;
+
+        private Segment(int capacity) {
+            this.keys = new long[capacity * 2];
+            this.values = new Command[capacity];
+            this.size = 0;
+            this.mask = capacity - 1;
+        }
+
+        private int indexOf(int hash, long high, long low) {
+            int index = hash & mask;
+            while (true) {
+                if (values[index] == null) {
+                    return -1;
+                }
+                if (keys[index << 1] == high && keys[(index << 1) + 1] == low) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private Command get(int hash, long high, long low) {
+            lock();
+            try {
+                int index = indexOf(hash, high, low);
+                return index < 0 ? null : values[index];
+            } finally {
+                unlock();
+            }
+        }
+
+        private Command put(int hash, long high, long low, Command command) {
+            lock();
+            try {
+                int index = hash & mask;
+                while (values[index] != null) {
+                    if (keys[index << 1] == high && keys[(index << 1) + 1] == low) {
+                        Command oldCommand = values[index];
+                        values[index] = command;
+                        return oldCommand;
+                    }
+                    index = (index + 1) & mask;
+                }
+                keys[index << 1] = high;
+                keys[(index << 1) + 1] = low;
+                values[index] = command;
+                size = size + 1;
+                if (size * 2 > values.length) {
+                    resize(values.length * 2);
+                }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        private Command remove(int hash, long high, long low) {
+            lock();
+            try {
+                int index = indexOf(hash, high, low);
+                if (index < 0) {
+                    return null;
+                }
+                Command command = values[index];
+                deleteSlot(index);
+                size = size - 1;
+                return command;
+            } finally {
+                unlock();
+            }
+        }
+
+        private void deleteSlot(int index) {
+            int gap = index;
+            int next = (gap + 1) & mask;
+            while (values[next] != null) {
+                int home = RequestTable.hash(keys[next << 1], keys[(next << 1) + 1]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap << 1] = keys[next << 1];
+                    keys[(gap << 1) + 1] = keys[(next << 1) + 1];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[gap << 1] = 0;
+            keys[(gap << 1) + 1] = 0;
+            values[gap] = null;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Command[] oldValues = values;
+            keys = new long[capacity * 2];
+            values = new Command[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] == null) {
+                    continue;
+                }
+                long high = oldKeys[i << 1], low = oldKeys[(i << 1) + 1];
+                int index = RequestTable.hash(high, low) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index << 1] = high;
+                keys[(index << 1) + 1] = low;
+                values[index] = oldValues[i];
+            }
+        }
+
+        private List<Command> drain() {
+            if (size == 0) {
+                return null;
+            }
+
+            lock();
+            try {
+                List<Command> commands = new ArrayList<>(size);
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        commands.add(values[i]);
+                        values[i] = null;
+                        keys[i << 1] = 0;
+                        keys[(i << 1) + 1] = 0;
+                    }
+                }
+                size = 0;
+                return commands;
+            } finally {
+                unlock();
+            }
+        }
+    }
+}
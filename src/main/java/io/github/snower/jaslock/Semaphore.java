@@ -5,19 +5,42 @@ import io.github.snower.jaslock.commands.ICommand;
 import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class Semaphore extends AbstractExecution {
+    private volatile PermitPool permitPool;
+
     public Semaphore(SlockDatabase database, byte[] semaphoreKey, short count, int timeout, int expried) {
         super(database, semaphoreKey, timeout, expried, (short) (count > 0 ? count - 1 : 0), (byte) 0);
     }
 
     public Semaphore(SlockDatabase database, String semaphoreKey, short count, int timeout, int expried) {
-        this(database, semaphoreKey.getBytes(StandardCharsets.UTF_8), count, timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(semaphoreKey), count, timeout, expried);
+    }
+
+    public void setPermitLeaseOption(PermitLeaseOption permitLeaseOption) {
+        PermitPool permitPool = this.permitPool;
+        this.permitPool = permitLeaseOption == null ? null : new PermitPool(database, lockKey, timeout, expried, count, (byte) 0, permitLeaseOption);
+        if (permitPool != null) {
+            permitPool.close();
+        }
+    }
+
+    public PermitPool getPermitPool() {
+        return permitPool;
+    }
+
+    public void close() {
+        setPermitLeaseOption(null);
     }
 
     public void acquire() throws SlockException {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            permitPool.acquire();
+            return;
+        }
         Lock flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
         flowLock.acquire();
     }
@@ -25,7 +48,7 @@ public class Semaphore extends AbstractExecution {
     public CallbackFuture<Boolean> acquire(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
         Lock flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
-        flowLock.acquire((byte) 0, callbackCommandResult -> {
+        flowLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
@@ -37,6 +60,10 @@ public class Semaphore extends AbstractExecution {
     }
 
     public void release() throws SlockException {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null && permitPool.release()) {
+            return;
+        }
         Lock flowLock = new Lock(database, lockKey, new byte[16], timeout, expried, count, (byte) 0);
         flowLock.release(ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED);
     }
@@ -55,6 +82,28 @@ public class Semaphore extends AbstractExecution {
         return callbackFuture;
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            return permitPool.acquireAsync();
+        }
+        Lock flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+        return flowLock.acquireAsync();
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        PermitPool permitPool = this.permitPool;
+        if (permitPool != null) {
+            return permitPool.releaseAsync().thenCompose(released -> released ? CompletableFuture.completedFuture(true) : releaseFlowLockAsync());
+        }
+        return releaseFlowLockAsync();
+    }
+
+    private CompletableFuture<Boolean> releaseFlowLockAsync() {
+        Lock flowLock = new Lock(database, lockKey, new byte[16], timeout, expried, count, (byte) 0);
+        return flowLock.releaseAsync(ICommand.UNLOCK_FLAG_UNLOCK_FIRST_LOCK_WHEN_UNLOCKED, null).thenApply(commandResult -> true);
+    }
+
     public AutoCloseable with() throws SlockException {
         acquire();
         return this::release;
@@ -0,0 +1,332 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.exceptions.ClientCommandTimeoutException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+
+public class SharedReadLock {
+    private final SlockDatabase database;
+    private final byte[] lockKey;
+    private final int timeout;
+    private final int expried;
+    private final long expriedNanos;
+    private final SharedReadOption sharedReadOption;
+    private final java.util.concurrent.locks.ReentrantLock stateLock;
+    private final Condition stateChanged;
+    private final LongAdder readCount;
+    private final LongAdder remoteAcquireCount;
+    private final LongAdder remoteReleaseCount;
+    private final ArrayDeque<CompletableFuture<Boolean>> asyncWaiters;
+    private Lock remoteLock;
+    private long leaseExpiredNanos;
+    private int readers;
+    private int shares;
+    private int writers;
+    private boolean acquiring;
+    private boolean releasing;
+
+    public SharedReadLock(SlockDatabase database, byte[] lockKey, int timeout, int expried, SharedReadOption sharedReadOption) {
+        this.database = database;
+        this.lockKey = lockKey;
+        this.timeout = timeout;
+        this.expried = expried;
+        this.expriedNanos = LockCommand.getExpriedNanos(expried);
+        this.sharedReadOption = sharedReadOption;
+        this.stateLock = new java.util.concurrent.locks.ReentrantLock();
+        this.stateChanged = stateLock.newCondition();
+        this.readCount = new LongAdder();
+        this.remoteAcquireCount = new LongAdder();
+        this.remoteReleaseCount = new LongAdder();
+        this.asyncWaiters = new ArrayDeque<>();
+    }
+
+    public SharedReadOption getSharedReadOption() {
+        return sharedReadOption;
+    }
+
+    public int getReaderCount() {
+        stateLock.lock();
+        try {
+            return readers;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    public long getReadCount() {
+        return readCount.sum();
+    }
+
+    public long getRemoteAcquireCount() {
+        return remoteAcquireCount.sum();
+    }
+
+    public long getRemoteReleaseCount() {
+        return remoteReleaseCount.sum();
+    }
+
+    public void acquire() throws SlockException {
+        long waitNanos = LockCommand.getTimeoutNanos(timeout);
+        stateLock.lock();
+        try {
+            while (true) {
+                if (canJoin()) {
+                    join();
+                    return;
+                }
+                if (canAcquire()) {
+                    acquiring = true;
+                    break;
+                }
+                if (waitNanos <= 0) {
+                    throw new ClientCommandTimeoutException("Timed out waiting for the shared read lock");
+                }
+                try {
+                    waitNanos = stateChanged.awaitNanos(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ClientCommandTimeoutException("Interrupted while waiting for the shared read lock");
+                }
+            }
+        } finally {
+            stateLock.unlock();
+        }
+
+        Lock readLock = newReadLock();
+        long startNanos = System.nanoTime();
+        try {
+            readLock.acquire();
+        } catch (SlockException e) {
+            acquired(null, startNanos);
+            throw e;
+        }
+        acquired(readLock, startNanos);
+    }
+
+    public CompletableFuture<Boolean> acquireAsync() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        stateLock.lock();
+        try {
+            if (canJoin()) {
+                join();
+                return CompletableFuture.completedFuture(true);
+            }
+            if (!canAcquire()) {
+                long waitNanos = LockCommand.getTimeoutNanos(timeout);
+                if (waitNanos <= 0) {
+                    future.completeExceptionally(new ClientCommandTimeoutException("Timed out waiting for the shared read lock"));
+                    return future;
+                }
+                asyncWaiters.addLast(future);
+                SharedScheduledExecutor.get().schedule(() -> timeoutAsyncWaiter(future), waitNanos, TimeUnit.NANOSECONDS);
+                return future;
+            }
+            acquiring = true;
+        } finally {
+            stateLock.unlock();
+        }
+
+        acquireRemoteAsync(future);
+        return future;
+    }
+
+    private void acquireRemoteAsync(CompletableFuture<Boolean> future) {
+        Lock readLock = newReadLock();
+        long startNanos = System.nanoTime();
+        readLock.acquireAsync().whenComplete((result, e) -> {
+            if (e != null) {
+                acquired(null, startNanos);
+                future.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                return;
+            }
+            acquired(readLock, startNanos);
+            if (!future.complete(true)) {
+                releaseAsync();
+            }
+        });
+    }
+
+    private void timeoutAsyncWaiter(CompletableFuture<Boolean> future) {
+        stateLock.lock();
+        try {
+            if (!asyncWaiters.remove(future)) {
+                return;
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        future.completeExceptionally(new ClientCommandTimeoutException("Timed out waiting for the shared read lock"));
+    }
+
+    public boolean release() throws SlockException {
+        Lock readLock;
+        stateLock.lock();
+        try {
+            if (readers == 0) {
+                return false;
+            }
+            readLock = detach();
+        } finally {
+            stateLock.unlock();
+        }
+        if (readLock == null) {
+            return true;
+        }
+        try {
+            readLock.release();
+            remoteReleaseCount.increment();
+        } finally {
+            released();
+        }
+        return true;
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        Lock readLock;
+        stateLock.lock();
+        try {
+            if (readers == 0) {
+                return CompletableFuture.completedFuture(false);
+            }
+            readLock = detach();
+        } finally {
+            stateLock.unlock();
+        }
+        if (readLock == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return readLock.releaseAsync().whenComplete((result, e) -> {
+            if (e == null) {
+                remoteReleaseCount.increment();
+            }
+            released();
+        });
+    }
+
+    public void beginWrite() {
+        stateLock.lock();
+        try {
+            writers++;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    public void endWrite() {
+        List<CompletableFuture<Boolean>> joinedWaiters = new ArrayList<>();
+        CompletableFuture<Boolean> acquireWaiter = null;
+        stateLock.lock();
+        try {
+            if (writers > 0) {
+                writers--;
+                stateChanged.signalAll();
+                acquireWaiter = pollAsyncWaiters(joinedWaiters);
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        wakeAsyncWaiters(joinedWaiters, acquireWaiter);
+    }
+
+    private boolean canJoin() {
+        return writers == 0 && remoteLock != null && !releasing && shares < sharedReadOption.getMaxShares()
+                && (expriedNanos <= 0 || leaseExpiredNanos - System.nanoTime() > expriedNanos / 2);
+    }
+
+    private boolean canAcquire() {
+        return writers == 0 && remoteLock == null && !acquiring && !releasing;
+    }
+
+    private void join() {
+        readers++;
+        shares++;
+        readCount.increment();
+    }
+
+    private void acquired(Lock readLock, long startNanos) {
+        List<CompletableFuture<Boolean>> joinedWaiters = new ArrayList<>();
+        CompletableFuture<Boolean> acquireWaiter;
+        stateLock.lock();
+        try {
+            acquiring = false;
+            if (readLock != null) {
+                remoteLock = readLock;
+                leaseExpiredNanos = startNanos + expriedNanos;
+                shares = 0;
+                join();
+                remoteAcquireCount.increment();
+            }
+            stateChanged.signalAll();
+            acquireWaiter = pollAsyncWaiters(joinedWaiters);
+        } finally {
+            stateLock.unlock();
+        }
+        wakeAsyncWaiters(joinedWaiters, acquireWaiter);
+    }
+
+    private CompletableFuture<Boolean> pollAsyncWaiters(List<CompletableFuture<Boolean>> joinedWaiters) {
+        while (!asyncWaiters.isEmpty()) {
+            if (canJoin()) {
+                joinedWaiters.add(asyncWaiters.pollFirst());
+                join();
+                continue;
+            }
+            if (canAcquire()) {
+                acquiring = true;
+                return asyncWaiters.pollFirst();
+            }
+            break;
+        }
+        return null;
+    }
+
+    private void wakeAsyncWaiters(List<CompletableFuture<Boolean>> joinedWaiters, CompletableFuture<Boolean> acquireWaiter) {
+        for (CompletableFuture<Boolean> future : joinedWaiters) {
+            if (!future.complete(true)) {
+                releaseAsync();
+            }
+        }
+        if (acquireWaiter != null) {
+            acquireRemoteAsync(acquireWaiter);
+        }
+    }
+
+    private Lock detach() {
+        readers--;
+        if (readers > 0) {
+            return null;
+        }
+        Lock readLock = remoteLock;
+        remoteLock = null;
+        shares = 0;
+        releasing = true;
+        return readLock;
+    }
+
+    private void released() {
+        List<CompletableFuture<Boolean>> joinedWaiters = new ArrayList<>();
+        CompletableFuture<Boolean> acquireWaiter;
+        stateLock.lock();
+        try {
+            releasing = false;
+            stateChanged.signalAll();
+            acquireWaiter = pollAsyncWaiters(joinedWaiters);
+        } finally {
+            stateLock.unlock();
+        }
+        wakeAsyncWaiters(joinedWaiters, acquireWaiter);
+    }
+
+    private Lock newReadLock() {
+        return new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, (short) 0xffff, (byte) 0);
+    }
+}
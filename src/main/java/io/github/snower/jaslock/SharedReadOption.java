@@ -0,0 +1,23 @@
+package io.github.snower.jaslock;
+
+public class SharedReadOption {
+    public final static SharedReadOption DefaultOption = new SharedReadOption(0);
+
+    private final int maxShares;
+
+    public SharedReadOption(int maxShares) {
+        this.maxShares = Math.max(maxShares, 0);
+    }
+
+    public static SharedReadOption share(int maxShares) {
+        return new SharedReadOption(maxShares);
+    }
+
+    public int getMaxShares() {
+        return maxShares;
+    }
+
+    public boolean isEnabled() {
+        return maxShares > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.snower.jaslock;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class SharedScheduledExecutor {
+    private static volatile ScheduledExecutorService scheduledExecutor;
+
+    private SharedScheduledExecutor() {
+    }
+
+    static ScheduledExecutorService get() {
+        if (scheduledExecutor == null) {
+            synchronized (SharedScheduledExecutor.class) {
+                if (scheduledExecutor == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "jaslock-shared-schedule");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+                    executor.allowCoreThreadTimeOut(true);
+                    executor.setRemoveOnCancelPolicy(true);
+                    scheduledExecutor = executor;
+                }
+            }
+        }
+        return scheduledExecutor;
+    }
+}
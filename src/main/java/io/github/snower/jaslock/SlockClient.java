@@ -3,49 +3,38 @@ package io.github.snower.jaslock;
 import io.github.snower.jaslock.callback.CallbackCommand;
 import io.github.snower.jaslock.commands.*;
 import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.callback.CallbackDispatchStats;
 import io.github.snower.jaslock.callback.CallbackExecutorManager;
 import io.github.snower.jaslock.callback.ExecutorOption;
 import io.github.snower.jaslock.exceptions.*;
+import io.github.snower.jaslock.network.ConnectionHandler;
+import io.github.snower.jaslock.network.EventLoopGroup;
+import io.github.snower.jaslock.network.FrameDecoder;
+import io.github.snower.jaslock.network.NioConnection;
+import io.github.snower.jaslock.network.WriteOption;
+import io.github.snower.jaslock.network.WriteStats;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.Arrays;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class SlockClient implements Runnable, ISlockClient {
-    protected static final class BytesKey {
-        private final byte[] bytes;
-        private int bytesHash = 0;
-
-        public BytesKey(byte[] bytes) {
-            this.bytes = bytes;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            return Arrays.equals(bytes, ((BytesKey) o).bytes);
-        }
-
-        @Override
-        public int hashCode() {
-            if (bytesHash == 0) {
-                bytesHash = Arrays.hashCode(bytes);
-            }
-            return bytesHash;
-        }
-    }
-
     private final String host;
     private final int port;
     private short defaultTimeoutFlag;
     private short defaultExpriedFlag;
-    private boolean closed;
+    private volatile boolean closed;
     private byte[] clientId;
     private byte initType;
     private Thread thread;
@@ -53,10 +42,25 @@ public class SlockClient implements Runnable, ISlockClient {
     private InputStream inputStream;
     private OutputStream outputStream;
     private SlockDatabase[] databases;
-    private ConcurrentHashMap<BytesKey, Command> requests;
+    private RequestTable requests;
     private SlockReplsetClient replsetClient;
     private CallbackExecutorManager callbackExecutorManager;
+    private EventLoopGroup eventLoopGroup;
+    private boolean isExternEventLoopGroup;
+    private boolean isRetainedEventLoopGroup;
+    private volatile NioConnection nioConnection;
+    private WriteOption writeOption;
+    private WriteStats writeStats;
+    private WaitStrategy waitStrategy;
+    private long millisecondTimeoutGrace;
+    private Executor asyncExecutor;
+    private NearLockOption nearLockOption;
+    private LeaseWatchdog leaseWatchdog;
+    private volatile InflightWindow inflightWindow;
+    private volatile boolean nioOpened;
+    private final AtomicBoolean nioReconnecting = new AtomicBoolean(false);
     private final java.util.concurrent.locks.ReentrantLock reentrantLock = new java.util.concurrent.locks.ReentrantLock();
+    private final java.util.concurrent.locks.ReentrantLock stateLock = new java.util.concurrent.locks.ReentrantLock();
 
     public SlockClient() {
         this("127.0.0.1", 5658);
@@ -70,8 +74,12 @@ public class SlockClient implements Runnable, ISlockClient {
         this.host = host;
         this.port = port;
         this.databases = new SlockDatabase[256];
-        this.requests = new ConcurrentHashMap<>();
+        this.requests = new RequestTable();
         this.closed = false;
+        this.writeOption = WriteOption.DefaultOption;
+        this.writeStats = new WriteStats();
+        this.waitStrategy = WaitStrategy.DefaultOption;
+        this.millisecondTimeoutGrace = Command.DEFAULT_MILLISECOND_TIMEOUT_GRACE;
     }
 
     public SlockClient(String host, int port, boolean enableAsyncCallback) {
@@ -86,6 +94,8 @@ public class SlockClient implements Runnable, ISlockClient {
         this.replsetClient = replsetClient;
         this.databases = databases;
         this.requests = replsetClient.getRequests();
+        this.writeStats = replsetClient.getWriteStats();
+        this.inflightWindow = replsetClient.getInflightWindow();
     }
 
     @Override
@@ -94,7 +104,8 @@ public class SlockClient implements Runnable, ISlockClient {
         if (callbackExecutorManager != null) return false;
 
         callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.DefaultOption);
-        if (thread != null && replsetClient == null) {
+        callbackExecutorManager.setMillisecondTimeoutGrace(millisecondTimeoutGrace);
+        if ((thread != null || nioOpened) && replsetClient == null) {
             callbackExecutorManager.start();
         }
         return true;
@@ -106,7 +117,8 @@ public class SlockClient implements Runnable, ISlockClient {
         if (callbackExecutorManager != null) return false;
 
         callbackExecutorManager = new CallbackExecutorManager(executorOption);
-        if (thread != null && replsetClient == null) {
+        callbackExecutorManager.setMillisecondTimeoutGrace(millisecondTimeoutGrace);
+        if ((thread != null || nioOpened) && replsetClient == null) {
             callbackExecutorManager.start();
         }
         return true;
@@ -121,6 +133,77 @@ public class SlockClient implements Runnable, ISlockClient {
         return true;
     }
 
+    @Override
+    public boolean enableNioTransport() {
+        return enableNioTransport(EventLoopGroup.shared(), false);
+    }
+
+    @Override
+    public boolean enableNioTransport(int ioThreadCount) {
+        return enableNioTransport(EventLoopGroup.shared(ioThreadCount), false);
+    }
+
+    @Override
+    public boolean enableNioTransport(EventLoopGroup eventLoopGroup) {
+        return enableNioTransport(eventLoopGroup, true);
+    }
+
+    @Override
+    public void setWriteOption(WriteOption writeOption) {
+        this.writeOption = writeOption == null ? WriteOption.DefaultOption : writeOption;
+    }
+
+    @Override
+    public WriteStats getWriteStats() {
+        return writeStats;
+    }
+
+    @Override
+    public void setInflightOption(InflightOption inflightOption) {
+        if (replsetClient != null) return;
+        this.inflightWindow = inflightOption == null || inflightOption.isUnlimited() ? null : new InflightWindow(inflightOption);
+    }
+
+    protected void setInflightWindow(InflightWindow inflightWindow) {
+        this.inflightWindow = inflightWindow;
+    }
+
+    @Override
+    public InflightWindow getInflightWindow() {
+        return inflightWindow;
+    }
+
+    @Override
+    public CallbackDispatchStats getCallbackDispatchStats() {
+        return callbackExecutorManager != null ? callbackExecutorManager.getDispatchStats() : null;
+    }
+
+    @Override
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.DefaultOption : waitStrategy;
+    }
+
+    @Override
+    public void setMillisecondTimeoutGrace(long millisecondTimeoutGrace) {
+        this.millisecondTimeoutGrace = millisecondTimeoutGrace > 0 ? millisecondTimeoutGrace : Command.DEFAULT_MILLISECOND_TIMEOUT_GRACE;
+        if (callbackExecutorManager != null && replsetClient == null) {
+            callbackExecutorManager.setMillisecondTimeoutGrace(this.millisecondTimeoutGrace);
+        }
+    }
+
+    @Override
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    private boolean enableNioTransport(EventLoopGroup eventLoopGroup, boolean isExternEventLoopGroup) {
+        if (thread != null || nioOpened) return false;
+
+        this.eventLoopGroup = eventLoopGroup;
+        this.isExternEventLoopGroup = isExternEventLoopGroup;
+        return true;
+    }
+
     @Override
     public void setDefaultTimeoutFlag(short defaultTimeoutFlag) {
         this.defaultTimeoutFlag = defaultTimeoutFlag;
@@ -141,15 +224,44 @@ public class SlockClient implements Runnable, ISlockClient {
         }
     }
 
+    @Override
+    public boolean enableLeaseWatchdog() {
+        return enableLeaseWatchdog(LeaseWatchdogOption.DefaultOption);
+    }
+
+    @Override
+    public boolean enableLeaseWatchdog(LeaseWatchdogOption leaseWatchdogOption) {
+        if (replsetClient != null) return false;
+        if (leaseWatchdog != null) return false;
+
+        leaseWatchdog = new LeaseWatchdog(this, leaseWatchdogOption);
+        leaseWatchdog.start();
+        return true;
+    }
+
+    @Override
+    public LeaseWatchdog getLeaseWatchdog() {
+        return leaseWatchdog;
+    }
+
+    @Override
+    public void setNearLockOption(NearLockOption nearLockOption) {
+        this.nearLockOption = nearLockOption;
+        for (SlockDatabase database : databases) {
+            if (database != null) {
+                database.setNearLockOption(nearLockOption);
+            }
+        }
+    }
+
     @Override
     public void open() throws IOException {
-        if(thread != null) {
+        if(thread != null || nioOpened) {
             return;
         }
+        startEventLoopGroup();
         connect();
-        thread = new Thread(this, "jaslock-io-" + host + ":" + port);
-        thread.setDaemon(true);
-        thread.start();
+        startIo();
 
         if (callbackExecutorManager != null && replsetClient == null) {
             callbackExecutorManager.start();
@@ -159,23 +271,20 @@ public class SlockClient implements Runnable, ISlockClient {
     @Override
     public ISlockClient tryOpen() {
         try {
-            if(thread != null) {
+            if(thread != null || nioOpened) {
                 return this;
             }
+            startEventLoopGroup();
             connect();
         } catch (IOException e) {
-            thread = new Thread(this, "jaslock-io-" + host + ":" + port);
-            thread.setDaemon(true);
-            thread.start();
+            startIo();
 
             if (callbackExecutorManager != null && replsetClient == null) {
                 callbackExecutorManager.start();
             }
             return null;
         }
-        thread = new Thread(this, "jaslock-io-" + host + ":" + port);
-        thread.setDaemon(true);
-        thread.start();
+        startIo();
 
         if (callbackExecutorManager != null && replsetClient == null) {
             callbackExecutorManager.start();
@@ -183,8 +292,38 @@ public class SlockClient implements Runnable, ISlockClient {
         return this;
     }
 
+    private void startEventLoopGroup() throws IOException {
+        if (eventLoopGroup == null) return;
+        if (isExternEventLoopGroup) {
+            eventLoopGroup.start();
+            return;
+        }
+        if (!isRetainedEventLoopGroup) {
+            eventLoopGroup.retain();
+            isRetainedEventLoopGroup = true;
+        }
+    }
+
+    private void startIo() {
+        if (eventLoopGroup != null) {
+            nioOpened = true;
+            if (nioConnection == null) {
+                startNioReconnect();
+            }
+            return;
+        }
+
+        thread = new Thread(this, "jaslock-io-" + host + ":" + port);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     @Override
     public void close() {
+        if (leaseWatchdog != null) {
+            leaseWatchdog.stop();
+            leaseWatchdog = null;
+        }
         closed = true;
         if (socket != null) {
             try {
@@ -192,19 +331,10 @@ public class SlockClient implements Runnable, ISlockClient {
             } catch (IOException ignored) {}
         }
 
-        synchronized (this) {
+        stateLock.lock();
+        try {
             if (replsetClient == null || !replsetClient.hasLivedClient()) {
-                for (BytesKey requestId : requests.keySet().toArray(new BytesKey[0])) {
-                    Command command = requests.remove(requestId);
-                    if (command == null) {
-                        continue;
-                    }
-                    if (replsetClient != null && command.getRetryType() == 2) {
-                        replsetClient.removePendingRequestCommand(command);
-                    }
-                    command.commandResult = null;
-                    command.wakeupWaiter();
-                }
+                wakeupRequestCommands();
             }
 
             if (replsetClient == null) {
@@ -215,6 +345,17 @@ public class SlockClient implements Runnable, ISlockClient {
                     databases[i] = null;
                 }
             }
+        } finally {
+            stateLock.unlock();
+        }
+
+        if (eventLoopGroup != null) {
+            closeSocket();
+            if (isRetainedEventLoopGroup) {
+                eventLoopGroup.release();
+                isRetainedEventLoopGroup = false;
+            }
+            nioOpened = false;
         }
 
         if (callbackExecutorManager != null && replsetClient == null) {
@@ -235,18 +376,6 @@ public class SlockClient implements Runnable, ISlockClient {
         return n;
     }
 
-    private int readBytes(byte[] buf, int offset, int len) throws IOException {
-        int n = inputStream.read(buf, offset, len);
-        while (n > 0 && n < len) {
-            int nn = inputStream.read(buf, offset + n, len - n);
-            if(nn <= 0) {
-                break;
-            }
-            n += nn;
-        }
-        return n;
-    }
-
     @Override
     public void run() {
         try {
@@ -257,48 +386,16 @@ public class SlockClient implements Runnable, ISlockClient {
                         continue;
                     }
 
-                    byte[] buf = new byte[64];
+                    FrameDecoder frameDecoder = new FrameDecoder();
                     while (!closed && socket != null) {
                         try {
-                            if(readBytes(buf, 64) < 64) {
+                            if (frameDecoder.readFrom(inputStream) <= 0) {
                                 break;
                             }
                         } catch (IOException ignored) {
                             break;
                         }
-
-                        switch (buf[2]) {
-                            case ICommand.COMMAND_TYPE_LOCK:
-                            case ICommand.COMMAND_TYPE_UNLOCK:
-                                LockCommandResult lockCommandResult = new LockCommandResult();
-                                if (lockCommandResult.parseCommand(buf) != null) {
-                                    if (lockCommandResult.hasExtraData()) {
-                                        if(readBytes(buf, 4) < 4) {
-                                            break;
-                                        }
-                                        int dataLen = (((int) buf[0]) & 0xff) | ((((int) buf[1]) & 0xff) << 8) | ((((int) buf[2]) & 0xff) << 16) | ((((int) buf[3]) & 0xff) << 24);
-                                        byte[] dataBuf = new byte[dataLen + 4];
-                                        if (readBytes(dataBuf, 4, dataLen) < dataLen) {
-                                            break;
-                                        }
-                                        lockCommandResult.loadCommandData(dataBuf);
-                                    }
-                                    handleCommand(lockCommandResult);
-                                }
-                                break;
-                            case ICommand.COMMAND_TYPE_PING:
-                                PingCommandResult pingResultCommand = new PingCommandResult();
-                                if (pingResultCommand.parseCommand(buf) != null) {
-                                    handleCommand(pingResultCommand);
-                                }
-                                break;
-                            case ICommand.COMMAND_TYPE_INIT:
-                                InitCommandResult initCommandResult = new InitCommandResult();
-                                if (initCommandResult.parseCommand(buf) != null) {
-                                    handleInitCommand(initCommandResult);
-                                }
-                                break;
-                        }
+                        frameDecoder.decode(this::handleFrame);
                     }
                 } catch (Exception ignored) {
                     try {
@@ -315,6 +412,11 @@ public class SlockClient implements Runnable, ISlockClient {
     }
 
     protected void connect() throws IOException {
+        if (eventLoopGroup != null) {
+            connectChannel();
+            return;
+        }
+
         socket = new Socket();
         socket.setKeepAlive(true);
         socket.setTcpNoDelay(true);
@@ -333,21 +435,125 @@ public class SlockClient implements Runnable, ISlockClient {
         }
     }
 
-    protected void reconnect() {
-        synchronized (this) {
-            if (replsetClient == null || !replsetClient.hasLivedClient()) {
-                for (BytesKey requestId : requests.keySet().toArray(new BytesKey[0])) {
-                    Command command = requests.remove(requestId);
-                    if (command == null) {
-                        continue;
+    protected void connectChannel() throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().setKeepAlive(true);
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().connect(new InetSocketAddress(host, port), 5000);
+        } catch (IOException e) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+            throw e;
+        }
+
+        InitCommandResult initCommandResult;
+        reentrantLock.lock();
+        try {
+            socket = channel.socket();
+            try {
+                inputStream = socket.getInputStream();
+                outputStream = socket.getOutputStream();
+            } catch (IOException e) {
+                closeSocket();
+                throw e;
+            }
+
+            initCommandResult = initClient();
+            if (closed) {
+                closeSocket();
+                throw new IOException("client has been closed");
+            }
+            try {
+                nioConnection = eventLoopGroup.register(channel, new ConnectionHandler() {
+                    @Override
+                    public void onFrame(byte[] frame, byte[] data) {
+                        handleFrame(frame, data);
                     }
-                    if (replsetClient != null && command.getRetryType() == 2) {
-                        replsetClient.removePendingRequestCommand(command);
+
+                    @Override
+                    public void onClosed(NioConnection connection) {
+                        if (connection == nioConnection) {
+                            closeSocket();
+                        }
+                        startNioReconnect();
                     }
-                    command.commandResult = null;
-                    command.wakeupWaiter();
+                }, writeOption, writeStats);
+            } catch (IOException e) {
+                closeSocket();
+                throw e;
+            }
+            inputStream = null;
+            outputStream = nioConnection.getOutputStream();
+        } finally {
+            reentrantLock.unlock();
+        }
+
+        if(replsetClient != null) {
+            replsetClient.addLivedClient(this, (initCommandResult.getInitType() & ICommand.INIT_TYPE_FLAG_IS_LEADER) != 0);
+        }
+    }
+
+    protected void startNioReconnect() {
+        if (closed || !nioOpened || !nioReconnecting.compareAndSet(false, true)) return;
+
+        stateLock.lock();
+        try {
+            if (replsetClient == null || !replsetClient.hasLivedClient()) {
+                wakeupRequestCommands();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        if (!eventLoopGroup.executeBlocking(this::nioReconnect)) {
+            nioReconnecting.set(false);
+        }
+    }
+
+    private void nioReconnect() {
+        if (closed) {
+            nioReconnecting.set(false);
+            return;
+        }
+        try {
+            connect();
+        } catch (IOException e) {
+            if (closed) {
+                nioReconnecting.set(false);
+                return;
+            }
+            SharedScheduledExecutor.get().schedule(() -> {
+                if (!eventLoopGroup.executeBlocking(this::nioReconnect)) {
+                    nioReconnecting.set(false);
                 }
+            }, 2, TimeUnit.SECONDS);
+            return;
+        }
+        nioReconnecting.set(false);
+        if (nioConnection == null) {
+            startNioReconnect();
+        }
+    }
+
+    private void wakeupRequestCommands() {
+        requests.drainAll(command -> {
+            if (replsetClient != null && command.getRetryType() == 2) {
+                replsetClient.removePendingRequestCommand(command);
+            }
+            command.commandResult = null;
+            command.wakeupWaiter();
+        });
+    }
+
+    protected void reconnect() {
+        stateLock.lock();
+        try {
+            if (replsetClient == null || !replsetClient.hasLivedClient()) {
+                wakeupRequestCommands();
             }
+        } finally {
+            stateLock.unlock();
         }
 
         while (!closed) {
@@ -363,7 +569,66 @@ public class SlockClient implements Runnable, ISlockClient {
         }
     }
 
+    protected void writeCommandData(Command command) throws IOException, SlockException {
+        byte[] extraData = command.getExtraData();
+        NioConnection connection = nioConnection;
+        if (connection != null) {
+            connection.write(command, extraData);
+            return;
+        }
+
+        byte[] buf = new byte[extraData == null ? 64 : 64 + extraData.length];
+        command.dumpCommand(buf, 0);
+        if (extraData != null) {
+            System.arraycopy(extraData, 0, buf, 64, extraData.length);
+        }
+        outputStream.write(buf);
+    }
+
+    protected void writeCommandsData(List<? extends Command> commands) throws IOException, SlockException {
+        if (commands.size() == 1) {
+            writeCommandData(commands.get(0));
+            return;
+        }
+
+        byte[][] extraDatas = new byte[commands.size()][];
+        int size = 0;
+        for (int i = 0; i < extraDatas.length; i++) {
+            extraDatas[i] = commands.get(i).getExtraData();
+            size += extraDatas[i] == null ? 64 : 64 + extraDatas[i].length;
+        }
+        NioConnection connection = nioConnection;
+        if (connection != null) {
+            connection.write(commands, extraDatas);
+            return;
+        }
+
+        byte[] buf = new byte[size];
+        int offset = 0;
+        for (int i = 0; i < extraDatas.length; i++) {
+            offset += commands.get(i).dumpCommand(buf, offset);
+            if (extraDatas[i] != null) {
+                System.arraycopy(extraDatas[i], 0, buf, offset, extraDatas[i].length);
+                offset += extraDatas[i].length;
+            }
+        }
+        outputStream.write(buf);
+    }
+
+    protected void abortSocket() {
+        NioConnection connection = nioConnection;
+        if (connection != null) {
+            connection.close();
+            return;
+        }
+
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
+    }
+
     protected void closeSocket() {
+        NioConnection connection = null;
         reentrantLock.lock();
         try {
             if (socket != null) {
@@ -374,6 +639,8 @@ public class SlockClient implements Runnable, ISlockClient {
                 socket = null;
                 inputStream = null;
                 outputStream = null;
+                connection = nioConnection;
+                nioConnection = null;
                 if (replsetClient != null) {
                     replsetClient.removeLivedClient(this);
                 }
@@ -381,6 +648,10 @@ public class SlockClient implements Runnable, ISlockClient {
         } finally {
             reentrantLock.unlock();
         }
+
+        if (connection != null) {
+            connection.close();
+        }
     }
 
     protected InitCommandResult initClient() throws IOException {
@@ -407,20 +678,13 @@ public class SlockClient implements Runnable, ISlockClient {
                 }
 
                 if ((initCommandResult.getInitType() & ICommand.INIT_TYPE_FLAG_HA_CLIENT) == 0) {
-                    synchronized (this) {
+                    stateLock.lock();
+                    try {
                         if (replsetClient == null) {
-                            for (BytesKey requestId : requests.keySet().toArray(new BytesKey[0])) {
-                                Command command = requests.remove(requestId);
-                                if (command == null) {
-                                    continue;
-                                }
-                                if (replsetClient != null && command.getRetryType() == 2) {
-                                    replsetClient.removePendingRequestCommand(command);
-                                }
-                                command.commandResult = null;
-                                command.wakeupWaiter();
-                            }
+                            wakeupRequestCommands();
                         }
+                    } finally {
+                        stateLock.unlock();
                     }
                 }
                 initType = initCommandResult.getInitType();
@@ -432,6 +696,33 @@ public class SlockClient implements Runnable, ISlockClient {
         }
     }
 
+    protected void handleFrame(byte[] buf, byte[] dataBuf) {
+        switch (buf[2]) {
+            case ICommand.COMMAND_TYPE_LOCK:
+            case ICommand.COMMAND_TYPE_UNLOCK:
+                LockCommandResult lockCommandResult = new LockCommandResult();
+                if (lockCommandResult.parseCommand(buf) != null) {
+                    if (dataBuf != null) {
+                        lockCommandResult.loadCommandData(dataBuf);
+                    }
+                    handleCommand(lockCommandResult);
+                }
+                break;
+            case ICommand.COMMAND_TYPE_PING:
+                PingCommandResult pingResultCommand = new PingCommandResult();
+                if (pingResultCommand.parseCommand(buf) != null) {
+                    handleCommand(pingResultCommand);
+                }
+                break;
+            case ICommand.COMMAND_TYPE_INIT:
+                InitCommandResult initCommandResult = new InitCommandResult();
+                if (initCommandResult.parseCommand(buf) != null) {
+                    handleInitCommand(initCommandResult);
+                }
+                break;
+        }
+    }
+
     protected void handleInitCommand(InitCommandResult initCommandResult) {
         if (initCommandResult.getResult() != ICommand.COMMAND_RESULT_SUCCED) return;
 
@@ -451,9 +742,9 @@ public class SlockClient implements Runnable, ISlockClient {
     }
 
     protected void handleCommand(CommandResult commandResult) {
-        BytesKey requestId = new BytesKey(commandResult.getRequestId());
+        long requestIdHigh = commandResult.getRequestIdHigh(), requestIdLow = commandResult.getRequestIdLow();
         if (replsetClient != null && commandResult.getResult() == ICommand.COMMAND_RESULT_STATE_ERROR && commandResult instanceof LockCommandResult) {
-            Command command = requests.get(requestId);
+            Command command = requests.get(requestIdHigh, requestIdLow);
             if(command == null) {
                 return;
             }
@@ -461,7 +752,7 @@ public class SlockClient implements Runnable, ISlockClient {
                 return;
             }
         }
-        Command command = requests.remove(requestId);
+        Command command = requests.remove(requestIdHigh, requestIdLow);
         if(command == null) {
             return;
         }
@@ -471,42 +762,47 @@ public class SlockClient implements Runnable, ISlockClient {
 
     @Override
     public CommandResult sendCommand(Command command) throws SlockException {
+        InflightWindow inflightWindow = this.inflightWindow;
+        if (inflightWindow == null) {
+            return doSendCommand(command);
+        }
+
+        inflightWindow.acquire(1);
+        try {
+            return doSendCommand(command);
+        } finally {
+            inflightWindow.release(1);
+        }
+    }
+
+    private CommandResult doSendCommand(Command command) throws SlockException {
         if(closed) {
             throw new ClientClosedException("client has been closed");
         }
 
-        byte[] buf = command.dumpCommand();
-        if (!command.createWaiter()) {
+        if (!command.createWaiter(waitStrategy)) {
             throw new ClientCommandException("Adding a wait command returns waiter failure");
         }
 
-        BytesKey requestId = new BytesKey(command.getRequestId());
+        long requestIdHigh = command.getRequestIdHigh(), requestIdLow = command.getRequestIdLow();
         reentrantLock.lock();
         try {
             if(outputStream == null) {
                 if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
                     throw new ClientUnconnectException("client not connected " + host + ":" + port);
                 }
-                requests.put(requestId, command);
+                requests.put(requestIdHigh, requestIdLow, command);
             } else {
-                requests.put(requestId, command);
+                requests.put(requestIdHigh, requestIdLow, command);
                 try {
-                    outputStream.write(buf);
-                    byte[] extraData = command.getExtraData();
-                    if (extraData != null) {
-                        outputStream.write(extraData);
-                    }
+                    writeCommandData(command);
                 } catch (IOException e) {
                     if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
-                        requests.remove(requestId);
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        requests.remove(requestIdHigh, requestIdLow);
+                        abortSocket();
                         throw new ClientOutputStreamException("Client writes data abnormally: " + e);
                     } else {
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        abortSocket();
                     }
                 }
             }
@@ -514,14 +810,119 @@ public class SlockClient implements Runnable, ISlockClient {
             reentrantLock.unlock();
         }
 
-        if(!command.waiteWaiter()) {
-            requests.remove(requestId);
+        if(!command.waiteWaiter(millisecondTimeoutGrace)) {
+            requests.remove(requestIdHigh, requestIdLow);
             if (replsetClient != null && command.getRetryType() == 2) {
                 replsetClient.removePendingRequestCommand(command);
             }
             throw new ClientCommandTimeoutException("The client waits for command execution to return a timeout");
         }
+        return getCommandResult(command);
+    }
+
+    @Override
+    public List<CommandResult> sendCommands(List<? extends Command> commands) throws SlockException {
+        List<CommandResult> commandResults = new ArrayList<>(commands.size());
+        for (CallbackCommandResult callbackCommandResult : sendCommandsEach(commands)) {
+            commandResults.add(callbackCommandResult.getResult());
+        }
+        return commandResults;
+    }
+
+    @Override
+    public List<CallbackCommandResult> sendCommandsEach(List<? extends Command> commands) throws SlockException {
+        InflightWindow inflightWindow = this.inflightWindow;
+        if (inflightWindow == null || commands.isEmpty()) {
+            return doSendCommands(commands);
+        }
 
+        inflightWindow.acquire(commands.size());
+        try {
+            return doSendCommands(commands);
+        } finally {
+            inflightWindow.release(commands.size());
+        }
+    }
+
+    private List<CallbackCommandResult> doSendCommands(List<? extends Command> commands) throws SlockException {
+        if(closed) {
+            throw new ClientClosedException("client has been closed");
+        }
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        for (Command command : commands) {
+            if (!command.createWaiter(waitStrategy)) {
+                throw new ClientCommandException("Adding a wait command returns waiter failure");
+            }
+        }
+
+        reentrantLock.lock();
+        try {
+            if(outputStream == null) {
+                for (Command command : commands) {
+                    if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
+                        removeRequestCommands(commands);
+                        throw new ClientUnconnectException("client not connected " + host + ":" + port);
+                    }
+                    requests.put(command);
+                }
+            } else {
+                for (Command command : commands) {
+                    requests.put(command);
+                }
+                try {
+                    writeCommandsData(commands);
+                } catch (IOException e) {
+                    abortSocket();
+                    for (Command command : commands) {
+                        if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
+                            removeRequestCommands(commands);
+                            throw new ClientOutputStreamException("Client writes data abnormally: " + e);
+                        }
+                    }
+                }
+            }
+        } finally {
+            reentrantLock.unlock();
+        }
+
+        List<CallbackCommandResult> commandResults = new ArrayList<>(commands.size());
+        long startNanos = System.nanoTime();
+        for (Command command : commands) {
+            if(!command.waiteWaiter(millisecondTimeoutGrace, startNanos)) {
+                removeRequestCommand(command);
+                commandResults.add(new CallbackCommandResult(command, null,
+                        new ClientCommandTimeoutException("The client waits for command execution to return a timeout")));
+                continue;
+            }
+            if(command.commandResult == null) {
+                removeRequestCommand(command);
+            }
+            try {
+                commandResults.add(new CallbackCommandResult(command, getCommandResult(command), null));
+            } catch (SlockException e) {
+                commandResults.add(new CallbackCommandResult(command, null, e));
+            }
+        }
+        return commandResults;
+    }
+
+    private void removeRequestCommands(List<? extends Command> commands) {
+        for (Command command : commands) {
+            removeRequestCommand(command);
+        }
+    }
+
+    private void removeRequestCommand(Command command) {
+        requests.remove(command.getRequestIdHigh(), command.getRequestIdLow());
+        if (replsetClient != null && command.getRetryType() == 2) {
+            replsetClient.removePendingRequestCommand(command);
+        }
+    }
+
+    private CommandResult getCommandResult(Command command) throws SlockException {
         if(command.commandResult == null) {
             if (command.exception != null) {
                 if (command.exception instanceof SlockException) {
@@ -536,6 +937,62 @@ public class SlockClient implements Runnable, ISlockClient {
 
     @Override
     public void sendCommand(Command command, Consumer<CallbackCommandResult> callback) throws SlockException {
+        sendCommand(command, callback, null);
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> sendCommandAsync(Command command) {
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        try {
+            sendCommand(command, callbackCommandResult -> {
+                if (callbackCommandResult.getException() != null) {
+                    future.completeExceptionally(callbackCommandResult.getException());
+                } else {
+                    future.complete(callbackCommandResult.getCommandResult());
+                }
+            }, asyncExecutor != null ? asyncExecutor : CallbackExecutorManager.DirectExecutor);
+        } catch (SlockException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public void sendCommand(Command command, Consumer<CallbackCommandResult> callback, Executor executor) throws SlockException {
+        InflightWindow inflightWindow = this.inflightWindow;
+        if (inflightWindow == null) {
+            doSendCommand(command, callback, executor);
+            return;
+        }
+
+        Consumer<CallbackCommandResult> inflightCallback = callbackCommandResult -> {
+            try {
+                callback.accept(callbackCommandResult);
+            } finally {
+                inflightWindow.release(1);
+            }
+        };
+        boolean admitted = inflightWindow.acquireOrQueue(1, () -> {
+            try {
+                doSendCommand(command, inflightCallback, executor);
+            } catch (SlockException e) {
+                callback.accept(new CallbackCommandResult(command, null, e));
+                throw new CompletionException(e);
+            }
+        }, e -> callback.accept(new CallbackCommandResult(command, null, e)));
+        if (!admitted) {
+            return;
+        }
+
+        try {
+            doSendCommand(command, inflightCallback, executor);
+        } catch (SlockException e) {
+            inflightWindow.release(1);
+            throw e;
+        }
+    }
+
+    private void doSendCommand(Command command, Consumer<CallbackCommandResult> callback, Executor executor) throws SlockException {
         if(closed) {
             throw new ClientClosedException("client has been closed");
         }
@@ -543,43 +1000,144 @@ public class SlockClient implements Runnable, ISlockClient {
             throw new ClientAsyncCallbackDisabledException("The asynchronous thread pool is not enabled. First enableAsyncCallback to enable the asynchronous thread pool.");
         }
 
-        byte[] buf = command.dumpCommand();
-        BytesKey requestId = new BytesKey(command.getRequestId());
+        long requestIdHigh = command.getRequestIdHigh(), requestIdLow = command.getRequestIdLow();
         CallbackCommand callbackCommand = callbackExecutorManager.addCommand(command, callback, callbackCommandResult -> {
-            requests.remove(requestId);
+            requests.remove(requestIdHigh, requestIdLow);
             if (replsetClient != null && command.getRetryType() == 2) {
                 replsetClient.removePendingRequestCommand(command);
             }
             callback.accept(callbackCommandResult);
-        });
+        }, executor);
 
         reentrantLock.lock();
         try {
             if(outputStream == null) {
                 if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
+                    requests.remove(requestIdHigh, requestIdLow);
+                    callbackCommand.close();
                     throw new ClientUnconnectException("client not connected " + host + ":" + port);
                 }
-                requests.put(requestId, command);
+                requests.put(requestIdHigh, requestIdLow, command);
             } else {
-                requests.put(requestId, command);
+                requests.put(requestIdHigh, requestIdLow, command);
                 try {
-                    outputStream.write(buf);
-                    byte[] extraData = command.getExtraData();
-                    if (extraData != null) {
-                        outputStream.write(extraData);
-                    }
+                    writeCommandData(command);
                 } catch (IOException e) {
                     if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
-                        requests.remove(requestId);
+                        requests.remove(requestIdHigh, requestIdLow);
                         callbackCommand.close();
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        abortSocket();
                         throw new ClientOutputStreamException("Client writes data abnormally: " + e);
                     } else {
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        abortSocket();
+                    }
+                }
+            }
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    @Override
+    public void sendCommands(List<? extends Command> commands, Consumer<CallbackCommandResult> callback) throws SlockException {
+        InflightWindow inflightWindow = this.inflightWindow;
+        if (inflightWindow == null || commands.isEmpty()) {
+            doSendCommands(commands, callback);
+            return;
+        }
+
+        Consumer<CallbackCommandResult> inflightCallback = callbackCommandResult -> {
+            try {
+                callback.accept(callbackCommandResult);
+            } finally {
+                inflightWindow.release(1);
+            }
+        };
+        boolean admitted = inflightWindow.acquireOrQueue(commands.size(), () -> {
+            try {
+                doSendCommands(commands, inflightCallback);
+            } catch (SlockException e) {
+                for (Command command : commands) {
+                    callback.accept(new CallbackCommandResult(command, null, e));
+                }
+                throw new CompletionException(e);
+            }
+        }, e -> {
+            for (Command command : commands) {
+                callback.accept(new CallbackCommandResult(command, null, e));
+            }
+        });
+        if (!admitted) {
+            return;
+        }
+
+        try {
+            doSendCommands(commands, inflightCallback);
+        } catch (SlockException e) {
+            inflightWindow.release(commands.size());
+            throw e;
+        }
+    }
+
+    private void doSendCommands(List<? extends Command> commands, Consumer<CallbackCommandResult> callback) throws SlockException {
+        if(closed) {
+            throw new ClientClosedException("client has been closed");
+        }
+        if (callbackExecutorManager == null) {
+            throw new ClientAsyncCallbackDisabledException("The asynchronous thread pool is not enabled. First enableAsyncCallback to enable the asynchronous thread pool.");
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        List<CallbackCommand> callbackCommands = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            long requestIdHigh = command.getRequestIdHigh(), requestIdLow = command.getRequestIdLow();
+            try {
+                callbackCommands.add(callbackExecutorManager.addCommand(command, callback, callbackCommandResult -> {
+                    requests.remove(requestIdHigh, requestIdLow);
+                    if (replsetClient != null && command.getRetryType() == 2) {
+                        replsetClient.removePendingRequestCommand(command);
+                    }
+                    callback.accept(callbackCommandResult);
+                }));
+            } catch (SlockException e) {
+                for (CallbackCommand callbackCommand : callbackCommands) {
+                    callbackCommand.close();
+                }
+                throw e;
+            }
+        }
+
+        reentrantLock.lock();
+        try {
+            if(outputStream == null) {
+                for (Command command : commands) {
+                    if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
+                        removeRequestCommands(commands);
+                        for (CallbackCommand callbackCommand : callbackCommands) {
+                            callbackCommand.close();
+                        }
+                        throw new ClientUnconnectException("client not connected " + host + ":" + port);
+                    }
+                    requests.put(command);
+                }
+            } else {
+                for (Command command : commands) {
+                    requests.put(command);
+                }
+                try {
+                    writeCommandsData(commands);
+                } catch (IOException e) {
+                    abortSocket();
+                    for (Command command : commands) {
+                        if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
+                            removeRequestCommands(commands);
+                            for (CallbackCommand callbackCommand : callbackCommands) {
+                                callbackCommand.close();
+                            }
+                            throw new ClientOutputStreamException("Client writes data abnormally: " + e);
+                        }
                     }
                 }
             }
@@ -588,13 +1146,42 @@ public class SlockClient implements Runnable, ISlockClient {
         }
     }
 
+    @Override
+    public CommandBatch batch() {
+        return new CommandBatch(this);
+    }
+
+    @Override
+    public boolean cancelCommand(Command command) {
+        Command requestCommand = requests.remove(command.getRequestIdHigh(), command.getRequestIdLow());
+        if (requestCommand == null) {
+            return false;
+        }
+        if (replsetClient != null && command.getRetryType() == 2) {
+            replsetClient.removePendingRequestCommand(command);
+        }
+        command.commandResult = null;
+        command.exception = new ClientCommandCanceledException("command has been canceled");
+        command.wakeupWaiter();
+
+        if (command instanceof LockCommand && command.getCommandType() == ICommand.COMMAND_TYPE_LOCK) {
+            LockCommand lockCommand = (LockCommand) command;
+            LockCommand cancelCommand = new LockCommand(ICommand.COMMAND_TYPE_UNLOCK, ICommand.UNLOCK_FLAG_CANCEL_WAIT_LOCK_WHEN_UNLOCKED,
+                    lockCommand.getDbId(), lockCommand.getLockKey(), lockCommand.getLockId(), lockCommand.getTimeout(), lockCommand.getExpried(),
+                    lockCommand.getCount(), lockCommand.getrCount());
+            try {
+                writeCommand(cancelCommand);
+            } catch (SlockException ignored) {}
+        }
+        return true;
+    }
+
     @Override
     public void writeCommand(Command command) throws SlockException {
         if(closed) {
             throw new ClientClosedException("client has been closed");
         }
 
-        byte[] buf = command.dumpCommand();
         reentrantLock.lock();
         try {
             if(outputStream == null) {
@@ -603,21 +1190,13 @@ public class SlockClient implements Runnable, ISlockClient {
                 }
             } else {
                 try {
-                    outputStream.write(buf);
-                    byte[] extraData = command.getExtraData();
-                    if (extraData != null) {
-                        outputStream.write(extraData);
-                    }
+                    writeCommandData(command);
                 } catch (IOException e) {
                     if (replsetClient == null || command.getRetryType() != 0 || !replsetClient.doPendingRequestCommand(this, command)) {
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        abortSocket();
                         throw new ClientOutputStreamException("Client writes data abnormally: " + e);
                     } else {
-                        try {
-                            socket.close();
-                        } catch (IOException ignored) {}
+                        abortSocket();
                     }
                 }
             }
@@ -636,10 +1215,15 @@ public class SlockClient implements Runnable, ISlockClient {
     @Override
     public SlockDatabase selectDatabase(byte dbId) {
         if(databases[dbId] == null) {
-            synchronized (this) {
+            stateLock.lock();
+            try {
                 if(databases[dbId] == null) {
-                    databases[dbId] = new SlockDatabase(this, dbId, defaultTimeoutFlag, defaultExpriedFlag);
+                    SlockDatabase database = new SlockDatabase(this, dbId, defaultTimeoutFlag, defaultExpriedFlag);
+                    database.setNearLockOption(nearLockOption);
+                    databases[dbId] = database;
                 }
+            } finally {
+                stateLock.unlock();
             }
         }
         return databases[dbId];
@@ -1,14 +1,17 @@
 package io.github.snower.jaslock;
 
 import io.github.snower.jaslock.exceptions.ClientClosedException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.concurrent.CompletableFuture;
 
-import java.nio.charset.StandardCharsets;
 
 public class SlockDatabase {
     private ISlockClient client;
     private final byte dbId;
     private short defaultTimeoutFlag;
     private short defaultExpriedFlag;
+    private volatile NearLockGroup nearLockGroup;
 
     public SlockDatabase(ISlockClient client, byte dbId, short defaultTimeoutFlag, short defaultExpriedFlag) {
         this.client = client;
@@ -25,6 +28,14 @@ public class SlockDatabase {
         this.defaultExpriedFlag = defaultExpriedFlag;
     }
 
+    public void setNearLockOption(NearLockOption nearLockOption) {
+        this.nearLockGroup = nearLockOption == null || !nearLockOption.isEnabled() ? null : new NearLockGroup(nearLockOption);
+    }
+
+    public NearLockGroup getNearLockGroup() {
+        return nearLockGroup;
+    }
+
     public void close() {
         client = null;
     }
@@ -55,11 +66,43 @@ public class SlockDatabase {
     }
 
     public Lock newLock(byte[] lockKey, int timeout, int expried) {
+        NearLockGroup nearLockGroup = this.nearLockGroup;
+        if (nearLockGroup != null) {
+            return new NearLock(this, lockKey, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried), nearLockGroup);
+        }
         return new Lock(this, lockKey, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
     }
 
     public Lock newLock(String lockKey, int timeout, int expried) {
-        return new Lock(this, lockKey.getBytes(StandardCharsets.UTF_8), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
+        return newLock(KeyNormalizer.DefaultNormalizer.normalize(lockKey), timeout, expried);
+    }
+
+    public void acquireAll(Lock... locks) throws SlockException {
+        MultiLock.acquireAll(getClient(), locks);
+    }
+
+    public CompletableFuture<Boolean> acquireAllAsync(Lock... locks) {
+        try {
+            return MultiLock.acquireAllAsync(getClient(), locks);
+        } catch (ClientClosedException e) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    public void releaseAll(Lock... locks) throws SlockException {
+        MultiLock.releaseAll(getClient(), locks);
+    }
+
+    public CompletableFuture<Boolean> releaseAllAsync(Lock... locks) {
+        try {
+            return MultiLock.releaseAllAsync(getClient(), locks);
+        } catch (ClientClosedException e) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
     }
 
     public Event newEvent(byte[] eventKey, int timeout, int expried, boolean defaultSeted) {
@@ -67,7 +110,7 @@ public class SlockDatabase {
     }
 
     public Event newEvent(String eventKey, int timeout, int expried, boolean defaultSeted) {
-        return new Event(this, eventKey.getBytes(StandardCharsets.UTF_8), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried), defaultSeted);
+        return new Event(this, KeyNormalizer.DefaultNormalizer.normalize(eventKey), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried), defaultSeted);
     }
 
     public ReentrantLock newReentrantLock(byte[] lockKey, int timeout, int expried) {
@@ -75,7 +118,7 @@ public class SlockDatabase {
     }
 
     public ReentrantLock newReentrantLock(String lockKey, int timeout, int expried) {
-        return new ReentrantLock(this, lockKey.getBytes(StandardCharsets.UTF_8), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
+        return new ReentrantLock(this, KeyNormalizer.DefaultNormalizer.normalize(lockKey), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
     }
 
     public ReadWriteLock newReadWriteLock(byte[] lockKey, int timeout, int expried) {
@@ -83,7 +126,7 @@ public class SlockDatabase {
     }
 
     public ReadWriteLock newReadWriteLock(String lockKey, int timeout, int expried) {
-        return new ReadWriteLock(this, lockKey.getBytes(StandardCharsets.UTF_8), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
+        return new ReadWriteLock(this, KeyNormalizer.DefaultNormalizer.normalize(lockKey), mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
     }
 
     public Semaphore newSemaphore(byte[] semaphoreKey, short count, int timeout, int expried) {
@@ -91,7 +134,7 @@ public class SlockDatabase {
     }
 
     public Semaphore newSemaphore(String semaphoreKey, short count, int timeout, int expried) {
-        return new Semaphore(this, semaphoreKey.getBytes(StandardCharsets.UTF_8), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
+        return new Semaphore(this, KeyNormalizer.DefaultNormalizer.normalize(semaphoreKey), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
     }
 
     public MaxConcurrentFlow newMaxConcurrentFlow(byte[] flowKey, short count, int timeout, int expried) {
@@ -99,7 +142,7 @@ public class SlockDatabase {
     }
 
     public MaxConcurrentFlow newMaxConcurrentFlow(String flowKey, short count, int timeout, int expried) {
-        return new MaxConcurrentFlow(this, flowKey.getBytes(StandardCharsets.UTF_8), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
+        return new MaxConcurrentFlow(this, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried));
     }
 
     public MaxConcurrentFlow newMaxConcurrentFlow(byte[] flowKey, short count, int timeout, int expried, byte priority) {
@@ -107,7 +150,7 @@ public class SlockDatabase {
     }
 
     public MaxConcurrentFlow newMaxConcurrentFlow(String flowKey, short count, int timeout, int expried, byte priority) {
-        return new MaxConcurrentFlow(this, flowKey.getBytes(StandardCharsets.UTF_8), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried), priority);
+        return new MaxConcurrentFlow(this, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, mergeTimeoutFlag(timeout), mergeExpriedFlag(expried), priority);
     }
 
     public TokenBucketFlow newTokenBucketFlow(byte[] flowKey, short count, int timeout, double period) {
@@ -115,7 +158,7 @@ public class SlockDatabase {
     }
 
     public TokenBucketFlow newTokenBucketFlow(String flowKey, short count, int timeout, double period) {
-        return new TokenBucketFlow(this, flowKey.getBytes(StandardCharsets.UTF_8), count, mergeTimeoutFlag(timeout), period);
+        return new TokenBucketFlow(this, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, mergeTimeoutFlag(timeout), period);
     }
 
     public TokenBucketFlow newTokenBucketFlow(byte[] flowKey, short count, int timeout, double period, byte priority) {
@@ -123,7 +166,7 @@ public class SlockDatabase {
     }
 
     public TokenBucketFlow newTokenBucketFlow(String flowKey, short count, int timeout, double period, byte priority) {
-        return new TokenBucketFlow(this, flowKey.getBytes(StandardCharsets.UTF_8), count, mergeTimeoutFlag(timeout), period, priority);
+        return new TokenBucketFlow(this, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, mergeTimeoutFlag(timeout), period, priority);
     }
 
     public GroupEvent newGroupEvent(byte[] groupKey, long clientId, long versionId, int timeout, int expried) {
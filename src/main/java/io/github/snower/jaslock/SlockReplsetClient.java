@@ -2,16 +2,23 @@ package io.github.snower.jaslock;
 
 import io.github.snower.jaslock.commands.*;
 import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.callback.CallbackDispatchStats;
 import io.github.snower.jaslock.callback.CallbackExecutorManager;
 import io.github.snower.jaslock.callback.ExecutorOption;
 import io.github.snower.jaslock.exceptions.ClientClosedException;
 import io.github.snower.jaslock.exceptions.ClientAsyncCallbackDisabledException;
 import io.github.snower.jaslock.exceptions.ClientUnconnectException;
 import io.github.snower.jaslock.exceptions.SlockException;
+import io.github.snower.jaslock.network.EventLoopGroup;
+import io.github.snower.jaslock.network.WriteOption;
+import io.github.snower.jaslock.network.WriteStats;
 
+import java.io.IOException;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.function.Consumer;
 
@@ -22,11 +29,23 @@ public class SlockReplsetClient implements ISlockClient {
     private final LinkedList<SlockClient> clients;
     private final LinkedList<SlockClient> livedClients;
     private volatile SlockClient livedLeaderClient;
-    private final ConcurrentHashMap<SlockClient.BytesKey, Command> requests;
+    private final RequestTable requests;
     private final ConcurrentLinkedDeque<Command> pendingRequests;
     private boolean closed;
     private final SlockDatabase[] databases;
     private CallbackExecutorManager callbackExecutorManager;
+    private EventLoopGroup eventLoopGroup;
+    private boolean isExternEventLoopGroup;
+    private boolean isRetainedEventLoopGroup;
+    private WriteOption writeOption;
+    private final WriteStats writeStats;
+    private WaitStrategy waitStrategy;
+    private long millisecondTimeoutGrace;
+    private Executor asyncExecutor;
+    private NearLockOption nearLockOption;
+    private LeaseWatchdog leaseWatchdog;
+    private volatile InflightWindow inflightWindow;
+    private final java.util.concurrent.locks.ReentrantLock stateLock = new java.util.concurrent.locks.ReentrantLock();
 
     public SlockReplsetClient(String hosts) {
         this(hosts.split("\\,"));
@@ -37,10 +56,14 @@ public class SlockReplsetClient implements ISlockClient {
         this.clients = new LinkedList<>();
         this.livedClients = new LinkedList<>();
         this.livedLeaderClient = null;
-        this.requests = new ConcurrentHashMap<>();
+        this.requests = new RequestTable();
         this.pendingRequests = new ConcurrentLinkedDeque<>();
         this.closed = false;
         this.databases = new SlockDatabase[256];
+        this.writeOption = WriteOption.DefaultOption;
+        this.writeStats = new WriteStats();
+        this.waitStrategy = WaitStrategy.DefaultOption;
+        this.millisecondTimeoutGrace = Command.DEFAULT_MILLISECOND_TIMEOUT_GRACE;
     }
 
     public SlockReplsetClient(String hosts, boolean enableAsyncCallback) {
@@ -57,15 +80,71 @@ public class SlockReplsetClient implements ISlockClient {
         }
     }
 
-    protected ConcurrentHashMap<SlockClient.BytesKey, Command> getRequests() {
+    protected RequestTable getRequests() {
         return requests;
     }
 
+    @Override
+    public void setWriteOption(WriteOption writeOption) {
+        this.writeOption = writeOption == null ? WriteOption.DefaultOption : writeOption;
+        for (SlockClient client : clients) {
+            client.setWriteOption(this.writeOption);
+        }
+    }
+
+    @Override
+    public WriteStats getWriteStats() {
+        return writeStats;
+    }
+
+    @Override
+    public void setInflightOption(InflightOption inflightOption) {
+        this.inflightWindow = inflightOption == null || inflightOption.isUnlimited() ? null : new InflightWindow(inflightOption);
+        for (SlockClient client : clients) {
+            client.setInflightWindow(this.inflightWindow);
+        }
+    }
+
+    @Override
+    public InflightWindow getInflightWindow() {
+        return inflightWindow;
+    }
+
+    @Override
+    public CallbackDispatchStats getCallbackDispatchStats() {
+        return callbackExecutorManager != null ? callbackExecutorManager.getDispatchStats() : null;
+    }
+
+    @Override
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.DefaultOption : waitStrategy;
+        for (SlockClient client : clients) {
+            client.setWaitStrategy(this.waitStrategy);
+        }
+    }
+
+    @Override
+    public void setMillisecondTimeoutGrace(long millisecondTimeoutGrace) {
+        this.millisecondTimeoutGrace = millisecondTimeoutGrace > 0 ? millisecondTimeoutGrace : Command.DEFAULT_MILLISECOND_TIMEOUT_GRACE;
+        if (callbackExecutorManager != null) {
+            callbackExecutorManager.setMillisecondTimeoutGrace(this.millisecondTimeoutGrace);
+        }
+        for (SlockClient client : clients) {
+            client.setMillisecondTimeoutGrace(this.millisecondTimeoutGrace);
+        }
+    }
+
+    @Override
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
     @Override
     public boolean enableAsyncCallback() {
         if (callbackExecutorManager != null) return false;
 
         callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.DefaultOption);
+        callbackExecutorManager.setMillisecondTimeoutGrace(millisecondTimeoutGrace);
         if (!clients.isEmpty()) {
             callbackExecutorManager.start();
             for (SlockClient client : clients) {
@@ -80,6 +159,7 @@ public class SlockReplsetClient implements ISlockClient {
         if (callbackExecutorManager != null) return false;
 
         callbackExecutorManager = new CallbackExecutorManager(executorOption);
+        callbackExecutorManager.setMillisecondTimeoutGrace(millisecondTimeoutGrace);
         if (!clients.isEmpty()) {
             callbackExecutorManager.start();
             for (SlockClient client : clients) {
@@ -104,6 +184,29 @@ public class SlockReplsetClient implements ISlockClient {
         return true;
     }
 
+    @Override
+    public boolean enableNioTransport() {
+        return enableNioTransport(EventLoopGroup.shared(), false);
+    }
+
+    @Override
+    public boolean enableNioTransport(int ioThreadCount) {
+        return enableNioTransport(EventLoopGroup.shared(ioThreadCount), false);
+    }
+
+    @Override
+    public boolean enableNioTransport(EventLoopGroup eventLoopGroup) {
+        return enableNioTransport(eventLoopGroup, true);
+    }
+
+    private boolean enableNioTransport(EventLoopGroup eventLoopGroup, boolean isExternEventLoopGroup) {
+        if (!clients.isEmpty()) return false;
+
+        this.eventLoopGroup = eventLoopGroup;
+        this.isExternEventLoopGroup = isExternEventLoopGroup;
+        return true;
+    }
+
     @Override
     public void setDefaultTimeoutFlag(short defaultTimeoutFlag) {
         this.defaultTimeoutFlag = defaultTimeoutFlag;
@@ -124,8 +227,50 @@ public class SlockReplsetClient implements ISlockClient {
         }
     }
 
+    @Override
+    public boolean enableLeaseWatchdog() {
+        return enableLeaseWatchdog(LeaseWatchdogOption.DefaultOption);
+    }
+
+    @Override
+    public boolean enableLeaseWatchdog(LeaseWatchdogOption leaseWatchdogOption) {
+        if (leaseWatchdog != null) return false;
+
+        leaseWatchdog = new LeaseWatchdog(this, leaseWatchdogOption);
+        leaseWatchdog.start();
+        return true;
+    }
+
+    @Override
+    public LeaseWatchdog getLeaseWatchdog() {
+        return leaseWatchdog;
+    }
+
+    @Override
+    public void setNearLockOption(NearLockOption nearLockOption) {
+        this.nearLockOption = nearLockOption;
+        for (SlockDatabase database : databases) {
+            if (database != null) {
+                database.setNearLockOption(nearLockOption);
+            }
+        }
+    }
+
     @Override
     public void open() throws ClientUnconnectException {
+        if (eventLoopGroup != null) {
+            try {
+                if (isExternEventLoopGroup) {
+                    eventLoopGroup.start();
+                } else if (!isRetainedEventLoopGroup) {
+                    eventLoopGroup.retain();
+                    isRetainedEventLoopGroup = true;
+                }
+            } catch (IOException e) {
+                throw new ClientUnconnectException("event loop group start error");
+            }
+        }
+
         for(String host : hosts) {
             String[] hostInfo = host.startsWith("[") && host.contains("]:") ? host.substring(1).split("\\]\\:") : host.split("\\:");
             if(hostInfo.length != 2) {
@@ -136,6 +281,12 @@ public class SlockReplsetClient implements ISlockClient {
             if (callbackExecutorManager != null) {
                 client.enableAsyncCallback(callbackExecutorManager);
             }
+            if (eventLoopGroup != null) {
+                client.enableNioTransport(eventLoopGroup);
+            }
+            client.setWriteOption(writeOption);
+            client.setWaitStrategy(waitStrategy);
+            client.setMillisecondTimeoutGrace(millisecondTimeoutGrace);
             clients.add(client);
             client.tryOpen();
         }
@@ -160,20 +311,20 @@ public class SlockReplsetClient implements ISlockClient {
 
     @Override
     public void close() {
+        if (leaseWatchdog != null) {
+            leaseWatchdog.stop();
+            leaseWatchdog = null;
+        }
         closed = true;
         closePendingRequestCommands();
         try {
-            for (SlockClient.BytesKey requestId : requests.keySet().toArray(new SlockClient.BytesKey[0])) {
-                Command command = requests.remove(requestId);
-                if (command == null) {
-                    continue;
-                }
+            requests.drainAll(command -> {
                 if (command.getRetryType() == 2) {
                     removePendingRequestCommand(command);
                 }
                 command.commandResult = null;
                 command.wakeupWaiter();
-            }
+            });
 
             for (int i = 0; i < databases.length; i++) {
                 if (databases[i] != null) {
@@ -193,46 +344,65 @@ public class SlockReplsetClient implements ISlockClient {
                 callbackExecutorManager.stop();
             }
             callbackExecutorManager = null;
+            if (isRetainedEventLoopGroup) {
+                eventLoopGroup.release();
+                isRetainedEventLoopGroup = false;
+            }
         }
     }
 
     protected boolean hasLivedClient() {
-        synchronized (this) {
+        stateLock.lock();
+        try {
             return !livedClients.isEmpty();
+        } finally {
+            stateLock.unlock();
         }
     }
 
     protected void addLivedClient(SlockClient client, boolean isLeader) {
-        synchronized (this) {
+        stateLock.lock();
+        try {
             this.livedClients.add(client);
             if (isLeader) {
                 this.livedLeaderClient = client;
             }
+        } finally {
+            stateLock.unlock();
         }
         this.wakeupPendingRequestCommands(client);
     }
 
     protected void removeLivedClient(SlockClient client) {
-        synchronized (this) {
+        stateLock.lock();
+        try {
             this.livedClients.remove(client);
             if (client.equals(this.livedLeaderClient)) {
                 this.livedLeaderClient = null;
             }
+        } finally {
+            stateLock.unlock();
         }
     }
 
     protected void addLivedLeaderClient(SlockClient client) {
-        synchronized (this) {
+        stateLock.lock();
+        try {
             this.livedLeaderClient = client;
+        } finally {
+            stateLock.unlock();
         }
         this.wakeupPendingRequestCommands(client);
     }
 
     protected void removeLivedLeaderClient(SlockClient client) {
-        synchronized (this) {
+        stateLock.lock();
+        try {
             if (client.equals(this.livedLeaderClient)) {
                 this.livedLeaderClient = null;
             }
+        } finally {
+            stateLock.unlock();
         }
     }
 
@@ -307,6 +477,97 @@ public class SlockReplsetClient implements ISlockClient {
 
     @Override
     public void sendCommand(Command command, Consumer<CallbackCommandResult> callback) throws SlockException {
+        sendCommand(command, callback, null);
+    }
+
+    @Override
+    public void sendCommand(Command command, Consumer<CallbackCommandResult> callback, Executor executor) throws SlockException {
+        if(closed) {
+            throw new ClientClosedException("client has been closed");
+        }
+        if (callbackExecutorManager == null) {
+            throw new ClientAsyncCallbackDisabledException("The asynchronous thread pool is not enabled. First enableAsyncCallback to enable the asynchronous thread pool.");
+        }
+
+        try {
+            SlockClient client = livedLeaderClient;
+            if (client == null) {
+                client = livedClients.getFirst();
+            }
+            client.sendCommand(command, callback, executor);
+        } catch (NoSuchElementException e) {
+            throw new ClientUnconnectException("clients not connected");
+        }
+    }
+
+    @Override
+    public CompletableFuture<CommandResult> sendCommandAsync(Command command) {
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        if(closed) {
+            future.completeExceptionally(new ClientClosedException("client has been closed"));
+            return future;
+        }
+        if (callbackExecutorManager == null) {
+            future.completeExceptionally(new ClientAsyncCallbackDisabledException("The asynchronous thread pool is not enabled. First enableAsyncCallback to enable the asynchronous thread pool."));
+            return future;
+        }
+
+        try {
+            SlockClient client = livedLeaderClient;
+            if (client == null) {
+                client = livedClients.getFirst();
+            }
+            client.sendCommand(command, callbackCommandResult -> {
+                if (callbackCommandResult.getException() != null) {
+                    future.completeExceptionally(callbackCommandResult.getException());
+                } else {
+                    future.complete(callbackCommandResult.getCommandResult());
+                }
+            }, asyncExecutor != null ? asyncExecutor : CallbackExecutorManager.DirectExecutor);
+        } catch (NoSuchElementException e) {
+            future.completeExceptionally(new ClientUnconnectException("clients not connected"));
+        } catch (SlockException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public List<CommandResult> sendCommands(List<? extends Command> commands) throws SlockException {
+        if(closed) {
+            throw new ClientClosedException("client has been closed");
+        }
+
+        try {
+            SlockClient client = livedLeaderClient;
+            if (client == null) {
+                client = livedClients.getFirst();
+            }
+            return client.sendCommands(commands);
+        } catch (NoSuchElementException e) {
+            throw new ClientUnconnectException("clients not connected");
+        }
+    }
+
+    @Override
+    public List<CallbackCommandResult> sendCommandsEach(List<? extends Command> commands) throws SlockException {
+        if(closed) {
+            throw new ClientClosedException("client has been closed");
+        }
+
+        try {
+            SlockClient client = livedLeaderClient;
+            if (client == null) {
+                client = livedClients.getFirst();
+            }
+            return client.sendCommandsEach(commands);
+        } catch (NoSuchElementException e) {
+            throw new ClientUnconnectException("clients not connected");
+        }
+    }
+
+    @Override
+    public void sendCommands(List<? extends Command> commands, Consumer<CallbackCommandResult> callback) throws SlockException {
         if(closed) {
             throw new ClientClosedException("client has been closed");
         }
@@ -319,12 +580,26 @@ public class SlockReplsetClient implements ISlockClient {
             if (client == null) {
                 client = livedClients.getFirst();
             }
-            client.sendCommand(command, callback);
+            client.sendCommands(commands, callback);
         } catch (NoSuchElementException e) {
             throw new ClientUnconnectException("clients not connected");
         }
     }
 
+    @Override
+    public CommandBatch batch() {
+        return new CommandBatch(this);
+    }
+
+    @Override
+    public boolean cancelCommand(Command command) {
+        SlockClient client = livedLeaderClient;
+        if (client == null) {
+            client = livedClients.peekFirst();
+        }
+        return client != null && client.cancelCommand(command);
+    }
+
     @Override
     public void writeCommand(Command command) throws SlockException {
         if(closed) {
@@ -352,10 +627,15 @@ public class SlockReplsetClient implements ISlockClient {
     @Override
     public SlockDatabase selectDatabase(byte dbId) {
         if(databases[dbId] == null) {
-            synchronized (this) {
+            stateLock.lock();
+            try {
                 if(databases[dbId] == null) {
-                    databases[dbId] = new SlockDatabase(this, dbId, defaultTimeoutFlag, defaultExpriedFlag);
+                    SlockDatabase database = new SlockDatabase(this, dbId, defaultTimeoutFlag, defaultExpriedFlag);
+                    database.setNearLockOption(nearLockOption);
+                    databases[dbId] = database;
                 }
+            } finally {
+                stateLock.unlock();
             }
         }
         return databases[dbId];
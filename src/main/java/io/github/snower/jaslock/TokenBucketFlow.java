@@ -5,12 +5,15 @@ import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.LockTimeoutException;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 public class TokenBucketFlow extends AbstractExecution {
     private final double period;
     private byte priority;
+    private volatile TokenPrefetcher tokenPrefetcher;
+    private volatile TokenWindowCache tokenWindowCache;
 
     public TokenBucketFlow(SlockDatabase database, byte[] flowKey, short count, int timeout, double period, byte priority) {
         super(database, flowKey, timeout, 0, (short) (count > 0 ? count - 1 : 0), (byte) 0);
@@ -23,11 +26,11 @@ public class TokenBucketFlow extends AbstractExecution {
     }
 
     public TokenBucketFlow(SlockDatabase database, String flowKey, short count, int timeout, double period, byte priority) {
-        this(database, flowKey.getBytes(StandardCharsets.UTF_8), count, timeout, period, priority);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, timeout, period, priority);
     }
 
     public TokenBucketFlow(SlockDatabase database, String flowKey, short count, int timeout, double period) {
-        this(database, flowKey.getBytes(StandardCharsets.UTF_8), count, timeout, period, (byte) 0);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(flowKey), count, timeout, period, (byte) 0);
     }
 
     public byte getPriority() {
@@ -38,69 +41,221 @@ public class TokenBucketFlow extends AbstractExecution {
         this.priority = priority;
     }
 
-    public void acquire() throws SlockException {
+    public void setTokenPrefetchOption(TokenPrefetchOption tokenPrefetchOption) {
+        this.tokenPrefetcher = tokenPrefetchOption == null ? null : new TokenPrefetcher(database, lockKey, expried, count, period, tokenPrefetchOption);
+    }
+
+    public TokenPrefetcher getTokenPrefetcher() {
+        return tokenPrefetcher;
+    }
+
+    public void setNegativeCacheEnabled(boolean enabled) {
+        this.tokenWindowCache = enabled ? new TokenWindowCache(period, count) : null;
+    }
+
+    public TokenWindowCache getTokenWindowCache() {
+        return tokenWindowCache;
+    }
+
+    public boolean tryAcquire() throws SlockException {
+        final int timeout = (priority > 0 ? this.timeout | 0x00100000 : this.timeout) & 0xffff0000;
+        TokenPrefetcher tokenPrefetcher = this.tokenPrefetcher;
+        if (tokenPrefetcher != null && tokenPrefetcher.tryAcquire()) {
+            return true;
+        }
+        TokenWindowCache tokenWindowCache = this.tokenWindowCache;
+        if (tokenWindowCache != null && tokenWindowCache.tryReject()) {
+            return false;
+        }
+        if (tokenPrefetcher != null) {
+            try {
+                if (tokenPrefetcher.acquire(timeout)) {
+                    return true;
+                }
+            } catch (LockTimeoutException e) {
+                if (tokenWindowCache != null) {
+                    tokenWindowCache.markExhausted(e);
+                }
+                return false;
+            }
+        }
+
         Lock flowLock;
+        executionLock.lock();
+        try {
+            int expried;
+            if (period < 3) {
+                expried = (int)Math.ceil(period * 1000) | 0x04000000;
+            } else {
+                long now = System.currentTimeMillis() / 1000L;
+                expried = (int) (((long)Math.ceil(period)) - (now % ((long) Math.ceil((period)))));
+            }
+            expried = expried | (this.expried & 0xffff0000);
+            flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+        } finally {
+            executionLock.unlock();
+        }
+
+        try {
+            flowLock.acquire();
+            return true;
+        } catch (LockTimeoutException e) {
+            if (tokenWindowCache != null) {
+                tokenWindowCache.markExhausted(e);
+            }
+            return false;
+        }
+    }
+
+    public void acquire() throws SlockException {
         final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+        TokenPrefetcher tokenPrefetcher = this.tokenPrefetcher;
+        if (tokenPrefetcher != null && tokenPrefetcher.tryAcquire()) {
+            return;
+        }
+        TokenWindowCache tokenWindowCache = this.tokenWindowCache;
+        if (tokenWindowCache != null) {
+            tokenWindowCache.await(timeout);
+        }
+        if (tokenPrefetcher != null) {
+            try {
+                if (tokenPrefetcher.acquire(timeout)) {
+                    return;
+                }
+            } catch (LockTimeoutException e) {
+                if (tokenWindowCache != null) {
+                    tokenWindowCache.markExhausted(e);
+                }
+                newWaitFlowLock(timeout).acquire();
+                return;
+            }
+        }
+        if (tokenWindowCache == null) {
+            acquireFlow(timeout, null);
+            return;
+        }
+
+        try {
+            acquireFlow(timeout, tokenWindowCache);
+        } catch (LockTimeoutException e) {
+            tokenWindowCache.markExhausted(e);
+            throw e;
+        }
+    }
+
+    private void acquireFlow(int timeout, TokenWindowCache tokenWindowCache) throws SlockException {
+        Lock flowLock;
         if(period < 3) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 int expried = (int)Math.ceil(period * 1000) | 0x04000000;
                 expried = expried | (this.expried & 0xffff0000);
                 flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+            } finally {
+                executionLock.unlock();
             }
             flowLock.acquire();
             return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             long now = System.currentTimeMillis() / 1000L;
             int expried = (int) (((long)Math.ceil(period)) - (now % ((long) Math.ceil((period)))));
             expried = expried | (this.expried & 0xffff0000);
             flowLock = new Lock(database, lockKey, LockCommand.genLockId(), 0, expried, count, (byte) 0);
+        } finally {
+            executionLock.unlock();
         }
 
         try {
             flowLock.acquire();
         } catch (LockTimeoutException e) {
-            int expried = (int) Math.ceil(period);
-            expried = expried | (this.expried & 0xffff0000);
-            flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
-            flowLock.acquire();
+            if (tokenWindowCache != null) {
+                tokenWindowCache.markExhausted(e);
+            }
+            newWaitFlowLock(timeout).acquire();
         }
     }
 
+    private Lock newWaitFlowLock(int timeout) {
+        int expried = period < 3 ? (int) Math.ceil(period * 1000) | 0x04000000 : (int) Math.ceil(period);
+        expried = expried | (this.expried & 0xffff0000);
+        return new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+    }
+
     public CallbackFuture<Boolean> acquire(Consumer<CallbackFuture<Boolean>> callback) throws SlockException {
         CallbackFuture<Boolean> callbackFuture = new CallbackFuture<>(callback);
-        Lock flowLock;
+        TokenPrefetcher tokenPrefetcher = this.tokenPrefetcher;
+        if (tokenPrefetcher != null && tokenPrefetcher.tryAcquire()) {
+            callbackFuture.setResult(true);
+            return callbackFuture;
+        }
         final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+        TokenWindowCache tokenWindowCache = this.tokenWindowCache;
+        if (tokenWindowCache == null || !tokenWindowCache.isExhausted()) {
+            acquireFlow(timeout, tokenWindowCache, callbackFuture);
+            return callbackFuture;
+        }
+        tokenWindowCache.awaitAsync(timeout).whenComplete((opened, e) -> {
+            if (opened == null || !opened) {
+                callbackFuture.setResult(false, tokenWindowCache.newRejectException());
+                return;
+            }
+            try {
+                acquireFlow(timeout, tokenWindowCache, callbackFuture);
+            } catch (SlockException ex) {
+                callbackFuture.setResult(false, ex);
+            }
+        });
+        return callbackFuture;
+    }
+
+    private void acquireFlow(int timeout, TokenWindowCache tokenWindowCache, CallbackFuture<Boolean> callbackFuture) throws SlockException {
+        Lock flowLock;
         if(period < 3) {
-            synchronized (this) {
+            executionLock.lock();
+            try {
                 int expried = (int)Math.ceil(period * 1000) | 0x04000000;
                 expried = expried | (this.expried & 0xffff0000);
                 flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+            } finally {
+                executionLock.unlock();
             }
-            flowLock.acquire((byte) 0, callbackCommandResult -> {
+            flowLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
                 try {
                     callbackCommandResult.getResult();
                     callbackFuture.setResult(true);
+                } catch (LockTimeoutException e) {
+                    if (tokenWindowCache != null) {
+                        tokenWindowCache.markExhausted(e);
+                    }
+                    callbackFuture.setResult(false, e);
                 } catch (SlockException e) {
                     callbackFuture.setResult(false, e);
                 }
             });
-            return callbackFuture;
+            return;
         }
 
-        synchronized (this) {
+        executionLock.lock();
+        try {
             long now = System.currentTimeMillis() / 1000L;
             int expried = (int) (((long)Math.ceil(period)) - (now % ((long) Math.ceil((period)))));
             expried = expried | (this.expried & 0xffff0000);
             flowLock = new Lock(database, lockKey, LockCommand.genLockId(), 0, expried, count, (byte) 0);
+        } finally {
+            executionLock.unlock();
         }
 
-        flowLock.acquire((byte) 0, callbackCommandResult -> {
+        flowLock.acquire((byte) 0, null, callbackFuture, callbackCommandResult -> {
             try {
                 callbackCommandResult.getResult();
                 callbackFuture.setResult(true);
             } catch (LockTimeoutException e) {
+                if (tokenWindowCache != null) {
+                    tokenWindowCache.markExhausted(e);
+                }
                 int expried = (int) Math.ceil(period);
                 expried = expried | (this.expried & 0xffff0000);
                 Lock reflowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
@@ -109,6 +264,11 @@ public class TokenBucketFlow extends AbstractExecution {
                         try {
                             recallbackCommandResult.getResult();
                             callbackFuture.setResult(true);
+                        } catch (LockTimeoutException ex) {
+                            if (tokenWindowCache != null) {
+                                tokenWindowCache.markExhausted(ex);
+                            }
+                            callbackFuture.setResult(false, e);
                         } catch (SlockException ex) {
                             callbackFuture.setResult(false, e);
                         }
@@ -120,7 +280,89 @@ public class TokenBucketFlow extends AbstractExecution {
                 callbackFuture.setResult(false, e);
             }
         });
-        return callbackFuture;
+    }
+
+    public CompletableFuture<Boolean> acquireAsync() {
+        final int timeout = priority > 0 ? this.timeout | 0x00100000 : this.timeout;
+        TokenPrefetcher tokenPrefetcher = this.tokenPrefetcher;
+        if (tokenPrefetcher != null && tokenPrefetcher.tryAcquire()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        TokenWindowCache tokenWindowCache = this.tokenWindowCache;
+        if (tokenWindowCache == null) {
+            return acquireRemoteAsync(timeout, tokenPrefetcher, null);
+        }
+        return tokenWindowCache.awaitAsync(timeout).thenCompose(opened -> {
+            if (!opened) {
+                throw new CompletionException(tokenWindowCache.newRejectException());
+            }
+            return acquireRemoteAsync(timeout, tokenPrefetcher, tokenWindowCache);
+        });
+    }
+
+    private CompletableFuture<Boolean> acquireRemoteAsync(int timeout, TokenPrefetcher tokenPrefetcher, TokenWindowCache tokenWindowCache) {
+        CompletableFuture<Boolean> future = tokenPrefetcher == null ? acquireFlowAsync(timeout, tokenWindowCache)
+                : tokenPrefetcher.acquireAsync(timeout).handle((acquired, e) -> {
+                    if (e == null) {
+                        return acquired ? CompletableFuture.completedFuture(true) : acquireFlowAsync(timeout, tokenWindowCache);
+                    }
+                    Throwable cause = unwrapAsyncException(e);
+                    if (!(cause instanceof LockTimeoutException)) {
+                        throw wrapAsyncException(e);
+                    }
+                    if (tokenWindowCache != null) {
+                        tokenWindowCache.markExhausted((LockTimeoutException) cause);
+                    }
+                    return newWaitFlowLock(timeout).acquireAsync();
+                }).thenCompose(f -> f);
+        if (tokenWindowCache == null) {
+            return future;
+        }
+        return future.whenComplete((result, e) -> {
+            Throwable cause = e == null ? null : unwrapAsyncException(e);
+            if (cause instanceof LockTimeoutException) {
+                tokenWindowCache.markExhausted((LockTimeoutException) cause);
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> acquireFlowAsync(int timeout, TokenWindowCache tokenWindowCache) {
+        Lock flowLock;
+        if(period < 3) {
+            executionLock.lock();
+            try {
+                int expried = (int)Math.ceil(period * 1000) | 0x04000000;
+                expried = expried | (this.expried & 0xffff0000);
+                flowLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, expried, count, (byte) 0);
+            } finally {
+                executionLock.unlock();
+            }
+            return flowLock.acquireAsync();
+        }
+
+        executionLock.lock();
+        try {
+            long now = System.currentTimeMillis() / 1000L;
+            int expried = (int) (((long)Math.ceil(period)) - (now % ((long) Math.ceil((period)))));
+            expried = expried | (this.expried & 0xffff0000);
+            flowLock = new Lock(database, lockKey, LockCommand.genLockId(), 0, expried, count, (byte) 0);
+        } finally {
+            executionLock.unlock();
+        }
+
+        return flowLock.acquireAsync().handle((result, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            Throwable cause = unwrapAsyncException(e);
+            if (!(cause instanceof LockTimeoutException)) {
+                throw wrapAsyncException(e);
+            }
+            if (tokenWindowCache != null) {
+                tokenWindowCache.markExhausted((LockTimeoutException) cause);
+            }
+            return newWaitFlowLock(timeout).acquireAsync();
+        }).thenCompose(future -> future);
     }
 
     public AutoCloseable with() throws SlockException {
@@ -0,0 +1,25 @@
+package io.github.snower.jaslock;
+
+public class TokenPrefetchOption {
+    public final static TokenPrefetchOption DefaultOption = new TokenPrefetchOption(1, 64);
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+
+    public TokenPrefetchOption(int minBatchSize, int maxBatchSize) {
+        this.minBatchSize = Math.max(minBatchSize, 1);
+        this.maxBatchSize = Math.max(maxBatchSize, this.minBatchSize);
+    }
+
+    public static TokenPrefetchOption adaptive(int maxBatchSize) {
+        return new TokenPrefetchOption(1, maxBatchSize);
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+}
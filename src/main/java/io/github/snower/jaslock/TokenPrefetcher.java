@@ -0,0 +1,256 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.CommandResult;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.exceptions.LockTimeoutException;
+import io.github.snower.jaslock.exceptions.SlockException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TokenPrefetcher {
+    private final SlockDatabase database;
+    private final byte[] lockKey;
+    private final int expriedFlag;
+    private final short count;
+    private final double period;
+    private final TokenPrefetchOption tokenPrefetchOption;
+    private final ReentrantLock refillLock;
+    private final AtomicReference<CompletableFuture<Boolean>> refillFuture;
+    private final LongAdder localAcquireCount;
+    private final LongAdder claimedCount;
+    private final LongAdder claimCount;
+    private volatile TokenBatch tokenBatch;
+    private volatile double tokenRate;
+
+    public TokenPrefetcher(SlockDatabase database, byte[] lockKey, int expried, short count, double period, TokenPrefetchOption tokenPrefetchOption) {
+        this.database = database;
+        this.lockKey = lockKey;
+        this.expriedFlag = expried & 0xffff0000;
+        this.count = count;
+        this.period = period;
+        this.tokenPrefetchOption = tokenPrefetchOption == null ? TokenPrefetchOption.DefaultOption : tokenPrefetchOption;
+        this.refillLock = new ReentrantLock();
+        this.refillFuture = new AtomicReference<>(null);
+        this.localAcquireCount = new LongAdder();
+        this.claimedCount = new LongAdder();
+        this.claimCount = new LongAdder();
+        this.tokenRate = 0;
+    }
+
+    public TokenPrefetchOption getTokenPrefetchOption() {
+        return tokenPrefetchOption;
+    }
+
+    public long getLocalAcquireCount() {
+        return localAcquireCount.sum();
+    }
+
+    public long getClaimedCount() {
+        return claimedCount.sum();
+    }
+
+    public long getClaimCount() {
+        return claimCount.sum();
+    }
+
+    public int getLocalTokenCount() {
+        TokenBatch tokenBatch = this.tokenBatch;
+        if (tokenBatch == null || System.nanoTime() >= tokenBatch.expireNanos) {
+            return 0;
+        }
+        return Math.max(tokenBatch.remaining.get(), 0);
+    }
+
+    public double getTokenRate() {
+        return tokenRate;
+    }
+
+    public boolean tryAcquire() {
+        TokenBatch tokenBatch = this.tokenBatch;
+        if (tokenBatch == null || System.nanoTime() >= tokenBatch.expireNanos) {
+            return false;
+        }
+        while (true) {
+            int remaining = tokenBatch.remaining.get();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (tokenBatch.remaining.compareAndSet(remaining, remaining - 1)) {
+                tokenBatch.consumed.incrementAndGet();
+                localAcquireCount.increment();
+                return true;
+            }
+        }
+    }
+
+    public boolean acquire(int timeout) throws SlockException {
+        if (tryAcquire()) {
+            return true;
+        }
+
+        refillLock.lock();
+        try {
+            if (tryAcquire()) {
+                return true;
+            }
+            TokenWindow tokenWindow = new TokenWindow();
+            List<LockCommand> commands = newClaimCommands(tokenWindow, timeout);
+            List<CommandResult> commandResults = database.getClient().sendCommands(commands);
+            return publishClaimed(tokenWindow, commands, commandResults);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    public CompletableFuture<Boolean> acquireAsync(int timeout) {
+        if (tryAcquire()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (!refillFuture.compareAndSet(null, future)) {
+            CompletableFuture<Boolean> currentFuture = refillFuture.get();
+            if (currentFuture == null) {
+                return acquireAsync(timeout);
+            }
+            return currentFuture.thenCompose(refilled -> {
+                if (!refilled) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return tryAcquire() ? CompletableFuture.completedFuture(true) : acquireAsync(timeout);
+            });
+        }
+
+        ISlockClient client;
+        try {
+            client = database.getClient();
+        } catch (SlockException e) {
+            refillFuture.compareAndSet(future, null);
+            future.completeExceptionally(e);
+            return future;
+        }
+        TokenWindow tokenWindow = new TokenWindow();
+        List<LockCommand> commands = newClaimCommands(tokenWindow, timeout);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[commands.size()];
+        for (int i = 0; i < commands.size(); i++) {
+            futures[i] = client.sendCommandAsync(commands.get(i));
+        }
+        CompletableFuture.allOf(futures).whenComplete((v, e) -> {
+            List<LockCommand> claimCommands = new ArrayList<>(futures.length);
+            List<CommandResult> commandResults = new ArrayList<>(futures.length);
+            for (int i = 0; i < futures.length; i++) {
+                try {
+                    commandResults.add((CommandResult) futures[i].join());
+                    claimCommands.add(commands.get(i));
+                } catch (CompletionException ignored) {}
+            }
+            refillFuture.compareAndSet(future, null);
+            try {
+                future.complete(publishClaimed(tokenWindow, claimCommands, commandResults));
+            } catch (LockTimeoutException ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    private List<LockCommand> newClaimCommands(TokenWindow tokenWindow, int timeout) {
+        TokenBatch tokenBatch = this.tokenBatch;
+        if (tokenBatch != null) {
+            long elapsedNanos = Math.max(tokenWindow.startNanos - tokenBatch.createdNanos, TimeUnit.MILLISECONDS.toNanos(1));
+            double sampleRate = tokenBatch.consumed.get() * 1e9d / elapsedNanos;
+            tokenRate = tokenRate <= 0 ? sampleRate : (tokenRate + sampleRate) / 2;
+        }
+        int maxBatchSize = Math.min(tokenPrefetchOption.getMaxBatchSize(), count + 1);
+        int batchSize = (int) Math.ceil(tokenRate * (tokenWindow.expireNanos - tokenWindow.startNanos) / 1e9d);
+        batchSize = Math.max(tokenPrefetchOption.getMinBatchSize(), Math.min(batchSize, maxBatchSize));
+
+        List<LockCommand> commands = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            commands.add(new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, database.getDbId(), lockKey, LockCommand.genLockId(),
+                    timeout & 0xffff0000, tokenWindow.expried, count, (byte) 0));
+        }
+        claimCount.increment();
+        return commands;
+    }
+
+    private boolean publishClaimed(TokenWindow tokenWindow, List<LockCommand> commands, List<CommandResult> commandResults) throws LockTimeoutException {
+        int claimed = 0, timeoutIndex = -1;
+        for (int i = 0; i < commandResults.size(); i++) {
+            int result = commandResults.get(i).getResult();
+            if (result == ICommand.COMMAND_RESULT_SUCCED) {
+                claimed++;
+            } else if (result == ICommand.COMMAND_RESULT_TIMEOUT && timeoutIndex < 0) {
+                timeoutIndex = i;
+            }
+        }
+        if (claimed == 0 && timeoutIndex >= 0) {
+            throw new LockTimeoutException(commands.get(timeoutIndex), commandResults.get(timeoutIndex));
+        }
+        return publish(tokenWindow, claimed);
+    }
+
+    private boolean publish(TokenWindow tokenWindow, int claimed) {
+        if (claimed <= 0) {
+            return false;
+        }
+        claimedCount.add(claimed);
+
+        TokenBatch tokenBatch = this.tokenBatch;
+        if (tokenBatch != null && tokenWindow.startNanos < tokenBatch.expireNanos && tokenBatch.expireNanos <= tokenWindow.expireNanos) {
+            while (true) {
+                int remaining = tokenBatch.remaining.get();
+                if (tokenBatch.remaining.compareAndSet(remaining, Math.max(remaining, 0) + claimed - 1)) {
+                    break;
+                }
+            }
+        } else {
+            this.tokenBatch = new TokenBatch(claimed - 1, tokenWindow.startNanos, tokenWindow.expireNanos);
+        }
+        localAcquireCount.increment();
+        return true;
+    }
+
+    private class TokenWindow {
+        private final long startNanos;
+        private final long expireNanos;
+        private final int expried;
+
+        public TokenWindow() {
+            this.startNanos = System.nanoTime();
+            if (period < 3) {
+                int expriedMillis = (int) Math.ceil(period * 1000);
+                this.expried = expriedMillis | 0x04000000 | expriedFlag;
+                this.expireNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(expriedMillis);
+            } else {
+                long now = System.currentTimeMillis();
+                long windowSeconds = (long) Math.ceil(period);
+                long expriedMillis = windowSeconds * 1000L - (now % (windowSeconds * 1000L));
+                this.expried = (int) Math.ceil(expriedMillis / 1000d) | expriedFlag;
+                this.expireNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(expriedMillis);
+            }
+        }
+    }
+
+    private static class TokenBatch {
+        private final AtomicInteger remaining;
+        private final AtomicInteger consumed;
+        private final long createdNanos;
+        private final long expireNanos;
+
+        public TokenBatch(int remaining, long createdNanos, long expireNanos) {
+            this.remaining = new AtomicInteger(remaining);
+            this.consumed = new AtomicInteger(1);
+            this.createdNanos = createdNanos;
+            this.expireNanos = expireNanos;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.exceptions.LockTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TokenWindowCache {
+    private final double period;
+    private final short count;
+    private final ReentrantLock cacheLock;
+    private final LongAdder exhaustedCount;
+    private final LongAdder rejectedCount;
+    private final LongAdder parkedCount;
+    private volatile long exhaustedUntilMillis;
+    private volatile LockTimeoutException exhaustedException;
+    private CompletableFuture<Boolean> windowFuture;
+
+    public TokenWindowCache(double period, short count) {
+        this.period = period;
+        this.count = count;
+        this.cacheLock = new ReentrantLock();
+        this.exhaustedCount = new LongAdder();
+        this.rejectedCount = new LongAdder();
+        this.parkedCount = new LongAdder();
+        this.exhaustedUntilMillis = 0;
+    }
+
+    public boolean isExhausted() {
+        return System.currentTimeMillis() < exhaustedUntilMillis;
+    }
+
+    public long getExhaustedUntilMillis() {
+        return exhaustedUntilMillis;
+    }
+
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getParkedCount() {
+        return parkedCount.sum();
+    }
+
+    public void markExhausted(LockTimeoutException e) {
+        long now = System.currentTimeMillis();
+        long untilMillis;
+        if (period < 3) {
+            untilMillis = now + Math.max((long) Math.ceil(period * 1000 / (count + 1)), 1);
+        } else {
+            long windowMillis = (long) Math.ceil(period) * 1000L;
+            untilMillis = (now / windowMillis + 1) * windowMillis;
+        }
+
+        cacheLock.lock();
+        try {
+            exhaustedException = e;
+            if (untilMillis <= exhaustedUntilMillis) {
+                return;
+            }
+            exhaustedUntilMillis = untilMillis;
+            exhaustedCount.increment();
+            if (windowFuture == null || windowFuture.isDone()) {
+                CompletableFuture<Boolean> future = new CompletableFuture<>();
+                windowFuture = future;
+                SharedScheduledExecutor.get().schedule(() -> releaseWindow(future), untilMillis - now, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public boolean tryReject() {
+        if (!isExhausted()) {
+            return false;
+        }
+        rejectedCount.increment();
+        return true;
+    }
+
+    public LockTimeoutException newRejectException() {
+        LockTimeoutException e = exhaustedException;
+        return e == null ? new LockTimeoutException(null, null) : new LockTimeoutException(e.getCommand(), e.getCommandResult());
+    }
+
+    public void await(int timeout) throws LockTimeoutException {
+        try {
+            if (awaitAsync(timeout).get()) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {}
+        throw newRejectException();
+    }
+
+    public CompletableFuture<Boolean> awaitAsync(int timeout) {
+        long waitMillis = exhaustedUntilMillis - System.currentTimeMillis();
+        if (waitMillis <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        parkedCount.increment();
+
+        long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(LockCommand.getTimeoutNanos(timeout));
+        if (waitMillis <= timeoutMillis) {
+            cacheLock.lock();
+            try {
+                if (windowFuture != null && !windowFuture.isDone()) {
+                    return windowFuture.thenApply(v -> v);
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+            return CompletableFuture.completedFuture(true);
+        }
+
+        rejectedCount.increment();
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (timeoutMillis <= 0) {
+            future.complete(false);
+        } else {
+            SharedScheduledExecutor.get().schedule(() -> future.complete(false), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    private void releaseWindow(CompletableFuture<Boolean> future) {
+        long waitMillis = exhaustedUntilMillis - System.currentTimeMillis();
+        if (waitMillis > 0) {
+            SharedScheduledExecutor.get().schedule(() -> releaseWindow(future), waitMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        future.complete(true);
+    }
+}
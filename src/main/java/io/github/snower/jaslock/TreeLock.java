@@ -5,7 +5,8 @@ import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.LockLockedException;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
 
 public class TreeLock extends AbstractExecution {
     private final byte[] parentKey;
@@ -20,7 +21,7 @@ public class TreeLock extends AbstractExecution {
     }
 
     public TreeLock(SlockDatabase database, String parentKey, String lockKey, int timeout, int expried) {
-        this(database, parentKey.getBytes(StandardCharsets.UTF_8), lockKey.getBytes(StandardCharsets.UTF_8), timeout, expried);
+        this(database, KeyNormalizer.DefaultNormalizer.normalize(parentKey), KeyNormalizer.DefaultNormalizer.normalize(lockKey), timeout, expried);
     }
 
     public TreeLock(SlockDatabase database, byte[] lockKey, int timeout, int expried) {
@@ -28,7 +29,7 @@ public class TreeLock extends AbstractExecution {
     }
 
     public TreeLock(SlockDatabase database, String lockKey, int timeout, int expried) {
-        this(database, null, lockKey.getBytes(StandardCharsets.UTF_8), timeout, expried);
+        this(database, null, KeyNormalizer.DefaultNormalizer.normalize(lockKey), timeout, expried);
     }
 
     public TreeLeafLock newLeafLock() {
@@ -63,6 +64,27 @@ public class TreeLock extends AbstractExecution {
         leafLock = null;
     }
 
+    public CompletableFuture<Boolean> acquireAsync() {
+        Lock checkLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, 0, (short) 0, (byte) 0);
+        return checkLock.acquireAsync().thenCompose(result -> {
+            if (leafLock != null) return CompletableFuture.completedFuture(true);
+            TreeLeafLock leafLock = newLeafLock();
+            return leafLock.acquireAsync().thenApply(r -> {
+                this.leafLock = leafLock;
+                return true;
+            });
+        });
+    }
+
+    public CompletableFuture<Boolean> releaseAsync() {
+        TreeLeafLock leafLock = this.leafLock;
+        if (leafLock == null) return CompletableFuture.completedFuture(true);
+        return leafLock.releaseAsync().thenApply(result -> {
+            this.leafLock = null;
+            return true;
+        });
+    }
+
     public void wait(int timeout) throws SlockException {
         Lock checkLock = new Lock(database, lockKey, LockCommand.genLockId(), timeout, 0, (short) 0, (byte) 0);
         checkLock.acquire();
@@ -134,6 +156,45 @@ public class TreeLock extends AbstractExecution {
             lock.release(ICommand.UNLOCK_FLAG_UNLOCK_TREE_LOCK);
         }
 
+        public CompletableFuture<Boolean> acquireAsync() {
+            if (treeLock.isRoot()) {
+                return lock.acquireAsync();
+            }
+
+            Lock childCheckLock = new Lock(database, treeLock.getLockKey(), treeLock.getParentKey(), 0, expried, (short) 0xffff, (byte) 0);
+            Lock parentCheckLock = new Lock(database, treeLock.getParentKey(), treeLock.getLockKey(), 0, expried, (short) 0xffff, (byte) 0);
+            return childCheckLock.acquireAsync(ICommand.LOCK_FLAG_LOCK_TREE_LOCK, null).<CompletableFuture<Boolean>>handle((childResult, e) -> {
+                if (e != null) {
+                    if (unwrapAsyncException(e) instanceof LockLockedException) {
+                        return lock.acquireAsync();
+                    }
+                    throw wrapAsyncException(e);
+                }
+                return parentCheckLock.acquireAsync().<CompletableFuture<Boolean>>handle((parentResult, e2) -> {
+                    if (e2 != null && !(unwrapAsyncException(e2) instanceof LockLockedException)) {
+                        return childCheckLock.releaseAsync().<Boolean>handle((r, ignored) -> {
+                            throw wrapAsyncException(e2);
+                        });
+                    }
+                    boolean parentLocked = e2 == null;
+                    return lock.acquireAsync().<CompletableFuture<Boolean>>handle((result, e3) -> {
+                        if (e3 == null) return CompletableFuture.completedFuture(true);
+                        CompletableFuture<Boolean> releaseFuture = childCheckLock.releaseAsync().handle((r, ignored) -> true);
+                        if (parentLocked) {
+                            releaseFuture = releaseFuture.thenCompose(r -> parentCheckLock.releaseAsync().handle((r2, ignored) -> true));
+                        }
+                        return releaseFuture.<Boolean>thenApply(r -> {
+                            throw wrapAsyncException(e3);
+                        });
+                    }).thenCompose(f -> f);
+                }).thenCompose(f -> f);
+            }).thenCompose(f -> f);
+        }
+
+        public CompletableFuture<Boolean> releaseAsync() {
+            return lock.releaseAsync(ICommand.UNLOCK_FLAG_UNLOCK_TREE_LOCK, null).thenApply(result -> true);
+        }
+
         public byte[] getLockKey() {
             return lock.getLockKey();
         }
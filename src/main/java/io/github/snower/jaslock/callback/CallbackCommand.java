@@ -2,25 +2,28 @@ package io.github.snower.jaslock.callback;
 
 import io.github.snower.jaslock.commands.Command;
 
-import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
-public class CallbackCommand {
+public class CallbackCommand extends TimingWheel.Timeout {
     private Command command;
     private Consumer<CallbackCommandResult> callback;
     private Consumer<CallbackCommandResult> timeoutCallback;
-    private List<CallbackCommand> timeoutQueues;
-    private long timeoutAt;
+    private Executor executor;
     private boolean finished;
 
-    public CallbackCommand(Command command, Consumer<CallbackCommandResult> callback, Consumer<CallbackCommandResult> timeoutCallback) {
+    public CallbackCommand(Command command, Consumer<CallbackCommandResult> callback, Consumer<CallbackCommandResult> timeoutCallback, Executor executor) {
         this.command = command;
         this.callback = callback;
         this.timeoutCallback = timeoutCallback;
-        this.timeoutAt = 0;
+        this.executor = executor;
         this.finished = false;
     }
 
+    public CallbackCommand(Command command, Consumer<CallbackCommandResult> callback, Consumer<CallbackCommandResult> timeoutCallback) {
+        this(command, callback, timeoutCallback, null);
+    }
+
     public Command getCommand() {
         return command;
     }
@@ -33,17 +36,8 @@ public class CallbackCommand {
         return timeoutCallback;
     }
 
-    public long getTimeoutAt() {
-        return timeoutAt;
-    }
-
-    public void setTimeoutAt(long timeoutAt) {
-        this.timeoutAt = timeoutAt;
-    }
-
-    public void addTimeoutQueues(List<CallbackCommand> timeoutQueues) {
-        this.timeoutQueues = timeoutQueues;
-        this.timeoutQueues.add(this);
+    public Executor getExecutor() {
+        return executor;
     }
 
     public boolean isFinished() {
@@ -51,13 +45,11 @@ public class CallbackCommand {
     }
 
     public void close() {
-        if (this.timeoutQueues != null) {
-            this.timeoutQueues.remove(this);
-        }
+        cancel();
         this.finished = true;
         this.command = null;
         this.callback = null;
         this.timeoutCallback = null;
-        this.timeoutQueues = null;
+        this.executor = null;
     }
 }
@@ -0,0 +1,87 @@
+package io.github.snower.jaslock.callback;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CallbackDispatchStats {
+    private final LongAdder executorCount;
+    private final LongAdder inlineCount;
+    private final LongAdder inlineNanos;
+    private final LongAdder rejectedCount;
+    private final AtomicLong maxInlineNanos;
+
+    public CallbackDispatchStats() {
+        this.executorCount = new LongAdder();
+        this.inlineCount = new LongAdder();
+        this.inlineNanos = new LongAdder();
+        this.rejectedCount = new LongAdder();
+        this.maxInlineNanos = new AtomicLong(0);
+    }
+
+    public void recordExecutor() {
+        executorCount.increment();
+    }
+
+    public void recordInline(long nanos) {
+        inlineCount.increment();
+        inlineNanos.add(nanos);
+        long maxNanos = maxInlineNanos.get();
+        while (nanos > maxNanos) {
+            if (maxInlineNanos.compareAndSet(maxNanos, nanos)) {
+                break;
+            }
+            maxNanos = maxInlineNanos.get();
+        }
+    }
+
+    public void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    public long getExecutorCount() {
+        return executorCount.sum();
+    }
+
+    public long getInlineCount() {
+        return inlineCount.sum();
+    }
+
+    public long getInlineNanos() {
+        return inlineNanos.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getMaxInlineNanos() {
+        return maxInlineNanos.get();
+    }
+
+    public double getAverageInlineNanos() {
+        long count = inlineCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) inlineNanos.sum() / count;
+    }
+
+    public void reset() {
+        executorCount.reset();
+        inlineCount.reset();
+        inlineNanos.reset();
+        rejectedCount.reset();
+        maxInlineNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "CallbackDispatchStats{" +
+                "executorCount=" + getExecutorCount() +
+                ", inlineCount=" + getInlineCount() +
+                ", rejectedCount=" + getRejectedCount() +
+                ", averageInlineNanos=" + getAverageInlineNanos() +
+                ", maxInlineNanos=" + getMaxInlineNanos() +
+                '}';
+    }
+}
@@ -1,35 +1,41 @@
 package io.github.snower.jaslock.callback;
 
 import io.github.snower.jaslock.commands.Command;
+import io.github.snower.jaslock.commands.LockCommand;
 import io.github.snower.jaslock.exceptions.*;
 
-import java.util.Collections;
-import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class CallbackExecutorManager {
+    public final static Executor DirectExecutor = Runnable::run;
+    public final static long MILLISECOND_TICK_MILLIS = 5L;
+
     protected final ExecutorOption executorOption;
+    protected final CallbackDispatchStats dispatchStats;
     protected ExecutorService callbackExecutor;
+    protected StripedExecutor stripedExecutor;
     protected ScheduledExecutorService timeoutScheduledExecutor;
-    protected ConcurrentHashMap<Long, List<CallbackCommand>> timeoutQueues;
-    protected long currentTimeoutAt;
+    protected TimingWheel timingWheel;
+    protected ScheduledFuture<?> timingWheelFuture;
+    protected TimingWheel millisecondTimingWheel;
+    protected ScheduledFuture<?> millisecondTimingWheelFuture;
+    protected final java.util.concurrent.locks.ReentrantLock millisecondTimingWheelLock = new java.util.concurrent.locks.ReentrantLock();
+    protected volatile long millisecondTimeoutGrace = MILLISECOND_TICK_MILLIS * 2;
     protected boolean isExternCallbackExecutor;
     protected boolean isExternTimeoutExecutor;
     protected boolean isRuning;
 
     public CallbackExecutorManager(ExecutorOption executorOption) {
         this.executorOption = executorOption;
-        this.currentTimeoutAt = System.currentTimeMillis() / 1000;
+        this.dispatchStats = new CallbackDispatchStats();
         this.isRuning = false;
     }
 
     public CallbackExecutorManager(ExecutorService callbackExecutor) {
         this.executorOption = ExecutorOption.DefaultOption;
-        this.currentTimeoutAt = System.currentTimeMillis() / 1000;
+        this.dispatchStats = new CallbackDispatchStats();
         this.isRuning = false;
         this.callbackExecutor = callbackExecutor;
         this.isExternCallbackExecutor = true;
@@ -37,7 +43,7 @@ public class CallbackExecutorManager {
 
     public CallbackExecutorManager(ScheduledExecutorService timeoutScheduledExecutor) {
         this.executorOption = ExecutorOption.DefaultOption;
-        this.currentTimeoutAt = System.currentTimeMillis() / 1000;
+        this.dispatchStats = new CallbackDispatchStats();
         this.isRuning = false;
         this.timeoutScheduledExecutor = timeoutScheduledExecutor;
         this.isExternTimeoutExecutor = true;
@@ -45,7 +51,7 @@ public class CallbackExecutorManager {
 
     public CallbackExecutorManager(ExecutorService callbackExecutor, ScheduledExecutorService timeoutScheduledExecutor) {
         this.executorOption = ExecutorOption.DefaultOption;
-        this.currentTimeoutAt = System.currentTimeMillis() / 1000;
+        this.dispatchStats = new CallbackDispatchStats();
         this.isRuning = false;
         this.callbackExecutor = callbackExecutor;
         this.isExternCallbackExecutor = true;
@@ -56,44 +62,102 @@ public class CallbackExecutorManager {
     public void start() {
         if (isRuning) return;
 
-        if (callbackExecutor == null) {
+        if (callbackExecutor == null && executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_VIRTUAL
+                && VirtualThreads.isSupported()) {
+            callbackExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            isExternCallbackExecutor = false;
+        } else if (callbackExecutor == null) {
             callbackExecutor = new ThreadPoolExecutor(executorOption.getWorkerCount(), executorOption.getMaxWorkerCount(), executorOption.getWorkerKeepAliveTime(),
                     executorOption.getWorkerKeepAliveTimeUnit(), executorOption.getMaxCapacity() <= 0 ? new SynchronousQueue<>() : new LinkedBlockingQueue<>(executorOption.getMaxCapacity()),
-                    new CallbackExecutorThreadFactory("jaslock-callback-"), (r, executor) -> r.run());
+                    new CallbackExecutorThreadFactory("jaslock-callback-"), (r, executor) -> {
+                        dispatchStats.recordRejected();
+                        long startNanos = System.nanoTime();
+                        r.run();
+                        dispatchStats.recordInline(System.nanoTime() - startNanos);
+                    });
             isExternCallbackExecutor = false;
         }
+        if (executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_STRIPED) {
+            stripedExecutor = new StripedExecutor(callbackExecutor, executorOption.getStripedLaneCount());
+        }
         if (timeoutScheduledExecutor == null) {
             timeoutScheduledExecutor = Executors.newSingleThreadScheduledExecutor(new CallbackExecutorThreadFactory("jaslock-schedule-" ));
             isExternTimeoutExecutor = false;
         }
-        timeoutQueues = new ConcurrentHashMap<>();
-
-        timeoutScheduledExecutor.scheduleAtFixedRate(() -> {
-            long now = System.currentTimeMillis() / 1000;
-            while (currentTimeoutAt <  now) {
-                List<CallbackCommand> timeoutAtQueues = timeoutQueues.remove(currentTimeoutAt);
-                if (timeoutAtQueues != null) {
-                    for (CallbackCommand callbackCommand : timeoutAtQueues) {
-                        synchronized (callbackCommand) {
-                            if (callbackCommand.isFinished()) return;
-                            callbackCommand.close();
-                        }
+        TimingWheel timingWheel = new TimingWheel(executorOption.getTimeoutTickDuration(), executorOption.getTimeoutTickTimeUnit());
+        this.timingWheel = timingWheel;
+
+        timingWheelFuture = timeoutScheduledExecutor.scheduleAtFixedRate(() -> timingWheel.advance(this::fireTimeout),
+                timingWheel.getTickNanos(), timingWheel.getTickNanos(), TimeUnit.NANOSECONDS);
+        isRuning = true;
+    }
 
-                        callbackExecutor.submit(() -> {
-                            callbackCommand.getTimeoutCallback().accept(new CallbackCommandResult(callbackCommand.getCommand(),
-                                    null, new ClientCommandTimeoutException("The client waits for command execution to return a timeout")));
-                        });
+    private void fireTimeout(TimingWheel.Timeout timeout) {
+        CallbackCommand callbackCommand = (CallbackCommand) timeout;
+        Command command;
+        Consumer<CallbackCommandResult> timeoutCallback;
+        Executor executor;
+        synchronized (callbackCommand) {
+            if (callbackCommand.isFinished()) return;
+            command = callbackCommand.getCommand();
+            timeoutCallback = callbackCommand.getTimeoutCallback();
+            executor = callbackCommand.getExecutor();
+            callbackCommand.close();
+        }
+
+        dispatch(executor, () -> {
+            timeoutCallback.accept(new CallbackCommandResult(command,
+                    null, new ClientCommandTimeoutException("The client waits for command execution to return a timeout")));
+        });
+    }
+
+    private void addMillisecondTimeout(CallbackCommand callbackCommand, long delayMillis) {
+        millisecondTimingWheelLock.lock();
+        try {
+            if (millisecondTimingWheel == null) {
+                millisecondTimingWheel = new TimingWheel(MILLISECOND_TICK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            TimingWheel timingWheel = millisecondTimingWheel;
+            timingWheel.add(callbackCommand, delayMillis, TimeUnit.MILLISECONDS);
+            if (millisecondTimingWheelFuture == null) {
+                millisecondTimingWheelFuture = timeoutScheduledExecutor.scheduleAtFixedRate(() -> {
+                    timingWheel.advance(this::fireTimeout);
+                    millisecondTimingWheelLock.lock();
+                    try {
+                        if (timingWheel.size() == 0 && millisecondTimingWheelFuture != null) {
+                            millisecondTimingWheelFuture.cancel(false);
+                            millisecondTimingWheelFuture = null;
+                        }
+                    } finally {
+                        millisecondTimingWheelLock.unlock();
                     }
-                }
-                currentTimeoutAt++;
+                }, timingWheel.getTickNanos(), timingWheel.getTickNanos(), TimeUnit.NANOSECONDS);
             }
-        }, 0, 1, TimeUnit.SECONDS);
-        isRuning = true;
+        } finally {
+            millisecondTimingWheelLock.unlock();
+        }
     }
 
     public void stop() {
         if (!isRuning) return;
 
+        if (timingWheelFuture != null) {
+            timingWheelFuture.cancel(false);
+            timingWheelFuture = null;
+        }
+        millisecondTimingWheelLock.lock();
+        try {
+            if (millisecondTimingWheelFuture != null) {
+                millisecondTimingWheelFuture.cancel(false);
+                millisecondTimingWheelFuture = null;
+            }
+            if (millisecondTimingWheel != null) {
+                millisecondTimingWheel.clear();
+                millisecondTimingWheel = null;
+            }
+        } finally {
+            millisecondTimingWheelLock.unlock();
+        }
         if (!isExternCallbackExecutor && timeoutScheduledExecutor != null) {
             timeoutScheduledExecutor.shutdown();
             try {
@@ -108,23 +172,92 @@ public class CallbackExecutorManager {
             } catch (InterruptedException ignored) {}
         }
         callbackExecutor = null;
-        timeoutQueues = new ConcurrentHashMap<>();
+        stripedExecutor = null;
+        if (timingWheel != null) {
+            timingWheel.clear();
+        }
         isRuning = false;
     }
 
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public boolean isMillisecondTimingWheelRuning() {
+        millisecondTimingWheelLock.lock();
+        try {
+            return millisecondTimingWheelFuture != null;
+        } finally {
+            millisecondTimingWheelLock.unlock();
+        }
+    }
+
+    public long getMillisecondTimeoutGrace() {
+        return millisecondTimeoutGrace;
+    }
+
+    public void setMillisecondTimeoutGrace(long millisecondTimeoutGrace) {
+        this.millisecondTimeoutGrace = Math.max(millisecondTimeoutGrace, 0);
+    }
+
+    public CallbackDispatchStats getDispatchStats() {
+        return dispatchStats;
+    }
+
+    public ExecutorOption getExecutorOption() {
+        return executorOption;
+    }
+
+    public StripedExecutor getStripedExecutor() {
+        return stripedExecutor;
+    }
+
+    protected void dispatch(Executor executor, Runnable runnable) {
+        ExecutorService callbackExecutor = this.callbackExecutor;
+        if (executor == DirectExecutor || (executor == null && callbackExecutor == null)) {
+            long startNanos = System.nanoTime();
+            try {
+                runnable.run();
+            } finally {
+                dispatchStats.recordInline(System.nanoTime() - startNanos);
+            }
+            return;
+        }
+
+        dispatchStats.recordExecutor();
+        if (executor == null) {
+            callbackExecutor.submit(runnable);
+            return;
+        }
+        executor.execute(runnable);
+    }
+
     public CallbackCommand addCommand(Command command, Consumer<CallbackCommandResult> callback, Consumer<CallbackCommandResult> timeoutCallback) throws SlockException {
+        return addCommand(command, callback, timeoutCallback, null);
+    }
+
+    public CallbackCommand addCommand(Command command, Consumer<CallbackCommandResult> callback, Consumer<CallbackCommandResult> timeoutCallback, Executor executor) throws SlockException {
         if (!isRuning) {
             throw new ClientAsyncCallbackStopedException("Async thread pool stopped");
         }
 
-        CallbackCommand callbackCommand = new CallbackCommand(command, callback, timeoutCallback);
+        if (executor == null) {
+            if (executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_INLINE) {
+                executor = DirectExecutor;
+            } else if (stripedExecutor != null) {
+                executor = command instanceof LockCommand ? stripedExecutor.getLane(((LockCommand) command).getLockKey())
+                        : stripedExecutor.getLane((int) command.getRequestIdLow());
+            }
+        }
+        Executor dispatchExecutor = executor;
+        CallbackCommand callbackCommand = new CallbackCommand(command, callback, timeoutCallback, executor);
         int timeout = command.setWaiterCallback(commandResult -> {
             synchronized (callbackCommand) {
                 if (callbackCommand.isFinished()) return;
                 callbackCommand.close();
             }
 
-            callbackExecutor.submit(() -> {
+            dispatch(dispatchExecutor, () -> {
                 if (commandResult == null) {
                     callback.accept(new CallbackCommandResult(command, null, command.exception != null ?
                             (command.exception instanceof SlockException ? (SlockException) command.exception : new SlockException(command.exception.toString()))
@@ -138,14 +271,12 @@ public class CallbackExecutorManager {
             throw new ClientAsyncCallbackWaitedException("Timed out");
         }
 
-        callbackCommand.setTimeoutAt(Math.max(System.currentTimeMillis() / 1000 + timeout, currentTimeoutAt + 1));
-        List<CallbackCommand> timeoutAtQueues = timeoutQueues.get(callbackCommand.getTimeoutAt());
-        if (timeoutAtQueues == null) {
-            synchronized (this) {
-                timeoutAtQueues = timeoutQueues.computeIfAbsent(callbackCommand.getTimeoutAt(), k -> Collections.synchronizedList(new LinkedList<>()));
-            }
+        long deadlineMillis = command.getDeadlineMillis(millisecondTimeoutGrace);
+        if (command.hasMillisecondDeadline()) {
+            addMillisecondTimeout(callbackCommand, deadlineMillis);
+        } else {
+            timingWheel.add(callbackCommand, deadlineMillis, TimeUnit.MILLISECONDS);
         }
-        callbackCommand.addTimeoutQueues(timeoutAtQueues);
         return callbackCommand;
     }
 
@@ -1,74 +1,82 @@
 package io.github.snower.jaslock.callback;
 
+import io.github.snower.jaslock.exceptions.ClientCommandCanceledException;
 import io.github.snower.jaslock.exceptions.SlockException;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class CallbackFuture<V> implements Future<V> {
+    private static final AtomicIntegerFieldUpdater<CallbackFuture> stateUpdater = AtomicIntegerFieldUpdater.newUpdater(CallbackFuture.class, "state");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CallbackFuture, Node> waitersUpdater = AtomicReferenceFieldUpdater.newUpdater(CallbackFuture.class, Node.class, "waiters");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CallbackFuture, Node> doneRunnablesUpdater = AtomicReferenceFieldUpdater.newUpdater(CallbackFuture.class, Node.class, "doneRunnables");
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_COMPLETING = 1;
+    private static final int STATE_DONE = 2;
+    private static final int STATE_CANCELLED = 3;
+    private static final Node COMPLETED = new Node(null, null);
+
     private final Consumer<CallbackFuture<V>> callback;
-    private volatile List<Runnable> doneRunnables;
-    private volatile Semaphore waiter;
+    private volatile int state;
+    private volatile Node waiters;
+    private volatile Node doneRunnables;
+    private volatile Runnable cancelCallback;
     private V result;
     private SlockException exception;
-    private boolean isSetedResult;
 
     public CallbackFuture(Consumer<CallbackFuture<V>> callback) {
         this.callback = callback;
-        this.isSetedResult = false;
+        this.state = STATE_PENDING;
     }
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        return false;
+        if (!stateUpdater.compareAndSet(this, STATE_PENDING, STATE_COMPLETING)) {
+            return false;
+        }
+
+        this.exception = new ClientCommandCanceledException("command has been canceled");
+        this.state = STATE_CANCELLED;
+        Runnable cancelCallback = this.cancelCallback;
+        if (cancelCallback != null) {
+            try {
+                cancelCallback.run();
+            } catch (Exception ignored) {}
+        }
+        finish();
+        return true;
     }
 
     @Override
     public boolean isCancelled() {
-        return false;
+        return state == STATE_CANCELLED;
     }
 
     @Override
     public boolean isDone() {
-        return isSetedResult;
+        return state >= STATE_DONE;
     }
 
     @Override
     public V get() throws InterruptedException, ExecutionException {
-        if (isSetedResult) {
-            if (exception != null) {
-                throw new ExecutionException(exception);
-            }
-            return result;
-        }
-
-        createWaiter();
-        waiter.acquire(1);
-        if (exception != null) {
-            throw new ExecutionException(exception);
+        if (state < STATE_DONE) {
+            awaitDone(false, 0);
         }
-        return result;
+        return report();
     }
 
     @Override
     public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        if (isSetedResult) {
-            if (exception != null) {
-                throw new ExecutionException(exception);
-            }
-            return result;
-        }
-
-        createWaiter();
-        if (!waiter.tryAcquire(1, timeout, unit)) {
+        if (state < STATE_DONE && !awaitDone(true, unit.toNanos(timeout))) {
             throw new TimeoutException();
         }
-        if (exception != null) {
-            throw new ExecutionException(exception);
-        }
-        return result;
+        return report();
     }
 
     public SlockException getException() {
@@ -83,18 +91,107 @@ public class CallbackFuture<V> implements Future<V> {
     }
 
     public boolean setResult(V result, SlockException exception) {
-        if (this.isSetedResult) return false;
+        if (!stateUpdater.compareAndSet(this, STATE_PENDING, STATE_COMPLETING)) {
+            return false;
+        }
 
         this.result = result;
         this.exception = exception;
-        this.isSetedResult = true;
+        this.state = STATE_DONE;
+        finish();
+        return true;
+    }
+
+    public boolean setResult(V result) {
+        return setResult(result, null);
+    }
+
+    public void setCancelCallback(Runnable cancelCallback) {
+        this.cancelCallback = cancelCallback;
+    }
+
+    public void addDoneRunnable(Runnable runnable) {
+        Node node = new Node(runnable, null);
+        while (true) {
+            Node head = doneRunnables;
+            if (head == COMPLETED) {
+                runDoneRunnable(runnable);
+                return;
+            }
+            node.next = head;
+            if (doneRunnablesUpdater.compareAndSet(this, head, node)) {
+                return;
+            }
+        }
+    }
 
-        if (waiter != null) {
-            synchronized (this) {
-                if (waiter != null) {
-                    waiter.release();
+    public <U> CallbackFuture<U> thenApply(Function<? super V, ? extends U> function) {
+        CallbackFuture<U> callbackFuture = new CallbackFuture<>(null);
+        callbackFuture.setCancelCallback(() -> cancel(false));
+        addDoneRunnable(() -> {
+            if (exception != null) {
+                callbackFuture.setResult(null, exception);
+                return;
+            }
+            try {
+                callbackFuture.setResult(function.apply(result));
+            } catch (Exception e) {
+                callbackFuture.setResult(null, e instanceof SlockException ? (SlockException) e : new SlockException(e.toString()));
+            }
+        });
+        return callbackFuture;
+    }
+
+    private V report() throws ExecutionException {
+        if (state == STATE_CANCELLED) {
+            throw new CancellationException();
+        }
+        if (exception != null) {
+            throw new ExecutionException(exception);
+        }
+        return result;
+    }
+
+    private boolean awaitDone(boolean timed, long nanos) throws InterruptedException {
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        Node node = new Node(null, Thread.currentThread());
+        while (true) {
+            Node head = waiters;
+            if (head == COMPLETED) break;
+            node.next = head;
+            if (waitersUpdater.compareAndSet(this, head, node)) break;
+        }
+
+        while (state < STATE_DONE) {
+            if (Thread.interrupted()) {
+                node.thread = null;
+                throw new InterruptedException();
+            }
+            if (timed) {
+                nanos = deadline - System.nanoTime();
+                if (nanos <= 0L) {
+                    node.thread = null;
+                    return false;
                 }
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        node.thread = null;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish() {
+        Node node = waitersUpdater.getAndSet(this, COMPLETED);
+        while (node != null && node != COMPLETED) {
+            Thread thread = node.thread;
+            if (thread != null) {
+                node.thread = null;
+                LockSupport.unpark(thread);
             }
+            node = node.next;
         }
 
         try {
@@ -102,39 +199,35 @@ public class CallbackFuture<V> implements Future<V> {
                 callback.accept(this);
             }
         } finally {
-            if (doneRunnables != null) {
-                for (Runnable runnable : doneRunnables) {
-                    try {
-                        runnable.run();
-                    } catch (Exception ignored) {}
-                }
+            node = doneRunnablesUpdater.getAndSet(this, COMPLETED);
+            Node reversed = null;
+            while (node != null && node != COMPLETED) {
+                Node next = node.next;
+                node.next = reversed;
+                reversed = node;
+                node = next;
+            }
+            while (reversed != null) {
+                runDoneRunnable(reversed.runnable);
+                reversed = reversed.next;
             }
         }
-        return true;
     }
 
-    public boolean setResult(V result) {
-        return setResult(result, null);
+    private static void runDoneRunnable(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception ignored) {}
     }
 
-    public void addDoneRunnable(Runnable runnable) {
-        if (doneRunnables == null) {
-            synchronized (this) {
-                if (doneRunnables == null) {
-                    doneRunnables = new ArrayList<>();
-                }
-            }
-        }
-        doneRunnables.add(runnable);
-    }
+    private static final class Node {
+        private final Runnable runnable;
+        private volatile Thread thread;
+        private Node next;
 
-    private void createWaiter() throws InterruptedException {
-        synchronized (this) {
-            if (waiter != null) {
-                throw new InterruptedException();
-            }
-            waiter = new Semaphore(1);
-            waiter.acquire();
+        private Node(Runnable runnable, Thread thread) {
+            this.runnable = runnable;
+            this.thread = thread;
         }
     }
 }
@@ -3,20 +3,52 @@ package io.github.snower.jaslock.callback;
 import java.util.concurrent.TimeUnit;
 
 public class ExecutorOption {
+    public final static int DISPATCH_MODE_EXECUTOR = 0;
+    public final static int DISPATCH_MODE_INLINE = 1;
+    public final static int DISPATCH_MODE_STRIPED = 2;
+    public final static int DISPATCH_MODE_VIRTUAL = 3;
+
     public final static ExecutorOption DefaultOption = new ExecutorOption(2, 4, 65536, 120, TimeUnit.SECONDS);
+    public final static ExecutorOption InlineOption = new ExecutorOption(2, 4, 65536, 120, TimeUnit.SECONDS,
+            100, TimeUnit.MILLISECONDS, DISPATCH_MODE_INLINE);
 
     private final int workerCount;
     private final int maxWorkerCount;
     private final int maxCapacity;
     private final int workerKeepAliveTime;
     private final TimeUnit workerKeepAliveTimeUnit;
+    private final int timeoutTickDuration;
+    private final TimeUnit timeoutTickTimeUnit;
+    private final int dispatchMode;
+    private final int stripedLaneCount;
 
-    public ExecutorOption(int workerCount, int maxWorkerCount, int maxCapacity, int workerKeepAliveTime, TimeUnit workerKeepAliveTimeUnit) {
+    public ExecutorOption(int workerCount, int maxWorkerCount, int maxCapacity, int workerKeepAliveTime, TimeUnit workerKeepAliveTimeUnit,
+                          int timeoutTickDuration, TimeUnit timeoutTickTimeUnit, int dispatchMode, int stripedLaneCount) {
         this.workerCount = workerCount;
         this.maxWorkerCount = maxWorkerCount;
         this.maxCapacity = maxCapacity;
         this.workerKeepAliveTime = workerKeepAliveTime;
         this.workerKeepAliveTimeUnit = workerKeepAliveTimeUnit;
+        this.timeoutTickDuration = timeoutTickDuration;
+        this.timeoutTickTimeUnit = timeoutTickTimeUnit;
+        this.dispatchMode = dispatchMode;
+        this.stripedLaneCount = stripedLaneCount;
+    }
+
+    public ExecutorOption(int workerCount, int maxWorkerCount, int maxCapacity, int workerKeepAliveTime, TimeUnit workerKeepAliveTimeUnit,
+                          int timeoutTickDuration, TimeUnit timeoutTickTimeUnit, int dispatchMode) {
+        this(workerCount, maxWorkerCount, maxCapacity, workerKeepAliveTime, workerKeepAliveTimeUnit, timeoutTickDuration, timeoutTickTimeUnit,
+                dispatchMode, 64);
+    }
+
+    public ExecutorOption(int workerCount, int maxWorkerCount, int maxCapacity, int workerKeepAliveTime, TimeUnit workerKeepAliveTimeUnit,
+                          int timeoutTickDuration, TimeUnit timeoutTickTimeUnit) {
+        this(workerCount, maxWorkerCount, maxCapacity, workerKeepAliveTime, workerKeepAliveTimeUnit, timeoutTickDuration, timeoutTickTimeUnit,
+                DISPATCH_MODE_EXECUTOR);
+    }
+
+    public ExecutorOption(int workerCount, int maxWorkerCount, int maxCapacity, int workerKeepAliveTime, TimeUnit workerKeepAliveTimeUnit) {
+        this(workerCount, maxWorkerCount, maxCapacity, workerKeepAliveTime, workerKeepAliveTimeUnit, 100, TimeUnit.MILLISECONDS);
     }
 
     public int getWorkerCount() {
@@ -38,4 +70,29 @@ public class ExecutorOption {
     public TimeUnit getWorkerKeepAliveTimeUnit() {
         return workerKeepAliveTimeUnit;
     }
+
+    public int getTimeoutTickDuration() {
+        return timeoutTickDuration;
+    }
+
+    public TimeUnit getTimeoutTickTimeUnit() {
+        return timeoutTickTimeUnit;
+    }
+
+    public int getDispatchMode() {
+        return dispatchMode;
+    }
+
+    public int getStripedLaneCount() {
+        return stripedLaneCount;
+    }
+
+    public static ExecutorOption striped(int workerCount, int stripedLaneCount) {
+        return new ExecutorOption(workerCount, workerCount, 65536, 120, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS,
+                DISPATCH_MODE_STRIPED, stripedLaneCount);
+    }
+
+    public static ExecutorOption virtual() {
+        return new ExecutorOption(2, 4, 65536, 120, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS, DISPATCH_MODE_VIRTUAL);
+    }
 }
@@ -0,0 +1,85 @@
+package io.github.snower.jaslock.callback;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StripedExecutor {
+    private final Executor executor;
+    private final Lane[] lanes;
+    private final int laneMask;
+
+    public StripedExecutor(Executor executor, int laneCount) {
+        int size = 1;
+        while (size < laneCount && size < 65536) {
+            size <<= 1;
+        }
+        this.executor = executor;
+        this.lanes = new Lane[size];
+        this.laneMask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.lanes[i] = new Lane();
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public Executor getLane(int hash) {
+        hash ^= (hash >>> 16);
+        return lanes[hash & laneMask];
+    }
+
+    public Executor getLane(byte[] key) {
+        if (key == null) {
+            return lanes[0];
+        }
+        int hash = 1;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return getLane(hash);
+    }
+
+    public void execute(byte[] key, Runnable runnable) {
+        getLane(key).execute(runnable);
+    }
+
+    private class Lane implements Executor, Runnable {
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+        @Override
+        public void execute(Runnable runnable) {
+            tasks.add(runnable);
+            if (pendingCount.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = pendingCount.get();
+            while (true) {
+                for (int i = 0; i < missed; i++) {
+                    Runnable runnable = tasks.poll();
+                    if (runnable == null) break;
+                    try {
+                        runnable.run();
+                    } catch (Throwable ignored) {}
+                }
+
+                missed = pendingCount.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
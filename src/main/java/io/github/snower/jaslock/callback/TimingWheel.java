@@ -0,0 +1,227 @@
+package io.github.snower.jaslock.callback;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+
+public class TimingWheel {
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final int levels;
+    private final Timeout[] buckets;
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts;
+    private final ConcurrentLinkedQueue<Timeout> cancelledTimeouts;
+    private final AtomicInteger size;
+    private final long startTime;
+    private long currentTick;
+
+    public TimingWheel(long tickDuration, TimeUnit tickTimeUnit, int wheelSize, int levels) {
+        int wheelBits = 1;
+        while ((1 << wheelBits) < wheelSize && wheelBits < 16) {
+            wheelBits++;
+        }
+        this.tickNanos = Math.max(tickTimeUnit.toNanos(tickDuration), 1000000L);
+        this.wheelBits = wheelBits;
+        this.wheelMask = (1 << wheelBits) - 1;
+        this.levels = Math.max(1, Math.min(levels, 63 / wheelBits));
+        this.buckets = new Timeout[this.levels << wheelBits];
+        this.pendingTimeouts = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger(0);
+        this.startTime = System.nanoTime();
+        this.currentTick = 0;
+    }
+
+    public TimingWheel(long tickDuration, TimeUnit tickTimeUnit) {
+        this(tickDuration, tickTimeUnit, 256, 4);
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int getWheelSize() {
+        return wheelMask + 1;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public void add(Timeout timeout, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startTime + unit.toNanos(delay);
+        timeout.timingWheel = this;
+        timeout.deadlineTick = (deadline + tickNanos - 1) / tickNanos;
+        timeout.state = Timeout.STATE_WAITING;
+        size.incrementAndGet();
+        pendingTimeouts.add(timeout);
+    }
+
+    public void advance(Consumer<Timeout> expiredCallback) {
+        long targetTick = (System.nanoTime() - startTime) / tickNanos;
+        processCancelledTimeouts();
+        transferPendingTimeouts();
+
+        while (currentTick <= targetTick) {
+            for (int level = levels - 1; level > 0; level--) {
+                int shift = wheelBits * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    Timeout timeout = detachBucket(level, (int) (currentTick >>> shift) & wheelMask);
+                    while (timeout != null) {
+                        Timeout next = timeout.next;
+                        timeout.next = null;
+                        if (timeout.state == Timeout.STATE_WAITING) {
+                            schedule(timeout);
+                        }
+                        timeout = next;
+                    }
+                }
+            }
+
+            Timeout timeout = detachBucket(0, (int) currentTick & wheelMask);
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = null;
+                if (timeout.state == Timeout.STATE_WAITING) {
+                    if (timeout.deadlineTick > currentTick) {
+                        schedule(timeout);
+                    } else if (Timeout.stateUpdater.compareAndSet(timeout, Timeout.STATE_WAITING, Timeout.STATE_EXPIRED)) {
+                        size.decrementAndGet();
+                        try {
+                            expiredCallback.accept(timeout);
+                        } catch (Throwable ignored) {}
+                    }
+                }
+                timeout = next;
+            }
+            currentTick++;
+        }
+    }
+
+    public void clear() {
+        pendingTimeouts.clear();
+        cancelledTimeouts.clear();
+        for (int i = 0; i < buckets.length; i++) {
+            Timeout timeout = buckets[i];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.bucketIndex = -1;
+                timeout = next;
+            }
+            buckets[i] = null;
+        }
+        size.set(0);
+    }
+
+    private void cancel(Timeout timeout) {
+        size.decrementAndGet();
+        cancelledTimeouts.add(timeout);
+    }
+
+    private void processCancelledTimeouts() {
+        while (true) {
+            Timeout timeout = cancelledTimeouts.poll();
+            if (timeout == null) return;
+            if (timeout.bucketIndex < 0) continue;
+
+            if (timeout.prev == null) {
+                buckets[timeout.bucketIndex] = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucketIndex = -1;
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        while (true) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) return;
+            if (timeout.state == Timeout.STATE_WAITING) {
+                schedule(timeout);
+            }
+        }
+    }
+
+    private void schedule(Timeout timeout) {
+        long deadlineTick = Math.max(timeout.deadlineTick, currentTick);
+        long delta = deadlineTick - currentTick;
+        int bucketIndex = -1;
+        for (int level = 0; level < levels; level++) {
+            int shift = wheelBits * level;
+            if (delta < (1L << (shift + wheelBits))) {
+                bucketIndex = (level << wheelBits) | ((int) (deadlineTick >>> shift) & wheelMask);
+                break;
+            }
+        }
+        if (bucketIndex < 0) {
+            int shift = wheelBits * (levels - 1);
+            bucketIndex = ((levels - 1) << wheelBits) | ((int) ((currentTick >>> shift) - 1) & wheelMask);
+        }
+
+        Timeout head = buckets[bucketIndex];
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[bucketIndex] = timeout;
+        timeout.bucketIndex = bucketIndex;
+    }
+
+    private Timeout detachBucket(int level, int index) {
+        int bucketIndex = (level << wheelBits) | index;
+        Timeout timeout = buckets[bucketIndex];
+        buckets[bucketIndex] = null;
+        for (Timeout t = timeout; t != null; t = t.next) {
+            t.prev = null;
+            t.bucketIndex = -1;
+        }
+        return timeout;
+    }
+
+    public static class Timeout {
+        private static final AtomicIntegerFieldUpdater<Timeout> stateUpdater = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        private static final int STATE_INIT = 0;
+        private static final int STATE_WAITING = 1;
+        private static final int STATE_CANCELLED = 2;
+        private static final int STATE_EXPIRED = 3;
+
+        private volatile int state = STATE_INIT;
+        private TimingWheel timingWheel;
+        private long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+        private int bucketIndex = -1;
+
+        public boolean isExpired() {
+            return state == STATE_EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state == STATE_CANCELLED;
+        }
+
+        public boolean cancel() {
+            if (!stateUpdater.compareAndSet(this, STATE_WAITING, STATE_CANCELLED)) {
+                return false;
+            }
+            timingWheel.cancel(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.snower.jaslock.callback;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+public final class VirtualThreads {
+    private static final Method newVirtualThreadPerTaskExecutorMethod;
+    private static final Method ofVirtualMethod;
+    private static final Method builderNameMethod;
+    private static final Method builderFactoryMethod;
+
+    static {
+        Method newVirtualThreadPerTaskExecutor = null, ofVirtual = null, builderName = null, builderFactory = null;
+        try {
+            newVirtualThreadPerTaskExecutor = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            newVirtualThreadPerTaskExecutor = null;
+            ofVirtual = null;
+            builderName = null;
+            builderFactory = null;
+        }
+        newVirtualThreadPerTaskExecutorMethod = newVirtualThreadPerTaskExecutor;
+        ofVirtualMethod = ofVirtual;
+        builderNameMethod = builderName;
+        builderFactoryMethod = builderFactory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return newVirtualThreadPerTaskExecutorMethod != null && ofVirtualMethod != null;
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            return (ExecutorService) newVirtualThreadPerTaskExecutorMethod.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available", e);
+        }
+    }
+
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            Object builder = builderNameMethod.invoke(ofVirtualMethod.invoke(null), namePrefix, 0L);
+            return (ThreadFactory) builderFactoryMethod.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available", e);
+        }
+    }
+}
@@ -3,22 +3,29 @@ package io.github.snower.jaslock.commands;
 import io.github.snower.jaslock.exceptions.SlockException;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.Random;
-import java.util.concurrent.Semaphore;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 public class Command implements ICommand {
-    protected static final Random random = new Random();
-    private static final AtomicInteger requestIdIndex = new AtomicInteger(0);
+    private static volatile IdGenerator idGenerator = new DefaultIdGenerator();
+    public static final long DEFAULT_MILLISECOND_TIMEOUT_GRACE = 10L;
+    protected static final long DEFAULT_DEADLINE_MILLIS = 120000L;
+    private static final AtomicIntegerFieldUpdater<Command> waiterStateUpdater = AtomicIntegerFieldUpdater.newUpdater(Command.class, "waiterState");
+    protected static final int WAITER_STATE_WAITING = 1;
+    protected static final int WAITER_STATE_DONE = 2;
+    protected static final int WAITER_STATE_TIMEOUT = 3;
 
     protected byte magic;
     protected byte version;
     protected byte commandType;
     protected byte[] requestId;
-    protected Semaphore waiter;
+    protected volatile Thread waiter;
+    protected volatile int waiterState;
+    protected WaitStrategy waitStrategy;
     protected Consumer<CommandResult> waiterCallback;
     protected int retryType = 0;
     public CommandResult commandResult;
@@ -55,6 +62,18 @@ public class Command implements ICommand {
         return requestId;
     }
 
+    public long getRequestIdHigh() {
+        return ((requestId[0] & 0xffL) << 56) | ((requestId[1] & 0xffL) << 48) | ((requestId[2] & 0xffL) << 40)
+                | ((requestId[3] & 0xffL) << 32) | ((requestId[4] & 0xffL) << 24) | ((requestId[5] & 0xffL) << 16)
+                | ((requestId[6] & 0xffL) << 8) | (requestId[7] & 0xffL);
+    }
+
+    public long getRequestIdLow() {
+        return ((requestId[8] & 0xffL) << 56) | ((requestId[9] & 0xffL) << 48) | ((requestId[10] & 0xffL) << 40)
+                | ((requestId[11] & 0xffL) << 32) | ((requestId[12] & 0xffL) << 24) | ((requestId[13] & 0xffL) << 16)
+                | ((requestId[14] & 0xffL) << 8) | (requestId[15] & 0xffL);
+    }
+
     @Override
     public ICommand parseCommand(byte[] buf) {
         ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buf);
@@ -68,13 +87,27 @@ public class Command implements ICommand {
 
     @Override
     public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(new byte[45], 0, 45);
-        return byteArrayOutputStream.toByteArray();
+        byte[] buf = new byte[64];
+        dumpCommand(buf, 0);
+        return buf;
+    }
+
+    public int dumpCommand(byte[] buf, int offset) {
+        buf[offset] = MAGIC;
+        buf[offset + 1] = VERSION;
+        buf[offset + 2] = commandType;
+        System.arraycopy(requestId, 0, buf, offset + 3, 16);
+        Arrays.fill(buf, offset + 19, offset + 64, (byte) 0);
+        return 64;
+    }
+
+    public int dumpCommand(ByteBuffer buffer) {
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(commandType);
+        buffer.put(requestId, 0, 16);
+        LittleEndianWriter.writeZero(buffer, 45);
+        return 64;
     }
 
     @Override
@@ -87,38 +120,40 @@ public class Command implements ICommand {
     }
 
     public static byte[] genRequestId() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(16);
-        long timestamp = System.currentTimeMillis();
-        long randNumber = random.nextLong();
-        long ri = ((long) requestIdIndex.addAndGet(1)) & 0x7fffffffL;
-        byteArrayOutputStream.write((byte) (timestamp >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) timestamp & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) randNumber & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) ri & 0xff);
-        return byteArrayOutputStream.toByteArray();
+        byte[] id = new byte[16];
+        idGenerator.generate(id, 0);
+        return id;
+    }
+
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public static void setIdGenerator(IdGenerator idGenerator) {
+        Command.idGenerator = idGenerator == null ? new DefaultIdGenerator() : idGenerator;
+    }
+
+    public long getDeadlineMillis() {
+        return getDeadlineMillis(DEFAULT_MILLISECOND_TIMEOUT_GRACE);
+    }
+
+    public long getDeadlineMillis(long millisecondTimeoutGrace) {
+        return DEFAULT_DEADLINE_MILLIS;
+    }
+
+    public boolean hasMillisecondDeadline() {
+        return false;
     }
 
     public boolean createWaiter() {
+        return createWaiter(WaitStrategy.DefaultOption);
+    }
+
+    public boolean createWaiter(WaitStrategy waitStrategy) {
         if (waiterCallback != null) return false;
-        waiter = new Semaphore(1);
-        try {
-            waiter.acquire();
-        } catch (InterruptedException e) {
-            waiter = null;
-            return false;
-        }
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.DefaultOption : waitStrategy;
+        this.waiterState = WAITER_STATE_WAITING;
+        this.waiter = Thread.currentThread();
         return true;
     }
 
@@ -129,24 +164,65 @@ public class Command implements ICommand {
     }
 
     public boolean wakeupWaiter() {
+        Thread waiter = this.waiter;
         if (waiter == null) {
             if (waiterCallback != null) {
                 waiterCallback.accept(this.commandResult);
             }
             return false;
         }
-        waiter.release();
+        if (waiterStateUpdater.compareAndSet(this, WAITER_STATE_WAITING, WAITER_STATE_DONE)) {
+            LockSupport.unpark(waiter);
+        }
         return true;
     }
 
     public boolean waiteWaiter() {
+        return waiteWaiter(DEFAULT_MILLISECOND_TIMEOUT_GRACE);
+    }
+
+    public boolean waiteWaiter(long millisecondTimeoutGrace) {
         if (waiter == null) {
             return false;
         }
-        try {
-            return waiter.tryAcquire(1, 120, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
+        return awaitWaiter(TimeUnit.MILLISECONDS.toNanos(getDeadlineMillis(millisecondTimeoutGrace)));
+    }
+
+    public boolean waiteWaiter(long millisecondTimeoutGrace, long startNanos) {
+        if (waiter == null) {
             return false;
         }
+        return awaitWaiter(startNanos + TimeUnit.MILLISECONDS.toNanos(getDeadlineMillis(millisecondTimeoutGrace)) - System.nanoTime());
+    }
+
+    protected boolean awaitWaiter(long timeoutNanos) {
+        if (waiterState == WAITER_STATE_DONE) {
+            return true;
+        }
+
+        WaitStrategy waitStrategy = this.waitStrategy;
+        if (waitStrategy != null && waitStrategy.getWaitStrategy() == WaitStrategy.WAIT_STRATEGY_SPIN) {
+            for (int i = 0, spinCount = waitStrategy.getSpinCount(); i < spinCount; i++) {
+                if (waiterState == WAITER_STATE_DONE) {
+                    return true;
+                }
+            }
+            for (int i = 0, yieldCount = waitStrategy.getYieldCount(); i < yieldCount; i++) {
+                Thread.yield();
+                if (waiterState == WAITER_STATE_DONE) {
+                    return true;
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (waiterState != WAITER_STATE_DONE) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0 || Thread.interrupted()) {
+                return !waiterStateUpdater.compareAndSet(this, WAITER_STATE_WAITING, WAITER_STATE_TIMEOUT);
+            }
+            LockSupport.parkNanos(this, remainingNanos);
+        }
+        return true;
     }
 }
@@ -1,54 +1,67 @@
 package io.github.snower.jaslock.commands;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 public class CommandResult implements ICommand {
-    protected byte magic;
-    protected byte version;
-    protected byte commandType;
+    protected byte[] frame;
     protected byte[] requestId;
-    protected byte result;
 
     public CommandResult() {
 
     }
 
     public CommandResult(byte result) {
-        this.result = result;
+        this.frame = new byte[64];
+        this.frame[19] = result;
     }
 
     public byte getMagic() {
-        return magic;
+        return frame[0];
     }
 
     public byte getVersion() {
-        return version;
+        return frame[1];
     }
 
     @Override
     public int getCommandType() {
-        return commandType;
+        return frame[2];
     }
 
     @Override
     public byte[] getRequestId() {
+        if (requestId == null) {
+            requestId = Arrays.copyOfRange(frame, 3, 19);
+        }
         return requestId;
     }
 
+    public long getRequestIdHigh() {
+        return readLong(frame, 3);
+    }
+
+    public long getRequestIdLow() {
+        return readLong(frame, 11);
+    }
+
     public byte getResult() {
-        return result;
+        return frame[19];
+    }
+
+    public byte[] getFrame() {
+        return frame;
     }
 
     @Override
     public ICommand parseCommand(byte[] buf) {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buf);
-        magic = (byte) byteArrayInputStream.read();
-        version = (byte) byteArrayInputStream.read();
-        commandType = (byte) byteArrayInputStream.read();
-        requestId = new byte[16];
-        byteArrayInputStream.read(requestId, 0, 16);
-        result = (byte) byteArrayInputStream.read();
+        this.frame = Arrays.copyOf(buf, 64);
+        this.requestId = null;
+        return this;
+    }
+
+    public ICommand wrapCommand(byte[] frame) {
+        this.frame = frame;
+        this.requestId = null;
         return this;
     }
 
@@ -58,17 +71,21 @@ public class CommandResult implements ICommand {
 
     @Override
     public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(new byte[44], 0, 44);
-        return byteArrayOutputStream.toByteArray();
+        return Arrays.copyOf(frame, 64);
     }
 
     @Override
     public boolean hasExtraData() {
         return false;
     }
+
+    protected static short readShort(byte[] buf, int offset) {
+        return (short) ((buf[offset] & 0xff) | ((buf[offset + 1] & 0xff) << 8));
+    }
+
+    protected static long readLong(byte[] buf, int offset) {
+        return ((buf[offset] & 0xffL) << 56) | ((buf[offset + 1] & 0xffL) << 48) | ((buf[offset + 2] & 0xffL) << 40)
+                | ((buf[offset + 3] & 0xffL) << 32) | ((buf[offset + 4] & 0xffL) << 24) | ((buf[offset + 5] & 0xffL) << 16)
+                | ((buf[offset + 6] & 0xffL) << 8) | (buf[offset + 7] & 0xffL);
+    }
 }
@@ -0,0 +1,31 @@
+package io.github.snower.jaslock.commands;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DefaultIdGenerator implements IdGenerator {
+    private static final AtomicInteger stripeIndex = new AtomicInteger(0);
+
+    private final ThreadLocal<IdState> idStates;
+
+    public DefaultIdGenerator() {
+        this.idStates = ThreadLocal.withInitial(IdState::new);
+    }
+
+    @Override
+    public void generate(byte[] buf, int offset) {
+        IdState idState = idStates.get();
+        LittleEndianWriter.writeId(buf, offset, System.currentTimeMillis(), idState.randomBase, ((long) ++idState.sequence) & 0xffffffffL);
+    }
+
+    private static final class IdState {
+        private final long randomBase;
+        private int sequence;
+
+        private IdState() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            this.randomBase = (random.nextLong() & 0xffffffff0000L) | (stripeIndex.getAndIncrement() & 0xffffL);
+            this.sequence = random.nextInt();
+        }
+    }
+}
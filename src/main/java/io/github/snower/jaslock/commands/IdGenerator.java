@@ -0,0 +1,5 @@
+package io.github.snower.jaslock.commands;
+
+public interface IdGenerator {
+    void generate(byte[] buf, int offset);
+}
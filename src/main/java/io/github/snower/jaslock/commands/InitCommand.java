@@ -1,13 +1,10 @@
 package io.github.snower.jaslock.commands;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class InitCommand extends Command {
-    private static final AtomicInteger clientIdIndex = new AtomicInteger(0);
-
     protected byte[] clientId;
 
     public InitCommand(byte[] clientId) {
@@ -34,38 +31,30 @@ public class InitCommand extends Command {
     }
 
     @Override
-    public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(clientId, 0, 16);
-        byteArrayOutputStream.write(new byte[29], 0, 29);
-        return byteArrayOutputStream.toByteArray();
+    public int dumpCommand(byte[] buf, int offset) {
+        buf[offset] = MAGIC;
+        buf[offset + 1] = VERSION;
+        buf[offset + 2] = commandType;
+        System.arraycopy(requestId, 0, buf, offset + 3, 16);
+        System.arraycopy(clientId, 0, buf, offset + 19, 16);
+        Arrays.fill(buf, offset + 35, offset + 64, (byte) 0);
+        return 64;
+    }
+
+    @Override
+    public int dumpCommand(ByteBuffer buffer) {
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(commandType);
+        buffer.put(requestId, 0, 16);
+        buffer.put(clientId, 0, 16);
+        LittleEndianWriter.writeZero(buffer, 29);
+        return 64;
     }
 
     public static byte[] genClientId() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(16);
-        long timestamp = System.currentTimeMillis();
-        long randNumber = random.nextLong();
-        long ri = ((long) clientIdIndex.addAndGet(1)) & 0x7fffffffL;
-        byteArrayOutputStream.write((byte) (timestamp >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) timestamp & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) randNumber & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) ri & 0xff);
-        return byteArrayOutputStream.toByteArray();
+        byte[] id = new byte[16];
+        getIdGenerator().generate(id, 0);
+        return id;
     }
 }
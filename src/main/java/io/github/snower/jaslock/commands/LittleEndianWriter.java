@@ -0,0 +1,56 @@
+package io.github.snower.jaslock.commands;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class LittleEndianWriter {
+    public static void writeShort(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >> 8);
+    }
+
+    public static void writeInt(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >> 8);
+        buf[offset + 2] = (byte) (value >> 16);
+        buf[offset + 3] = (byte) (value >> 24);
+    }
+
+    public static void writeShort(ByteBuffer buffer, int value) {
+        buffer.putShort(buffer.order() == ByteOrder.LITTLE_ENDIAN ? (short) value : Short.reverseBytes((short) value));
+    }
+
+    public static void writeInt(ByteBuffer buffer, int value) {
+        buffer.putInt(buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value));
+    }
+
+    public static void writeZero(ByteBuffer buffer, int len) {
+        while (len >= 8) {
+            buffer.putLong(0L);
+            len -= 8;
+        }
+        while (len > 0) {
+            buffer.put((byte) 0);
+            len--;
+        }
+    }
+
+    public static void writeId(byte[] buf, int offset, long timestamp, long randNumber, long index) {
+        buf[offset] = (byte) (timestamp >> 40);
+        buf[offset + 1] = (byte) (timestamp >> 32);
+        buf[offset + 2] = (byte) (timestamp >> 24);
+        buf[offset + 3] = (byte) (timestamp >> 16);
+        buf[offset + 4] = (byte) (timestamp >> 8);
+        buf[offset + 5] = (byte) timestamp;
+        buf[offset + 6] = (byte) (randNumber >> 40);
+        buf[offset + 7] = (byte) (randNumber >> 32);
+        buf[offset + 8] = (byte) (randNumber >> 24);
+        buf[offset + 9] = (byte) (randNumber >> 16);
+        buf[offset + 10] = (byte) (randNumber >> 8);
+        buf[offset + 11] = (byte) randNumber;
+        buf[offset + 12] = (byte) (index >> 24);
+        buf[offset + 13] = (byte) (index >> 16);
+        buf[offset + 14] = (byte) (index >> 8);
+        buf[offset + 15] = (byte) index;
+    }
+}
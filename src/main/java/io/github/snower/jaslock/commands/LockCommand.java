@@ -5,15 +5,11 @@ import io.github.snower.jaslock.exceptions.LockDataException;
 import io.github.snower.jaslock.exceptions.SlockException;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.Random;
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 public class LockCommand extends Command {
-    private static final AtomicInteger lockIdIndex = new AtomicInteger(0);
-
     protected byte flag;
     protected byte dbId;
     protected byte[] lockId;
@@ -114,28 +110,37 @@ public class LockCommand extends Command {
     }
 
     @Override
-    public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(flag);
-        byteArrayOutputStream.write(dbId);
-        byteArrayOutputStream.write(lockId, 0, 16);
-        byteArrayOutputStream.write(lockKey, 0, 16);
-        byteArrayOutputStream.write(timeout & 0xff);
-        byteArrayOutputStream.write((timeout >> 8) & 0xff);
-        byteArrayOutputStream.write((timeout >> 16) & 0xff);
-        byteArrayOutputStream.write((timeout >> 24) & 0xff);
-        byteArrayOutputStream.write(expried & 0xff);
-        byteArrayOutputStream.write((expried >> 8) & 0xff);
-        byteArrayOutputStream.write((expried >> 16) & 0xff);
-        byteArrayOutputStream.write((expried >> 24) & 0xff);
-        byteArrayOutputStream.write(count & 0xff);
-        byteArrayOutputStream.write((count >> 8) & 0xff);
-        byteArrayOutputStream.write(rCount);
-        return byteArrayOutputStream.toByteArray();
+    public int dumpCommand(byte[] buf, int offset) {
+        buf[offset] = MAGIC;
+        buf[offset + 1] = VERSION;
+        buf[offset + 2] = commandType;
+        System.arraycopy(requestId, 0, buf, offset + 3, 16);
+        buf[offset + 19] = flag;
+        buf[offset + 20] = dbId;
+        System.arraycopy(lockId, 0, buf, offset + 21, 16);
+        System.arraycopy(lockKey, 0, buf, offset + 37, 16);
+        LittleEndianWriter.writeInt(buf, offset + 53, timeout);
+        LittleEndianWriter.writeInt(buf, offset + 57, expried);
+        LittleEndianWriter.writeShort(buf, offset + 61, count);
+        buf[offset + 63] = rCount;
+        return 64;
+    }
+
+    @Override
+    public int dumpCommand(ByteBuffer buffer) {
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(commandType);
+        buffer.put(requestId, 0, 16);
+        buffer.put(flag);
+        buffer.put(dbId);
+        buffer.put(lockId, 0, 16);
+        buffer.put(lockKey, 0, 16);
+        LittleEndianWriter.writeInt(buffer, timeout);
+        LittleEndianWriter.writeInt(buffer, expried);
+        LittleEndianWriter.writeShort(buffer, count);
+        buffer.put(rCount);
+        return 64;
     }
 
     @Override
@@ -152,46 +157,66 @@ public class LockCommand extends Command {
         return lockData.dumpData();
     }
 
-    public static byte[] genLockId() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(16);
-        long timestamp = System.currentTimeMillis();
-        long randNumber = random.nextLong();
-        long ri = ((long) lockIdIndex.addAndGet(1)) & 0x7fffffffL;
-        byteArrayOutputStream.write((byte) (timestamp >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (timestamp >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) timestamp & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 40) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 32) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (randNumber >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) randNumber & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 24) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 16) & 0xff);
-        byteArrayOutputStream.write((byte) (ri >> 8) & 0xff);
-        byteArrayOutputStream.write((byte) ri & 0xff);
-        return byteArrayOutputStream.toByteArray();
+    public long getTimeoutMillis() {
+        long timeoutValue = timeout & 0xffffL;
+        if ((timeout & (TIMEOUT_FLAG_MILLISECOND_TIME << 16)) != 0) {
+            return timeoutValue;
+        }
+        if ((timeout & (TIMEOUT_FLAG_MINUTE_TIME << 16)) != 0) {
+            return timeoutValue * 60000L;
+        }
+        return timeoutValue * 1000L;
     }
 
     @Override
-    public int setWaiterCallback(Consumer<CommandResult> waiterCallback) {
-        if (waiter != null) return -1;
-        this.waiterCallback = waiterCallback;
-        return (int) ((timeout & 0xffffL) + 120);
+    public long getDeadlineMillis(long millisecondTimeoutGrace) {
+        if (hasMillisecondDeadline()) {
+            return getTimeoutMillis() + millisecondTimeoutGrace;
+        }
+        return getTimeoutMillis() + DEFAULT_DEADLINE_MILLIS;
     }
 
     @Override
-    public boolean waiteWaiter() {
-        if (waiter == null) {
-            return false;
+    public boolean hasMillisecondDeadline() {
+        return (timeout & (TIMEOUT_FLAG_MILLISECOND_TIME << 16)) != 0;
+    }
+
+    public static long getTimeoutNanos(int timeout) {
+        long timeoutValue = timeout & 0xffffL;
+        if ((timeout & (TIMEOUT_FLAG_MILLISECOND_TIME << 16)) != 0) {
+            return TimeUnit.MILLISECONDS.toNanos(timeoutValue);
+        }
+        if ((timeout & (TIMEOUT_FLAG_MINUTE_TIME << 16)) != 0) {
+            return TimeUnit.MINUTES.toNanos(timeoutValue);
         }
-        try {
-            return waiter.tryAcquire(1, (timeout & 0xffffL) + 120, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            return false;
+        return TimeUnit.SECONDS.toNanos(timeoutValue);
+    }
+
+    public static long getExpriedNanos(int expried) {
+        long expriedValue = expried & 0xffffL;
+        if ((expried & (EXPRIED_FLAG_UNLIMITED_EXPRIED_TIME << 16)) != 0 || expriedValue == 0) {
+            return 0;
+        }
+        if ((expried & (EXPRIED_FLAG_MILLISECOND_TIME << 16)) != 0) {
+            return TimeUnit.MILLISECONDS.toNanos(expriedValue);
+        }
+        if ((expried & (EXPRIED_FLAG_MINUTE_TIME << 16)) != 0) {
+            return TimeUnit.MINUTES.toNanos(expriedValue);
         }
+        return TimeUnit.SECONDS.toNanos(expriedValue);
+    }
+
+    public static byte[] genLockId() {
+        byte[] id = new byte[16];
+        getIdGenerator().generate(id, 0);
+        return id;
     }
+
+    @Override
+    public int setWaiterCallback(Consumer<CommandResult> waiterCallback) {
+        if (waiter != null) return -1;
+        this.waiterCallback = waiterCallback;
+        return (int) Math.max((getDeadlineMillis() + 999) / 1000, 1);
+    }
+
 }
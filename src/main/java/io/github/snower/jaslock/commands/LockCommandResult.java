@@ -2,18 +2,11 @@ package io.github.snower.jaslock.commands;
 
 import io.github.snower.jaslock.datas.LockResultData;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 
 public class LockCommandResult extends CommandResult {
-    protected byte flag;
-    protected byte dbId;
     protected byte[] lockId;
     protected byte[] lockKey;
-    protected short lCount;
-    protected short count;
-    protected byte lrCount;
-    protected byte rCount;
     protected LockResultData lockResultData;
 
     public LockCommandResult() {
@@ -21,35 +14,57 @@ public class LockCommandResult extends CommandResult {
     }
 
     public byte getFlag() {
-        return flag;
+        return frame[20];
     }
 
     public byte getDbId() {
-        return dbId;
+        return frame[21];
     }
 
     public byte[] getLockId() {
+        if (lockId == null) {
+            lockId = Arrays.copyOfRange(frame, 22, 38);
+        }
         return lockId;
     }
 
+    public long getLockIdHigh() {
+        return readLong(frame, 22);
+    }
+
+    public long getLockIdLow() {
+        return readLong(frame, 30);
+    }
+
     public byte[] getLockKey() {
+        if (lockKey == null) {
+            lockKey = Arrays.copyOfRange(frame, 38, 54);
+        }
         return lockKey;
     }
 
+    public long getLockKeyHigh() {
+        return readLong(frame, 38);
+    }
+
+    public long getLockKeyLow() {
+        return readLong(frame, 46);
+    }
+
     public short getlCount() {
-        return lCount;
+        return readShort(frame, 54);
     }
 
     public short getCount() {
-        return count;
+        return readShort(frame, 56);
     }
 
     public byte getLrCount() {
-        return lrCount;
+        return frame[58];
     }
 
     public byte getrCount() {
-        return rCount;
+        return frame[59];
     }
 
     public LockResultData getLockResultData() {
@@ -58,55 +73,28 @@ public class LockCommandResult extends CommandResult {
 
     @Override
     public ICommand parseCommand(byte[] buf) {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buf);
-        magic = (byte) byteArrayInputStream.read();
-        version = (byte) byteArrayInputStream.read();
-        commandType = (byte) byteArrayInputStream.read();
-        requestId = new byte[16];
-        byteArrayInputStream.read(requestId, 0, 16);
-        result = (byte) byteArrayInputStream.read();
-        flag = (byte) byteArrayInputStream.read();
-        dbId = (byte) byteArrayInputStream.read();
-        lockId = new byte[16];
-        byteArrayInputStream.read(lockId, 0, 16);
-        lockKey = new byte[16];
-        byteArrayInputStream.read(lockKey, 0, 16);
-        lCount = (short) (((short) byteArrayInputStream.read()) | (((short) byteArrayInputStream.read()) << 8));
-        count = (short) (((short) byteArrayInputStream.read()) | (((short) byteArrayInputStream.read()) << 8));
-        lrCount = (byte) byteArrayInputStream.read();
-        rCount = (byte) byteArrayInputStream.read();
+        super.parseCommand(buf);
+        this.lockId = null;
+        this.lockKey = null;
         return this;
     }
 
     @Override
-    public CommandResult loadCommandData(byte[] buf) {
-        this.lockResultData = new LockResultData(buf);
+    public ICommand wrapCommand(byte[] frame) {
+        super.wrapCommand(frame);
+        this.lockId = null;
+        this.lockKey = null;
         return this;
     }
 
     @Override
-    public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(flag);
-        byteArrayOutputStream.write(dbId);
-        byteArrayOutputStream.write(lockId, 0, 16);
-        byteArrayOutputStream.write(lockKey, 0, 16);
-        byteArrayOutputStream.write(lCount & 0xff);
-        byteArrayOutputStream.write((lCount >> 8) & 0xff);
-        byteArrayOutputStream.write(count & 0xff);
-        byteArrayOutputStream.write((count >> 8) & 0xff);
-        byteArrayOutputStream.write(lrCount);
-        byteArrayOutputStream.write(rCount);
-        byteArrayOutputStream.write(new byte[4], 0, 4);
-        return byteArrayOutputStream.toByteArray();
+    public CommandResult loadCommandData(byte[] buf) {
+        this.lockResultData = new LockResultData(buf);
+        return this;
     }
 
     @Override
     public boolean hasExtraData() {
-        return (flag & LOCK_FLAG_CONTAINS_DATA) != 0;
+        return (frame[20] & LOCK_FLAG_CONTAINS_DATA) != 0;
     }
 }
@@ -1,7 +1,6 @@
 package io.github.snower.jaslock.commands;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 
 public class PingCommand extends Command {
     public PingCommand() {
@@ -18,16 +17,5 @@ public class PingCommand extends Command {
         byteArrayInputStream.read(requestId, 0, 16);
         return this;
     }
-
-    @Override
-    public byte[] dumpCommand() {
-        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
-        byteArrayOutputStream.write(MAGIC);
-        byteArrayOutputStream.write(VERSION);
-        byteArrayOutputStream.write(commandType);
-        byteArrayOutputStream.write(requestId, 0, 16);
-        byteArrayOutputStream.write(new byte[45], 0, 45);
-        return byteArrayOutputStream.toByteArray();
-    }
 }
 
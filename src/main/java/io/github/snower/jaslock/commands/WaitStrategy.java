@@ -0,0 +1,38 @@
+package io.github.snower.jaslock.commands;
+
+public class WaitStrategy {
+    public final static int WAIT_STRATEGY_PARK = 0;
+    public final static int WAIT_STRATEGY_SPIN = 1;
+
+    public final static WaitStrategy DefaultOption = new WaitStrategy(WAIT_STRATEGY_PARK, 0, 0);
+
+    private final int waitStrategy;
+    private final int spinCount;
+    private final int yieldCount;
+
+    public WaitStrategy(int waitStrategy, int spinCount, int yieldCount) {
+        this.waitStrategy = waitStrategy;
+        this.spinCount = waitStrategy == WAIT_STRATEGY_SPIN ? Math.max(spinCount, 0) : 0;
+        this.yieldCount = waitStrategy == WAIT_STRATEGY_SPIN ? Math.max(yieldCount, 0) : 0;
+    }
+
+    public static WaitStrategy park() {
+        return DefaultOption;
+    }
+
+    public static WaitStrategy spin(int spinCount, int yieldCount) {
+        return new WaitStrategy(WAIT_STRATEGY_SPIN, spinCount, yieldCount);
+    }
+
+    public int getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getSpinCount() {
+        return spinCount;
+    }
+
+    public int getYieldCount() {
+        return yieldCount;
+    }
+}
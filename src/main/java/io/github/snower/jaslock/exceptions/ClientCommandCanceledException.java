@@ -0,0 +1,7 @@
+package io.github.snower.jaslock.exceptions;
+
+public class ClientCommandCanceledException extends SlockException {
+    public ClientCommandCanceledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.snower.jaslock.exceptions;
+
+public class ClientInflightLimitException extends SlockException {
+    public ClientInflightLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,5 @@
+package io.github.snower.jaslock.network;
+
+public interface ConnectionHandler extends FrameHandler {
+    void onClosed(NioConnection connection);
+}
@@ -0,0 +1,227 @@
+package io.github.snower.jaslock.network;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+public class EventLoop implements Runnable {
+    private final String name;
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+    private final PriorityQueue<ScheduledTask> scheduledTasks;
+    private final AtomicBoolean wakenUp;
+    private Selector selector;
+    private volatile Thread thread;
+    private volatile boolean isRuning;
+
+    public EventLoop(String name) {
+        this.name = name;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduledTasks = new PriorityQueue<>();
+        this.wakenUp = new AtomicBoolean(false);
+        this.isRuning = false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRuning() {
+        return isRuning;
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public synchronized void start() throws IOException {
+        if (isRuning) return;
+
+        selector = Selector.open();
+        isRuning = true;
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!isRuning) return;
+            isRuning = false;
+            thread = this.thread;
+            selector.wakeup();
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException ignored) {}
+        }
+    }
+
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (!inEventLoop() && wakenUp.compareAndSet(false, true)) {
+            Selector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+            }
+            Thread thread = this.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    public void schedule(Runnable task, long delayNanos) {
+        if (delayNanos <= 0) {
+            execute(task);
+            return;
+        }
+
+        ScheduledTask scheduledTask = new ScheduledTask(System.nanoTime() + delayNanos, task);
+        if (inEventLoop()) {
+            scheduledTasks.add(scheduledTask);
+            return;
+        }
+        execute(() -> scheduledTasks.add(scheduledTask));
+    }
+
+    public NioConnection register(SocketChannel channel, ConnectionHandler handler) throws IOException {
+        return register(channel, handler, WriteOption.DefaultOption, null);
+    }
+
+    public NioConnection register(SocketChannel channel, ConnectionHandler handler, WriteOption writeOption, WriteStats writeStats) throws IOException {
+        if (!isRuning) {
+            throw new IOException("event loop stopped");
+        }
+
+        channel.configureBlocking(false);
+        NioConnection connection = new NioConnection(this, channel, handler, writeOption, writeStats);
+        execute(() -> {
+            try {
+                connection.register(selector);
+            } catch (IOException e) {
+                connection.close();
+            }
+        });
+        return connection;
+    }
+
+    @Override
+    public void run() {
+        Selector selector = this.selector;
+        try {
+            while (isRuning) {
+                try {
+                    wakenUp.set(false);
+                    long timeout = nextScheduledTimeout();
+                    if (!tasks.isEmpty() || timeout == 0) {
+                        selector.selectNow();
+                    } else if (timeout < 0) {
+                        selector.select();
+                    } else if (timeout < 1000000L) {
+                        LockSupport.parkNanos(this, timeout);
+                        selector.selectNow();
+                    } else {
+                        selector.select(timeout / 1000000L);
+                    }
+                } catch (IOException e) {
+                    continue;
+                }
+                runTasks();
+                runScheduledTasks();
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (!key.isValid()) {
+                        connection.close();
+                        continue;
+                    }
+                    try {
+                        if (key.isReadable()) {
+                            connection.handleRead();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.handleWrite();
+                        }
+                    } catch (CancelledKeyException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } finally {
+            runTasks();
+            scheduledTasks.clear();
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection) {
+                    ((NioConnection) key.attachment()).close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {}
+            if (thread == Thread.currentThread()) {
+                thread = null;
+            }
+        }
+    }
+
+    private long nextScheduledTimeout() {
+        ScheduledTask scheduledTask = scheduledTasks.peek();
+        if (scheduledTask == null) {
+            return -1;
+        }
+        return Math.max(scheduledTask.deadline - System.nanoTime(), 0);
+    }
+
+    private void runScheduledTasks() {
+        if (scheduledTasks.isEmpty()) return;
+
+        long now = System.nanoTime();
+        while (true) {
+            ScheduledTask scheduledTask = scheduledTasks.peek();
+            if (scheduledTask == null || scheduledTask.deadline - now > 0) return;
+            scheduledTasks.poll();
+            try {
+                scheduledTask.task.run();
+            } catch (Throwable ignored) {}
+        }
+    }
+
+    private void runTasks() {
+        while (true) {
+            Runnable task = tasks.poll();
+            if (task == null) return;
+            try {
+                task.run();
+            } catch (Throwable ignored) {}
+        }
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long deadline;
+        private final Runnable task;
+
+        private ScheduledTask(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask o) {
+            return Long.compare(deadline - o.deadline, 0);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.snower.jaslock.network;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventLoopGroup {
+    private static final AtomicInteger groupNumber = new AtomicInteger(1);
+    private static final ConcurrentHashMap<Integer, EventLoopGroup> sharedGroups = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger eventLoopIndex;
+    private final AtomicInteger blockingThreadIndex;
+    private ExecutorService blockingExecutor;
+    private int refCount;
+    private boolean isRuning;
+
+    public EventLoopGroup(int ioThreadCount) {
+        this.name = "jaslock-io-loop-" + groupNumber.getAndIncrement();
+        String namePrefix = name + "-thread-";
+        this.eventLoops = new EventLoop[Math.max(ioThreadCount, 1)];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(namePrefix + (i + 1));
+        }
+        this.eventLoopIndex = new AtomicInteger(0);
+        this.blockingThreadIndex = new AtomicInteger(1);
+        this.refCount = 0;
+        this.isRuning = false;
+    }
+
+    public EventLoopGroup() {
+        this(getDefaultIoThreadCount());
+    }
+
+    public static EventLoopGroup shared() {
+        return shared(getDefaultIoThreadCount());
+    }
+
+    public static EventLoopGroup shared(int ioThreadCount) {
+        return sharedGroups.computeIfAbsent(Math.max(ioThreadCount, 1), EventLoopGroup::new);
+    }
+
+    private static int getDefaultIoThreadCount() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public int getIoThreadCount() {
+        return eventLoops.length;
+    }
+
+    public boolean isRuning() {
+        return isRuning;
+    }
+
+    public synchronized int getRefCount() {
+        return refCount;
+    }
+
+    public synchronized void retain() throws IOException {
+        start();
+        refCount++;
+    }
+
+    public synchronized void release() {
+        if (refCount <= 0) return;
+        refCount--;
+        if (refCount == 0) {
+            stop();
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        if (isRuning) return;
+
+        try {
+            for (EventLoop eventLoop : eventLoops) {
+                eventLoop.start();
+            }
+        } catch (IOException e) {
+            for (EventLoop eventLoop : eventLoops) {
+                eventLoop.stop();
+            }
+            throw e;
+        }
+        isRuning = true;
+    }
+
+    public synchronized void stop() {
+        if (!isRuning) return;
+
+        isRuning = false;
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.stop();
+        }
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdown();
+            blockingExecutor = null;
+        }
+    }
+
+    public synchronized boolean executeBlocking(Runnable task) {
+        if (!isRuning) return false;
+        if (blockingExecutor == null) {
+            blockingExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, name + "-blocking-" + blockingThreadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        blockingExecutor.execute(task);
+        return true;
+    }
+
+    public EventLoop next() {
+        return eventLoops[(eventLoopIndex.getAndIncrement() & 0x7fffffff) % eventLoops.length];
+    }
+
+    public NioConnection register(SocketChannel channel, ConnectionHandler handler) throws IOException {
+        return register(channel, handler, WriteOption.DefaultOption, null);
+    }
+
+    public NioConnection register(SocketChannel channel, ConnectionHandler handler, WriteOption writeOption, WriteStats writeStats) throws IOException {
+        if (!isRuning) {
+            throw new IOException("event loop group stopped");
+        }
+        return next().register(channel, handler, writeOption, writeStats);
+    }
+}
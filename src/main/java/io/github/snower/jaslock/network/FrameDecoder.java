@@ -0,0 +1,118 @@
+package io.github.snower.jaslock.network;
+
+import io.github.snower.jaslock.commands.ICommand;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+public class FrameDecoder {
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final byte[] frame;
+    private byte[] buffer;
+    private ByteBuffer byteBuffer;
+    private int readerIndex;
+    private int writerIndex;
+    private int requiredSize;
+
+    public FrameDecoder(int bufferSize) {
+        this.frame = new byte[64];
+        this.buffer = new byte[Math.max(bufferSize, 128)];
+        this.byteBuffer = ByteBuffer.wrap(buffer);
+        this.readerIndex = 0;
+        this.writerIndex = 0;
+        this.requiredSize = 64;
+    }
+
+    public FrameDecoder() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public int readableBytes() {
+        return writerIndex - readerIndex;
+    }
+
+    public int readFrom(InputStream inputStream) throws IOException {
+        ensureWritable();
+        int n = inputStream.read(buffer, writerIndex, buffer.length - writerIndex);
+        if (n > 0) {
+            writerIndex += n;
+        }
+        return n;
+    }
+
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        ensureWritable();
+        byteBuffer.limit(buffer.length);
+        byteBuffer.position(writerIndex);
+        int n = channel.read(byteBuffer);
+        if (n > 0) {
+            writerIndex += n;
+        }
+        return n;
+    }
+
+    public int decode(FrameHandler handler) {
+        int count = 0;
+        while (writerIndex - readerIndex >= 64) {
+            byte commandType = buffer[readerIndex + 2];
+            if ((commandType == ICommand.COMMAND_TYPE_LOCK || commandType == ICommand.COMMAND_TYPE_UNLOCK)
+                    && (buffer[readerIndex + 20] & ICommand.LOCK_FLAG_CONTAINS_DATA) != 0) {
+                if (writerIndex - readerIndex < 68) {
+                    requiredSize = 68;
+                    break;
+                }
+                int dataLen = (((int) buffer[readerIndex + 64]) & 0xff) | ((((int) buffer[readerIndex + 65]) & 0xff) << 8)
+                        | ((((int) buffer[readerIndex + 66]) & 0xff) << 16) | ((((int) buffer[readerIndex + 67]) & 0xff) << 24);
+                if (dataLen < 0) {
+                    throw new IllegalStateException("frame data length error");
+                }
+                if (writerIndex - readerIndex < 68 + dataLen) {
+                    requiredSize = 68 + dataLen;
+                    break;
+                }
+                System.arraycopy(buffer, readerIndex, frame, 0, 64);
+                byte[] dataBuf = new byte[dataLen + 4];
+                System.arraycopy(buffer, readerIndex + 68, dataBuf, 4, dataLen);
+                readerIndex += 68 + dataLen;
+                handler.onFrame(frame, dataBuf);
+            } else {
+                System.arraycopy(buffer, readerIndex, frame, 0, 64);
+                readerIndex += 64;
+                handler.onFrame(frame, null);
+            }
+            requiredSize = 64;
+            count++;
+        }
+
+        if (readerIndex == writerIndex) {
+            readerIndex = 0;
+            writerIndex = 0;
+        }
+        return count;
+    }
+
+    public void clear() {
+        readerIndex = 0;
+        writerIndex = 0;
+        requiredSize = 64;
+    }
+
+    private void ensureWritable() {
+        if (readerIndex > 0 && (buffer.length - readerIndex < requiredSize || writerIndex == buffer.length)) {
+            System.arraycopy(buffer, readerIndex, buffer, 0, writerIndex - readerIndex);
+            writerIndex -= readerIndex;
+            readerIndex = 0;
+        }
+        if (requiredSize > buffer.length) {
+            byte[] newBuffer = new byte[requiredSize];
+            System.arraycopy(buffer, readerIndex, newBuffer, 0, writerIndex - readerIndex);
+            writerIndex -= readerIndex;
+            readerIndex = 0;
+            buffer = newBuffer;
+            byteBuffer = ByteBuffer.wrap(buffer);
+        }
+    }
+}
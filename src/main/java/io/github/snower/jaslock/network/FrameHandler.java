@@ -0,0 +1,5 @@
+package io.github.snower.jaslock.network;
+
+public interface FrameHandler {
+    void onFrame(byte[] frame, byte[] data);
+}
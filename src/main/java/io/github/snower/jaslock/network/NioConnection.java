@@ -0,0 +1,243 @@
+package io.github.snower.jaslock.network;
+
+import io.github.snower.jaslock.commands.Command;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class NioConnection {
+    private static final int WRITE_BUFFER_SIZE = 65536;
+
+    private final EventLoop eventLoop;
+    private final SocketChannel channel;
+    private final ConnectionHandler handler;
+    private final WriteOption writeOption;
+    private final WriteStats writeStats;
+    private final ConcurrentLinkedQueue<Object> outboundQueue;
+    private final AtomicBoolean flushScheduled;
+    private final Runnable flushTask;
+    private final AtomicBoolean closed;
+    private final OutputStream outputStream;
+    private final FrameDecoder frameDecoder;
+    private final ByteBuffer writeBuffer;
+    private Object pendingEntry;
+    private SelectionKey selectionKey;
+
+    public NioConnection(EventLoop eventLoop, SocketChannel channel, ConnectionHandler handler, WriteOption writeOption, WriteStats writeStats) {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.handler = handler;
+        this.writeOption = writeOption == null ? WriteOption.DefaultOption : writeOption;
+        this.writeStats = writeStats == null ? new WriteStats() : writeStats;
+        this.outboundQueue = new ConcurrentLinkedQueue<>();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.flushTask = this::flush;
+        this.closed = new AtomicBoolean(false);
+        this.outputStream = new ConnectionOutputStream();
+        this.frameDecoder = new FrameDecoder();
+        this.writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        this.pendingEntry = null;
+    }
+
+    public NioConnection(EventLoop eventLoop, SocketChannel channel, ConnectionHandler handler) {
+        this(eventLoop, channel, handler, WriteOption.DefaultOption, null);
+    }
+
+    public EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public WriteOption getWriteOption() {
+        return writeOption;
+    }
+
+    public WriteStats getWriteStats() {
+        return writeStats;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    protected void register(Selector selector) throws IOException {
+        if (closed.get()) return;
+        selectionKey = channel.register(selector, SelectionKey.OP_READ, this);
+        if (!outboundQueue.isEmpty()) {
+            flush();
+        }
+    }
+
+    public void write(Command command, byte[] extraData) throws IOException {
+        if (extraData == null) {
+            enqueue(command);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 + extraData.length);
+        command.dumpCommand(buffer);
+        buffer.put(extraData);
+        buffer.flip();
+        enqueue(buffer);
+    }
+
+    public void write(List<? extends Command> commands, byte[][] extraDatas) throws IOException {
+        if (closed.get()) {
+            throw new ClosedChannelException();
+        }
+
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
+            if (extraDatas == null || extraDatas[i] == null) {
+                outboundQueue.add(command);
+                continue;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(64 + extraDatas[i].length);
+            command.dumpCommand(buffer);
+            buffer.put(extraDatas[i]);
+            buffer.flip();
+            outboundQueue.add(buffer);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.schedule(flushTask, writeOption.getLingerNanos());
+        }
+    }
+
+    public void write(byte[] buf, int offset, int len) throws IOException {
+        enqueue(ByteBuffer.wrap(Arrays.copyOfRange(buf, offset, offset + len)));
+    }
+
+    private void enqueue(Object entry) throws IOException {
+        if (closed.get()) {
+            throw new ClosedChannelException();
+        }
+
+        outboundQueue.add(entry);
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.schedule(flushTask, writeOption.getLingerNanos());
+        }
+    }
+
+    protected void flush() {
+        flushScheduled.set(false);
+        if (closed.get() || selectionKey == null) return;
+
+        while (true) {
+            int frames = 0;
+            if (pendingEntry == null) {
+                pendingEntry = outboundQueue.poll();
+            }
+            while (pendingEntry != null) {
+                if (pendingEntry instanceof Command) {
+                    if (writeBuffer.remaining() < 64) break;
+                    ((Command) pendingEntry).dumpCommand(writeBuffer);
+                } else {
+                    ByteBuffer buffer = (ByteBuffer) pendingEntry;
+                    if (buffer.remaining() > writeBuffer.remaining()) {
+                        if (writeBuffer.position() > 0) break;
+                        ByteBuffer slice = buffer.duplicate();
+                        slice.limit(slice.position() + writeBuffer.remaining());
+                        writeBuffer.put(slice);
+                        buffer.position(slice.position());
+                        break;
+                    }
+                    writeBuffer.put(buffer);
+                }
+                frames++;
+                pendingEntry = outboundQueue.poll();
+            }
+            if (writeBuffer.position() == 0) break;
+
+            int n;
+            writeBuffer.flip();
+            try {
+                n = channel.write(writeBuffer);
+            } catch (IOException e) {
+                close();
+                return;
+            } finally {
+                writeBuffer.compact();
+            }
+            if (frames > 0) {
+                writeStats.record(frames, n);
+            }
+            if (writeBuffer.position() > 0 || (pendingEntry == null && outboundQueue.isEmpty())) {
+                break;
+            }
+        }
+
+        try {
+            if (writeBuffer.position() > 0) {
+                selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+            } else if ((selectionKey.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } catch (CancelledKeyException e) {
+            close();
+        }
+    }
+
+    protected void handleWrite() {
+        flush();
+    }
+
+    protected void handleRead() {
+        try {
+            int n = frameDecoder.readFrom(channel);
+            if (n < 0) {
+                close();
+                return;
+            }
+            if (n == 0) {
+                return;
+            }
+            frameDecoder.decode(handler);
+        } catch (Exception e) {
+            close();
+        }
+    }
+
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        outboundQueue.clear();
+        handler.onClosed(this);
+    }
+
+    private class ConnectionOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            NioConnection.this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            NioConnection.this.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            NioConnection.this.close();
+        }
+    }
+}
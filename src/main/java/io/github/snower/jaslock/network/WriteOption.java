@@ -0,0 +1,47 @@
+package io.github.snower.jaslock.network;
+
+import java.util.concurrent.TimeUnit;
+
+public class WriteOption {
+    public final static int FLUSH_POLICY_IMMEDIATE = 0;
+    public final static int FLUSH_POLICY_LINGER = 1;
+
+    public final static WriteOption DefaultOption = new WriteOption(FLUSH_POLICY_IMMEDIATE, 0, TimeUnit.MICROSECONDS);
+
+    private final int flushPolicy;
+    private final long linger;
+    private final TimeUnit lingerTimeUnit;
+
+    public WriteOption(int flushPolicy, long linger, TimeUnit lingerTimeUnit) {
+        this.flushPolicy = flushPolicy;
+        this.linger = linger;
+        this.lingerTimeUnit = lingerTimeUnit;
+    }
+
+    public static WriteOption immediate() {
+        return DefaultOption;
+    }
+
+    public static WriteOption linger(long lingerMicros) {
+        return new WriteOption(FLUSH_POLICY_LINGER, lingerMicros, TimeUnit.MICROSECONDS);
+    }
+
+    public int getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public long getLinger() {
+        return linger;
+    }
+
+    public TimeUnit getLingerTimeUnit() {
+        return lingerTimeUnit;
+    }
+
+    public long getLingerNanos() {
+        if (flushPolicy != FLUSH_POLICY_LINGER || linger <= 0) {
+            return 0;
+        }
+        return lingerTimeUnit.toNanos(linger);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.snower.jaslock.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WriteStats {
+    private final LongAdder writeCount;
+    private final LongAdder frameCount;
+    private final LongAdder byteCount;
+    private final AtomicLong maxBatchSize;
+
+    public WriteStats() {
+        this.writeCount = new LongAdder();
+        this.frameCount = new LongAdder();
+        this.byteCount = new LongAdder();
+        this.maxBatchSize = new AtomicLong(0);
+    }
+
+    public void record(int frames, long bytes) {
+        writeCount.increment();
+        frameCount.add(frames);
+        byteCount.add(bytes);
+        long maxSize = maxBatchSize.get();
+        while (frames > maxSize) {
+            if (maxBatchSize.compareAndSet(maxSize, frames)) {
+                break;
+            }
+            maxSize = maxBatchSize.get();
+        }
+    }
+
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    public long getFrameCount() {
+        return frameCount.sum();
+    }
+
+    public long getByteCount() {
+        return byteCount.sum();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageBatchSize() {
+        long writes = writeCount.sum();
+        if (writes == 0) {
+            return 0;
+        }
+        return (double) frameCount.sum() / writes;
+    }
+
+    public void reset() {
+        writeCount.reset();
+        frameCount.reset();
+        byteCount.reset();
+        maxBatchSize.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "WriteStats{" +
+                "writeCount=" + getWriteCount() +
+                ", frameCount=" + getFrameCount() +
+                ", byteCount=" + getByteCount() +
+                ", averageBatchSize=" + getAverageBatchSize() +
+                ", maxBatchSize=" + getMaxBatchSize() +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.snower.jaslock.callback;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        return Thread.ofVirtual().name(namePrefix, 0L).factory();
+    }
+}
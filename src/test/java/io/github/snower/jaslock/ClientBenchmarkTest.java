@@ -0,0 +1,959 @@
+package io.github.snower.jaslock;
+
+import io.github.snower.jaslock.callback.CallbackCommand;
+import io.github.snower.jaslock.callback.CallbackDispatchStats;
+import io.github.snower.jaslock.callback.CallbackExecutorManager;
+import io.github.snower.jaslock.callback.ExecutorOption;
+import io.github.snower.jaslock.callback.StripedExecutor;
+import io.github.snower.jaslock.callback.VirtualThreads;
+import io.github.snower.jaslock.commands.CapacityByteArrayOutputStream;
+import io.github.snower.jaslock.commands.Command;
+import io.github.snower.jaslock.commands.DefaultIdGenerator;
+import io.github.snower.jaslock.commands.ICommand;
+import io.github.snower.jaslock.commands.IdGenerator;
+import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.commands.PingCommand;
+import io.github.snower.jaslock.commands.WaitStrategy;
+import io.github.snower.jaslock.datas.*;
+import io.github.snower.jaslock.exceptions.*;
+import io.github.snower.jaslock.network.FrameDecoder;
+import io.github.snower.jaslock.network.WriteOption;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClientBenchmarkTest {
+    private static final Random random = new Random();
+    private static final String clientHost = "127.0.0.1";
+    private static final int clinetPort = 5658;
+
+    @Test
+    public void testNioBenchmark() throws Exception {
+        int totalCount = 400000;
+
+        for (WriteOption writeOption : new WriteOption[]{WriteOption.immediate(), WriteOption.linger(50)}) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableNioTransport();
+            client.setWriteOption(writeOption);
+            client.open();
+            try {
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                long startMs = System.currentTimeMillis();
+                for (int i = 0; i < 256; i++) {
+                    Thread thread = new Thread(() -> {
+                        while (count.get() < totalCount) {
+                            Lock lock = client.newLock("benchmark" + count.get(), 5, 10);
+                            try {
+                                lock.acquire(count.get() % 2 == 0 ? new LockSetData(new byte[random.nextInt(255) + 1]) : null);
+                                count.incrementAndGet();
+                                lock.release();
+                                count.incrementAndGet();
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long endMs = System.currentTimeMillis();
+                System.out.println("Nio Benchmark " + totalCount + " Count Lock and Unlock: " + count.get() + " " + (((double) totalCount) / ((endMs - startMs) / 1000d)) + "r/s " + (endMs - startMs) + "ms " + client.getWriteStats());
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testFrameDecoderBenchmark() throws Exception {
+        int totalCount = 1000000;
+        ByteArrayOutputStream frameStream = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            byte[] frame = new byte[64];
+            frame[0] = ICommand.MAGIC;
+            frame[1] = ICommand.VERSION;
+            frame[2] = i % 2 == 0 ? ICommand.COMMAND_TYPE_LOCK : ICommand.COMMAND_TYPE_UNLOCK;
+            if (i % 10 == 0) {
+                frame[20] = ICommand.LOCK_FLAG_CONTAINS_DATA;
+                frameStream.write(frame);
+                frameStream.write(new byte[]{10, 0, 0, 0});
+                frameStream.write(new byte[10]);
+            } else {
+                frameStream.write(frame);
+            }
+        }
+        byte[] frames = frameStream.toByteArray();
+
+        for (int mode = 0; mode < 2; mode++) {
+            try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                Thread thread = new Thread(() -> {
+                    try (Socket socket = serverSocket.accept()) {
+                        OutputStream outputStream = socket.getOutputStream();
+                        for (int i = 0; i < totalCount / 1000; i++) {
+                            outputStream.write(frames);
+                        }
+                    } catch (IOException ignored) {}
+                });
+                thread.setDaemon(true);
+                thread.start();
+
+                try (Socket socket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort())) {
+                    InputStream inputStream = socket.getInputStream();
+                    AtomicInteger count = new AtomicInteger(0);
+                    long startMs = System.currentTimeMillis();
+                    if (mode == 0) {
+                        byte[] buf = new byte[64];
+                        while (count.get() < totalCount) {
+                            if (ClientTest.readFully(inputStream, buf, 0, 64) < 64) {
+                                break;
+                            }
+                            LockCommandResult lockCommandResult = new LockCommandResult();
+                            lockCommandResult.parseCommand(buf);
+                            if (lockCommandResult.hasExtraData()) {
+                                if (ClientTest.readFully(inputStream, buf, 0, 4) < 4) {
+                                    break;
+                                }
+                                int dataLen = (((int) buf[0]) & 0xff) | ((((int) buf[1]) & 0xff) << 8) | ((((int) buf[2]) & 0xff) << 16) | ((((int) buf[3]) & 0xff) << 24);
+                                byte[] dataBuf = new byte[dataLen + 4];
+                                if (ClientTest.readFully(inputStream, dataBuf, 4, dataLen) < dataLen) {
+                                    break;
+                                }
+                            }
+                            count.incrementAndGet();
+                        }
+                    } else {
+                        FrameDecoder frameDecoder = new FrameDecoder();
+                        while (count.get() < totalCount) {
+                            if (frameDecoder.readFrom(inputStream) <= 0) {
+                                break;
+                            }
+                            frameDecoder.decode((frame, data) -> {
+                                LockCommandResult lockCommandResult = new LockCommandResult();
+                                lockCommandResult.parseCommand(frame);
+                                count.incrementAndGet();
+                            });
+                        }
+                    }
+                    long endMs = System.currentTimeMillis();
+                    System.out.println((mode == 0 ? "Stream" : "FrameDecoder") + " Benchmark " + totalCount + " Count Frame Decode: " + count.get() + " " + (((double) count.get()) / (Math.max(endMs - startMs, 1) / 1000d)) + "r/s " + (endMs - startMs) + "ms");
+                    Assert.assertEquals(count.get(), totalCount);
+                }
+                thread.join();
+            }
+        }
+    }
+
+    @Test
+    public void testCommandEncodeBenchmark() throws Exception {
+        int totalCount = 2000000;
+        LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, (byte) 0, LockCommand.genLockId(),
+                LockCommand.genLockId(), 5, 10, (short) 0, (byte) 0);
+        byte[] buf = new byte[64];
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int mode = 0; mode < 3; mode++) {
+            long checksum = 0;
+            for (int round = 0; round < 2; round++) {
+                long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+                long startNs = System.nanoTime();
+                for (int i = 0; i < totalCount; i++) {
+                    if (mode == 0) {
+                        checksum += ClientTest.dumpLegacyCommand(command)[i & 63];
+                    } else if (mode == 1) {
+                        command.dumpCommand(buf, 0);
+                        checksum += buf[i & 63];
+                    } else {
+                        if (byteBuffer.remaining() < 64) {
+                            byteBuffer.clear();
+                        }
+                        command.dumpCommand(byteBuffer);
+                        checksum += byteBuffer.position();
+                    }
+                }
+                long endNs = System.nanoTime();
+                long endBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+                if (round == 1) {
+                    System.out.println((mode == 0 ? "Stream" : (mode == 1 ? "ByteArray" : "DirectByteBuffer")) + " Encode Benchmark " + totalCount + " Count: "
+                            + (((double) (endNs - startNs)) / totalCount) + "ns/op " + (((double) (endBytes - startBytes)) / totalCount) + "B/op " + checksum);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRequestTableBenchmark() throws Exception {
+        int totalCount = 2000000;
+        for (int threadCount : new int[]{1, 8, 64}) {
+            for (int mode = 0; mode < 2; mode++) {
+                RequestTable requestTable = new RequestTable();
+                ConcurrentHashMap<ByteBuffer, Command> requestMap = new ConcurrentHashMap<>();
+                int mapMode = mode;
+                int threadTotalCount = totalCount / threadCount;
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                CountDownLatch startLatch = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    Command[] commands = new Command[64];
+                    for (int j = 0; j < commands.length; j++) {
+                        commands[j] = new PingCommand();
+                    }
+                    Thread thread = new Thread(() -> {
+                        try {
+                            startLatch.await();
+                            for (int j = 0; j < threadTotalCount; j++) {
+                                Command command = commands[j & 63];
+                                if (mapMode == 0) {
+                                    requestMap.put(ByteBuffer.wrap(command.getRequestId()), command);
+                                    if (requestMap.remove(ByteBuffer.wrap(command.getRequestId())) != command) {
+                                        throw new Exception("request remove error");
+                                    }
+                                } else {
+                                    requestTable.put(command.getRequestIdHigh(), command.getRequestIdLow(), command);
+                                    if (requestTable.remove(command.getRequestIdHigh(), command.getRequestIdLow()) != command) {
+                                        throw new Exception("request remove error");
+                                    }
+                                }
+                            }
+                        } catch (Exception e) {
+                            exception.set(e);
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                long startNs = System.nanoTime();
+                startLatch.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long endNs = System.nanoTime();
+                System.out.println((mode == 0 ? "ConcurrentHashMap" : "RequestTable") + " Benchmark " + threadCount + " Thread " + totalCount + " Count Put and Remove: "
+                        + (((double) totalCount) / ((endNs - startNs) / 1000000000d)) + "r/s " + ((endNs - startNs) / 1000000) + "ms");
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+                Assert.assertTrue(mode == 0 ? requestMap.isEmpty() : requestTable.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testIdGeneratorBenchmark() throws Exception {
+        int totalCount = 4000000;
+        Random legacyRandom = new Random();
+        AtomicInteger legacyIndex = new AtomicInteger(0);
+        IdGenerator idGenerator = new DefaultIdGenerator();
+        for (int threadCount : new int[]{1, 8, 64}) {
+            for (int mode = 0; mode < 2; mode++) {
+                int idMode = mode;
+                int threadTotalCount = totalCount / threadCount;
+                CountDownLatch startLatch = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            startLatch.await();
+                        } catch (InterruptedException ignored) {}
+                        byte[] id = new byte[16];
+                        for (int j = 0; j < threadTotalCount; j++) {
+                            if (idMode == 0) {
+                                ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(16);
+                                long timestamp = System.currentTimeMillis();
+                                long randNumber = legacyRandom.nextLong();
+                                long ri = ((long) legacyIndex.addAndGet(1)) & 0x7fffffffL;
+                                for (int k = 5; k >= 0; k--) {
+                                    byteArrayOutputStream.write((byte) (timestamp >> (k * 8)) & 0xff);
+                                }
+                                for (int k = 5; k >= 0; k--) {
+                                    byteArrayOutputStream.write((byte) (randNumber >> (k * 8)) & 0xff);
+                                }
+                                for (int k = 3; k >= 0; k--) {
+                                    byteArrayOutputStream.write((byte) (ri >> (k * 8)) & 0xff);
+                                }
+                                byteArrayOutputStream.toByteArray();
+                            } else {
+                                idGenerator.generate(id, 0);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                long startNs = System.nanoTime();
+                startLatch.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long endNs = System.nanoTime();
+                System.out.println((mode == 0 ? "Random" : "DefaultIdGenerator") + " Benchmark " + threadCount + " Thread " + totalCount + " Count Id Generate: "
+                        + (((double) totalCount) / ((endNs - startNs) / 1000000000d)) + "r/s " + ((endNs - startNs) / 1000000) + "ms");
+            }
+        }
+    }
+
+    @Test
+    public void testKeyNormalizerBenchmark() throws Exception {
+        int totalCount = 2000000;
+        String[] keys = new String[64];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "jaslock:benchmark:hot-key:" + i + ":" + (i * 31);
+        }
+        KeyNormalizer keyNormalizer = new KeyNormalizer(1024);
+        for (int mode = 0; mode < 2; mode++) {
+            long startNs = System.nanoTime();
+            for (int i = 0; i < totalCount; i++) {
+                String key = keys[i & 63];
+                if (mode == 0) {
+                    MessageDigest digest = MessageDigest.getInstance("MD5");
+                    digest.digest(key.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    keyNormalizer.normalize(key);
+                }
+            }
+            long endNs = System.nanoTime();
+            System.out.println((mode == 0 ? "MessageDigest" : "KeyNormalizer") + " Benchmark " + totalCount + " Count Key Normalize: "
+                    + ((endNs - startNs) / totalCount) + "ns/op " + ((endNs - startNs) / 1000000) + "ms");
+        }
+    }
+
+    @Test
+    public void testWaitStrategyBenchmark() throws Exception {
+        int totalCount = 100000;
+        for (WaitStrategy waitStrategy : new WaitStrategy[]{WaitStrategy.park(), WaitStrategy.spin(2000, 20)}) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.setWaitStrategy(waitStrategy);
+            client.open();
+            try {
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                long startNs = System.nanoTime();
+                for (int i = 0; i < 8; i++) {
+                    Thread thread = new Thread(() -> {
+                        while (count.get() < totalCount) {
+                            Lock lock = client.newLock("waitStrategyBenchmark" + count.get(), 5, 10);
+                            try {
+                                lock.acquire();
+                                count.incrementAndGet();
+                                lock.release();
+                                count.incrementAndGet();
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long endNs = System.nanoTime();
+                System.out.println((waitStrategy.getWaitStrategy() == WaitStrategy.WAIT_STRATEGY_SPIN ? "Spin" : "Park") + " WaitStrategy Benchmark "
+                        + totalCount + " Count Lock and Unlock: " + (((double) count.get()) / ((endNs - startNs) / 1000000000d)) + "r/s "
+                        + ((endNs - startNs) / count.get()) + "ns/op");
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testBatchBenchmark() throws Exception {
+        int lockCount = 500;
+        for (int mode = 0; mode < 2; mode++) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableAsyncCallback();
+            if (mode == 1) {
+                client.enableNioTransport();
+            }
+            client.open();
+            try {
+                List<Lock> locks = new ArrayList<>();
+                for (int i = 0; i < lockCount; i++) {
+                    locks.add(client.newLock("batchBenchmark" + mode + ":" + i, 5, 10));
+                }
+
+                long startNs = System.nanoTime();
+                for (Lock lock : locks) {
+                    lock.acquire();
+                }
+                for (Lock lock : locks) {
+                    lock.release();
+                }
+                long sequenceNs = System.nanoTime() - startNs;
+
+                startNs = System.nanoTime();
+                CommandBatch batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.acquire(lock);
+                }
+                for (LockCommandResult commandResult : batch.executeAll()) {
+                    Assert.assertEquals(commandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                }
+                batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.release(lock);
+                }
+                for (LockCommandResult commandResult : batch.executeAll()) {
+                    Assert.assertEquals(commandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                }
+                long batchNs = System.nanoTime() - startNs;
+                System.out.println((mode == 0 ? "Socket" : "Nio") + " Batch Benchmark " + lockCount + " Lock Acquire and Release: sequence "
+                        + (sequenceNs / (lockCount * 2)) + "ns/op batch " + (batchNs / (lockCount * 2)) + "ns/op");
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testTimingWheelBenchmark() throws Exception {
+        int totalCount = 100000;
+        int threadCount = 8;
+        for (int mode = 0; mode < 2; mode++) {
+            CallbackExecutorManager callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.DefaultOption);
+            callbackExecutorManager.start();
+            ConcurrentHashMap<Long, List<CallbackCommand>> timeoutQueues = new ConcurrentHashMap<>();
+            long timeoutAt = System.currentTimeMillis() / 1000 + 120;
+            try {
+                List<List<CallbackCommand>> threadCallbackCommands = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    List<CallbackCommand> callbackCommands = new ArrayList<>();
+                    for (int j = 0; j < totalCount / threadCount; j++) {
+                        callbackCommands.add(new CallbackCommand(new PingCommand(), callbackCommandResult -> {}, callbackCommandResult -> {}));
+                    }
+                    threadCallbackCommands.add(callbackCommands);
+                }
+
+                int timerMode = mode;
+                CountDownLatch addedLatch = new CountDownLatch(threadCount);
+                CountDownLatch closeLatch = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                long startNs = System.nanoTime();
+                AtomicReference<Long> addedNs = new AtomicReference<>(0L);
+                for (List<CallbackCommand> callbackCommands : threadCallbackCommands) {
+                    Thread thread = new Thread(() -> {
+                        for (CallbackCommand callbackCommand : callbackCommands) {
+                            if (timerMode == 0) {
+                                timeoutQueues.computeIfAbsent(timeoutAt, k -> Collections.synchronizedList(new LinkedList<>())).add(callbackCommand);
+                            } else {
+                                callbackExecutorManager.getTimingWheel().add(callbackCommand, 120, TimeUnit.SECONDS);
+                            }
+                        }
+                        addedLatch.countDown();
+                        try {
+                            closeLatch.await();
+                        } catch (InterruptedException ignored) {}
+                        for (CallbackCommand callbackCommand : callbackCommands) {
+                            if (timerMode == 0) {
+                                timeoutQueues.get(timeoutAt).remove(callbackCommand);
+                            } else {
+                                callbackCommand.close();
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                addedLatch.await();
+                addedNs.set(System.nanoTime() - startNs);
+                startNs = System.nanoTime();
+                closeLatch.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long closedNs = System.nanoTime() - startNs;
+                System.out.println((mode == 0 ? "SynchronizedList" : "TimingWheel") + " Benchmark " + totalCount + " Outstanding Command Timeout: add "
+                        + (addedNs.get() / totalCount) + "ns/op close " + (closedNs / totalCount) + "ns/op " + ((addedNs.get() + closedNs) / 1000000) + "ms");
+                if (mode == 1) {
+                    Assert.assertEquals(callbackExecutorManager.getTimingWheel().size(), 0);
+                }
+            } finally {
+                callbackExecutorManager.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testInlineDispatchBenchmark() throws Exception {
+        int lockCount = 20000;
+        ExecutorOption[] executorOptions = new ExecutorOption[]{ExecutorOption.DefaultOption, ExecutorOption.InlineOption};
+        for (ExecutorOption executorOption : executorOptions) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableAsyncCallback(executorOption);
+            client.open();
+            try {
+                CountDownLatch countDownLatch = new CountDownLatch(lockCount);
+                AtomicInteger succedCount = new AtomicInteger(0);
+                long startNs = System.nanoTime();
+                for (int i = 0; i < lockCount; i++) {
+                    Lock lock = client.newLock("testInlineDispatch:" + i, 5, 10);
+                    lock.acquire((byte) 0, callbackCommandResult -> {
+                        try {
+                            callbackCommandResult.getResult();
+                            lock.release((byte) 0, releaseCommandResult -> {
+                                try {
+                                    releaseCommandResult.getResult();
+                                    succedCount.incrementAndGet();
+                                } catch (SlockException ignored) {}
+                                countDownLatch.countDown();
+                            });
+                        } catch (SlockException e) {
+                            countDownLatch.countDown();
+                        }
+                    });
+                }
+                Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+                long totalNs = System.nanoTime() - startNs;
+                Assert.assertEquals(succedCount.get(), lockCount);
+                CallbackDispatchStats dispatchStats = client.getCallbackDispatchStats();
+                if (executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_INLINE) {
+                    Assert.assertEquals(dispatchStats.getInlineCount(), lockCount * 2L);
+                    Assert.assertEquals(dispatchStats.getExecutorCount(), 0);
+                } else {
+                    Assert.assertEquals(dispatchStats.getExecutorCount(), lockCount * 2L);
+                }
+                System.out.println((executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_INLINE ? "Inline" : "Executor")
+                        + " Dispatch Benchmark " + lockCount + " Lock Acquire and Release: " + (lockCount * 1000000000L / totalNs) + "r/s "
+                        + (totalNs / (lockCount * 2)) + "ns/op " + dispatchStats);
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testStripedExecutorBenchmark() throws Exception {
+        int taskCount = 200000, keyCount = 64;
+        Random random = new Random(17);
+        int[] taskKeys = new int[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            taskKeys[i] = random.nextInt(100) < 80 ? random.nextInt(4) : random.nextInt(keyCount);
+        }
+        byte[][] keys = new byte[keyCount][];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = KeyNormalizer.DefaultNormalizer.normalize("testStripedExecutorBenchmark:" + i);
+        }
+
+        for (int mode = 0; mode < 2; mode++) {
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(2, 4, 120, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(65536), (r, executor) -> r.run());
+            StripedExecutor stripedExecutor = new StripedExecutor(threadPoolExecutor, 16);
+            Object[] keyLocks = new Object[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keyLocks[i] = new Object();
+            }
+            int[] nextSequences = new int[keyCount];
+            int[] submitSequences = new int[keyCount];
+            AtomicInteger outOfOrderCount = new AtomicInteger(0);
+            CountDownLatch countDownLatch = new CountDownLatch(taskCount);
+
+            long startNs = System.nanoTime();
+            for (int i = 0; i < taskCount; i++) {
+                int key = taskKeys[i], sequence = submitSequences[key]++;
+                Runnable task = () -> {
+                    if (nextSequences[key] != sequence) {
+                        outOfOrderCount.incrementAndGet();
+                    }
+                    nextSequences[key] = sequence + 1;
+                    countDownLatch.countDown();
+                };
+                if (mode == 0) {
+                    threadPoolExecutor.execute(() -> {
+                        synchronized (keyLocks[key]) {
+                            task.run();
+                        }
+                    });
+                } else {
+                    stripedExecutor.execute(keys[key], task);
+                }
+            }
+            Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+            long totalNs = System.nanoTime() - startNs;
+            threadPoolExecutor.shutdown();
+            if (mode == 1) {
+                Assert.assertEquals(outOfOrderCount.get(), 0);
+            }
+            System.out.println((mode == 0 ? "ThreadPoolExecutor" : "StripedExecutor") + " Skewed Key Benchmark " + taskCount + " Tasks: "
+                    + (taskCount * 1000000000L / totalNs) + "r/s " + (totalNs / taskCount) + "ns/op outOfOrder " + outOfOrderCount.get());
+        }
+    }
+
+    @Test
+    public void testVirtualThreadWaitersBenchmark() throws Exception {
+        int waiterCount = Integer.getInteger("jaslock.benchmark.waiters", 10000);
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.open();
+        try {
+            runBenchmarkWaiters(client, "platform", waiterCount, r -> new Thread(null, r, "benchmark-waiter", 256 * 1024));
+            if (VirtualThreads.isSupported()) {
+                runBenchmarkWaiters(client, "virtual", waiterCount, VirtualThreads.newThreadFactory("benchmark-waiter-"));
+            } else {
+                System.out.println("Benchmark " + waiterCount + " Waiters virtual: skipped, virtual threads are not supported");
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testCompletionStageAsyncBenchmark() throws Exception {
+        int lockCount = 2000;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            List<Lock> locks = new ArrayList<>();
+            for (int i = 0; i < lockCount; i++) {
+                locks.add(client.newLock("testCompletionStageAsyncBenchmark:" + i, 5, 10));
+            }
+            CountDownLatch callbackLatch = new CountDownLatch(lockCount);
+            long startNs = System.nanoTime();
+            for (Lock l : locks) {
+                l.acquire(callbackCommandResult -> {
+                    try {
+                        l.release(releaseCommandResult -> callbackLatch.countDown());
+                    } catch (SlockException e) {
+                        callbackLatch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(callbackLatch.await(30, TimeUnit.SECONDS));
+            long callbackNs = System.nanoTime() - startNs;
+
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            startNs = System.nanoTime();
+            for (Lock l : locks) {
+                futures.add(l.acquireAsync().thenCompose(result -> l.releaseAsync()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            long futureNs = System.nanoTime() - startNs;
+            System.out.println("CompletionStage Async Benchmark " + lockCount + " Lock Acquire and Release: callback "
+                    + (lockCount * 1000000000L / callbackNs) + "r/s future " + (lockCount * 1000000000L / futureNs) + "r/s");
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testInflightWindowBenchmark() throws Exception {
+        int maxInflight = 16, lockCount = 5000;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.setInflightOption(InflightOption.asyncWait(maxInflight));
+        client.open();
+        try {
+            InflightWindow inflightWindow = client.getInflightWindow();
+            CountDownLatch countDownLatch = new CountDownLatch(lockCount);
+            AtomicInteger maxObserved = new AtomicInteger(0);
+            long startNs = System.nanoTime();
+            for (int i = 0; i < lockCount; i++) {
+                Lock lock = client.newLock("testInflightWindowBenchmark:" + i, 5, 10);
+                lock.acquire((byte) 0, callbackCommandResult -> {
+                    maxObserved.accumulateAndGet(inflightWindow.getInflightCount(), Math::max);
+                    countDownLatch.countDown();
+                });
+            }
+            Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+            long totalNs = System.nanoTime() - startNs;
+            System.out.println("Inflight Window Benchmark " + lockCount + " Async Lock: " + (lockCount * 1000000000L / totalNs) + "r/s "
+                    + "maxObserved " + maxObserved.get() + " " + inflightWindow);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testNearLockBenchmark() throws Exception {
+        int threadCount = 64;
+        int loopCount = 50;
+
+        for (NearLockOption nearLockOption : new NearLockOption[]{NearLockOption.DefaultOption, NearLockOption.handoff(16)}) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.setNearLockOption(nearLockOption);
+            client.open();
+            try {
+                String lockKey = "near-lock-benchmark-" + nearLockOption.getMaxHandoffs();
+                long totalMs = runLoops(threadCount, loopCount, () -> {
+                    Lock lock = client.newLock(lockKey, 60, 10);
+                    lock.acquire();
+                    lock.release();
+                });
+                NearLockGroup nearLockGroup = client.selectDatabase((byte) 0).getNearLockGroup();
+                System.out.println("Benchmark NearLock " + (threadCount * loopCount) + " Count " + (nearLockGroup == null ? "remote" : "handoff") + ": "
+                        + (((double) threadCount * loopCount) / (Math.max(totalMs, 1) / 1000d)) + "r/s"
+                        + (nearLockGroup == null ? "" : " remote " + nearLockGroup.getRemoteAcquireCount() + " handoff " + nearLockGroup.getHandoffCount()));
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testAcquireAllBenchmark() throws Exception {
+        int lockCount = 8;
+        int loopCount = 500;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.open();
+        try {
+            SlockDatabase database = client.selectDatabase((byte) 0);
+            Lock[] locks = new Lock[lockCount];
+            long startMs = System.currentTimeMillis();
+            for (int j = 0; j < loopCount; j++) {
+                for (int i = 0; i < lockCount; i++) {
+                    locks[i] = client.newLock("acquire-all-benchmark-" + i, 5, 10);
+                    locks[i].acquire();
+                }
+                for (int i = 0; i < lockCount; i++) {
+                    locks[i].release();
+                }
+            }
+            long sequentialMs = System.currentTimeMillis() - startMs;
+            startMs = System.currentTimeMillis();
+            for (int j = 0; j < loopCount; j++) {
+                for (int i = 0; i < lockCount; i++) {
+                    locks[i] = client.newLock("acquire-all-benchmark-" + i, 5, 10);
+                }
+                database.acquireAll(locks);
+                database.releaseAll(locks);
+            }
+            long batchMs = System.currentTimeMillis() - startMs;
+            System.out.println("Benchmark AcquireAll " + loopCount + " Count " + lockCount + " Locks: sequential " + (((double) loopCount) / (Math.max(sequentialMs, 1) / 1000d)) + "r/s "
+                    + "acquireAll " + (((double) loopCount) / (Math.max(batchMs, 1) / 1000d)) + "r/s");
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testPermitLeasingBenchmark() throws Exception {
+        int threadCount = 16;
+        int loopCount = 500;
+        short permitCount = 4;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            for (PermitLeaseOption permitLeaseOption : new PermitLeaseOption[]{null, new PermitLeaseOption(2, permitCount, 100)}) {
+                io.github.snower.jaslock.Semaphore semaphore = client.newSemaphore(permitLeaseOption == null ? "permit-leasing-benchmark-remote"
+                        : "permit-leasing-benchmark-leased", permitCount, 10, 10);
+                semaphore.setPermitLeaseOption(permitLeaseOption);
+                long totalMs = runLoops(threadCount, loopCount, () -> {
+                    semaphore.acquire();
+                    semaphore.release();
+                });
+                PermitPool permitPool = semaphore.getPermitPool();
+                System.out.println("Benchmark PermitLeasing " + (threadCount * loopCount) + " Count " + (permitPool == null ? "remote" : "leased") + ": "
+                        + (((double) threadCount * loopCount) / (Math.max(totalMs, 1) / 1000d)) + "r/s"
+                        + (permitPool == null ? "" : " local " + permitPool.getLocalAcquireCount() + " remote " + permitPool.getRemoteAcquireCount()));
+                semaphore.close();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenPrefetchBenchmark() throws Exception {
+        int threadCount = 8;
+        int loopCount = 400;
+        short tokenCount = 200;
+        double period = 0.1;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            for (TokenPrefetchOption tokenPrefetchOption : new TokenPrefetchOption[]{null, TokenPrefetchOption.adaptive(64)}) {
+                TokenBucketFlow tokenBucketFlow = client.newTokenBucketFlow(tokenPrefetchOption == null ? "token-prefetch-benchmark-remote"
+                        : "token-prefetch-benchmark-local", tokenCount, 5, period);
+                tokenBucketFlow.setTokenPrefetchOption(tokenPrefetchOption);
+                long totalMs = runLoops(threadCount, loopCount, () -> tokenBucketFlow.acquire());
+                TokenPrefetcher tokenPrefetcher = tokenBucketFlow.getTokenPrefetcher();
+                System.out.println("Benchmark TokenPrefetch " + (threadCount * loopCount) + " Count " + (tokenPrefetcher == null ? "per-token" : "prefetch") + ": "
+                        + (((double) threadCount * loopCount) / (Math.max(totalMs, 1) / 1000d)) + "r/s"
+                        + (tokenPrefetcher == null ? "" : " local " + tokenPrefetcher.getLocalAcquireCount() + " claims " + tokenPrefetcher.getClaimCount()
+                        + " rate " + tokenPrefetcher.getTokenRate()));
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenWindowCacheBenchmark() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            TokenBucketFlow tokenBucketFlow = client.newTokenBucketFlow("token-window-cache-benchmark", (short) 5, 5, 3);
+            tokenBucketFlow.setNegativeCacheEnabled(true);
+            TokenWindowCache tokenWindowCache = tokenBucketFlow.getTokenWindowCache();
+            int acquiredCount = 0;
+            while (acquiredCount < 20 && tokenBucketFlow.tryAcquire()) {
+                acquiredCount++;
+            }
+
+            int rejectCount = 0;
+            long startNs = System.nanoTime();
+            while (rejectCount < 100000 && tokenWindowCache.isExhausted()) {
+                if (!tokenBucketFlow.tryAcquire()) {
+                    rejectCount++;
+                }
+            }
+            long endNs = System.nanoTime();
+            System.out.println("Benchmark TokenWindowCache " + rejectCount + " Count reject: " + (((double) rejectCount) / ((endNs - startNs) / 1000000000d)) + "r/s");
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testSharedReadLockBenchmark() throws Exception {
+        int threadCount = 32;
+        int loopCount = 200;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableNioTransport();
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            for (SharedReadOption sharedReadOption : new SharedReadOption[]{null, SharedReadOption.share(1000)}) {
+                ReadWriteLock readWriteLock = client.newReadWriteLock(sharedReadOption == null ? "shared-read-benchmark-remote"
+                        : "shared-read-benchmark-local", 5, 60);
+                readWriteLock.setSharedReadOption(sharedReadOption);
+                long startFrameCount = client.getWriteStats().getFrameCount();
+                long totalMs = runLoops(threadCount, loopCount, () -> {
+                    readWriteLock.acquireRead();
+                    Thread.yield();
+                    readWriteLock.releaseRead();
+                });
+                long frameCount = client.getWriteStats().getFrameCount() - startFrameCount;
+                int totalCount = threadCount * loopCount;
+                System.out.println("Benchmark SharedReadLock " + totalCount + " Count " + (sharedReadOption == null ? "per-reader" : "shared") + ": "
+                        + (((double) totalCount) / (Math.max(totalMs, 1) / 1000d)) + "r/s commands " + frameCount);
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    private long runLoops(int threadCount, int loopCount, LoopTask loopTask) throws Exception {
+        AtomicReference<Exception> exception = new AtomicReference<>(null);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < loopCount; j++) {
+                        loopTask.run();
+                    }
+                } catch (Exception e) {
+                    exception.set(e);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        long startMs = System.currentTimeMillis();
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long endMs = System.currentTimeMillis();
+        if (exception.get() != null) {
+            throw exception.get();
+        }
+        return endMs - startMs;
+    }
+
+    private void runBenchmarkWaiters(SlockClient client, String name, int waiterCount, ThreadFactory threadFactory) throws Exception {
+        byte[] lockKey = ("benchmark-waiters-" + name).getBytes(StandardCharsets.UTF_8);
+        AtomicReference<Exception> exception = new AtomicReference<>(null);
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(waiterCount);
+        long startMs = System.currentTimeMillis();
+        for (int i = 0; i < waiterCount; i++) {
+            Thread thread = threadFactory.newThread(() -> {
+                Lock lock = client.newLock(lockKey, 60, 10);
+                try {
+                    startLatch.await();
+                    lock.acquire();
+                    count.incrementAndGet();
+                    lock.release();
+                } catch (Exception e) {
+                    exception.set(e);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        long spawnMs = System.currentTimeMillis();
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long endMs = System.currentTimeMillis();
+        System.out.println("Benchmark " + waiterCount + " Waiters " + name + ": " + count.get() + " " + (((double) waiterCount) / ((endMs - spawnMs) / 1000d)) + "r/s "
+                + "spawn " + (spawnMs - startMs) + "ms " + (endMs - startMs) + "ms");
+        if (exception.get() != null) {
+            throw exception.get();
+        }
+        Assert.assertEquals(count.get(), waiterCount);
+    }
+
+    private interface LoopTask {
+        void run() throws Exception;
+    }
+}
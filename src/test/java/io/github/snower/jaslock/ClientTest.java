@@ -1,23 +1,56 @@
 package io.github.snower.jaslock;
 
+import io.github.snower.jaslock.callback.CallbackCommand;
 import io.github.snower.jaslock.callback.CallbackCommandResult;
+import io.github.snower.jaslock.callback.CallbackDispatchStats;
+import io.github.snower.jaslock.callback.CallbackExecutorManager;
 import io.github.snower.jaslock.callback.CallbackFuture;
 import io.github.snower.jaslock.callback.ExecutorOption;
+import io.github.snower.jaslock.callback.StripedExecutor;
+import io.github.snower.jaslock.callback.TimingWheel;
+import io.github.snower.jaslock.callback.VirtualThreads;
+import io.github.snower.jaslock.commands.CapacityByteArrayOutputStream;
+import io.github.snower.jaslock.commands.Command;
 import io.github.snower.jaslock.commands.ICommand;
 import io.github.snower.jaslock.commands.LockCommand;
+import io.github.snower.jaslock.commands.LockCommandResult;
+import io.github.snower.jaslock.commands.PingCommand;
+import io.github.snower.jaslock.commands.WaitStrategy;
 import io.github.snower.jaslock.datas.*;
 import io.github.snower.jaslock.exceptions.*;
+import io.github.snower.jaslock.network.EventLoopGroup;
+import io.github.snower.jaslock.network.FrameDecoder;
+import io.github.snower.jaslock.network.WriteOption;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -60,6 +93,79 @@ public class ClientTest
         }
     }
 
+    @Test
+    public void testNioClientLock() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableNioTransport();
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            Lock lock = client.newLock("test1".getBytes(StandardCharsets.UTF_8), 5, 5);
+            lock.acquire();
+            lock.release();
+
+            Lock lock1 = client.newLock("test1".getBytes(StandardCharsets.UTF_8), 5, 5);
+            lock1.setCount((short) 10);
+            Lock lock2 = client.newLock("test1".getBytes(StandardCharsets.UTF_8), 5, 5);
+            lock2.setCount((short) 10);
+
+            lock1.acquire(new LockSetData("aaa"));
+            Assert.assertNull(lock1.getCurrentLockDataAsString());
+            lock2.acquire(new LockSetData("bbb"));
+            Assert.assertEquals(lock2.getCurrentLockDataAsString(), "aaa");
+            lock1.release(new LockSetData("ccc"));
+            Assert.assertEquals(lock1.getCurrentLockDataAsString(), "bbb");
+            lock2.release();
+            Assert.assertEquals(lock2.getCurrentLockDataAsString(), "ccc");
+
+            Lock lock3 = client.newLock("test1".getBytes(StandardCharsets.UTF_8), 5, 5);
+            CallbackFuture<Boolean> callbackFuture = lock3.acquire(callbackFutureResult -> {});
+            Assert.assertTrue(callbackFuture.get());
+            lock3.release();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testSharedEventLoopGroup() throws Exception {
+        EventLoopGroup eventLoopGroup = EventLoopGroup.shared();
+        int refCount = eventLoopGroup.getRefCount();
+        SlockClient client1 = new SlockClient(clientHost, clinetPort);
+        client1.enableNioTransport();
+        SlockClient client2 = new SlockClient(clientHost, clinetPort);
+        client2.enableNioTransport();
+        client1.open();
+        client2.open();
+        try {
+            Assert.assertEquals(eventLoopGroup.getRefCount(), refCount + 2);
+            Assert.assertTrue(eventLoopGroup.isRuning());
+            Lock lock = client1.newLock("shared-event-loop", 5, 5);
+            lock.acquire();
+            lock.release();
+            lock = client2.newLock("shared-event-loop", 5, 5);
+            lock.acquire();
+            lock.release();
+        } finally {
+            client1.close();
+            client2.close();
+        }
+        Assert.assertEquals(eventLoopGroup.getRefCount(), refCount);
+        Assert.assertEquals(eventLoopGroup.isRuning(), refCount > 0);
+
+        EventLoopGroup stoppedEventLoopGroup = new EventLoopGroup(1);
+        Assert.assertFalse(stoppedEventLoopGroup.executeBlocking(() -> {}));
+        stoppedEventLoopGroup.start();
+        try {
+            CountDownLatch countDownLatch = new CountDownLatch(1);
+            Assert.assertTrue(stoppedEventLoopGroup.executeBlocking(countDownLatch::countDown));
+            Assert.assertTrue(countDownLatch.await(5, TimeUnit.SECONDS));
+        } finally {
+            stoppedEventLoopGroup.stop();
+        }
+        Assert.assertFalse(stoppedEventLoopGroup.executeBlocking(() -> {}));
+    }
+
     @Test
     public void testReplsetClientLock() throws Exception {
         SlockReplsetClient client = new SlockReplsetClient(new String[]{clientHost + ":" + clinetPort});
@@ -1074,6 +1180,1888 @@ public class ClientTest
         }
     }
 
+    @Test
+    public void testNioWriteOption() throws Exception {
+        for (WriteOption writeOption : new WriteOption[]{WriteOption.immediate(), WriteOption.linger(50)}) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableNioTransport();
+            client.setWriteOption(writeOption);
+            client.open();
+            try {
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    int index = i;
+                    Thread thread = new Thread(() -> {
+                        for (int j = 0; j < 100; j++) {
+                            Lock lock = client.newLock("testNioWriteOption:" + index + ":" + j, 5, 10);
+                            try {
+                                lock.acquire(j % 2 == 0 ? new LockSetData(new byte[random.nextInt(255) + 1]) : null);
+                                lock.release();
+                                count.incrementAndGet();
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+                Assert.assertEquals(count.get(), 1600);
+                Assert.assertTrue(client.getWriteStats().getFrameCount() >= 3200);
+                Assert.assertTrue(client.getWriteStats().getWriteCount() <= client.getWriteStats().getFrameCount());
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testFrameDecoder() throws Exception {
+        List<byte[]> frames = new ArrayList<>();
+        List<byte[]> datas = new ArrayList<>();
+        ByteArrayOutputStream frameStream = new ByteArrayOutputStream();
+        for (int i = 0; i < 40; i++) {
+            byte[] frame = new byte[64];
+            frame[0] = ICommand.MAGIC;
+            frame[1] = ICommand.VERSION;
+            frame[2] = i % 2 == 0 ? ICommand.COMMAND_TYPE_LOCK : ICommand.COMMAND_TYPE_UNLOCK;
+            frame[3] = (byte) i;
+            frame[63] = (byte) i;
+            byte[] data = null;
+            if (i % 3 == 0) {
+                frame[20] = ICommand.LOCK_FLAG_CONTAINS_DATA;
+                data = new byte[i * 7 + (i % 2 == 0 ? 0 : 200)];
+                for (int j = 0; j < data.length; j++) {
+                    data[j] = (byte) (i + j);
+                }
+            }
+            frames.add(frame);
+            datas.add(data);
+            frameStream.write(frame);
+            if (data != null) {
+                frameStream.write(new byte[]{(byte) data.length, (byte) (data.length >> 8), 0, 0});
+                frameStream.write(data);
+            }
+        }
+        byte[] stream = frameStream.toByteArray();
+
+        for (int chunkSize : new int[]{1, 3, 63, 65, 67, 70, 129, stream.length}) {
+            int[] offset = new int[]{0};
+            InputStream inputStream = new InputStream() {
+                @Override
+                public int read() {
+                    return offset[0] < stream.length ? stream[offset[0]++] & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) {
+                    if (offset[0] >= stream.length) {
+                        return -1;
+                    }
+                    int n = Math.min(Math.min(len, chunkSize), stream.length - offset[0]);
+                    System.arraycopy(stream, offset[0], buf, off, n);
+                    offset[0] += n;
+                    return n;
+                }
+            };
+
+            FrameDecoder frameDecoder = new FrameDecoder(128);
+            List<byte[]> decodedFrames = new ArrayList<>();
+            List<byte[]> decodedDatas = new ArrayList<>();
+            while (frameDecoder.readFrom(inputStream) > 0) {
+                frameDecoder.decode((frame, data) -> {
+                    decodedFrames.add(Arrays.copyOf(frame, 64));
+                    decodedDatas.add(data);
+                });
+            }
+            Assert.assertEquals(frameDecoder.readableBytes(), 0);
+            Assert.assertEquals(decodedFrames.size(), frames.size());
+            for (int i = 0; i < frames.size(); i++) {
+                Assert.assertArrayEquals(decodedFrames.get(i), frames.get(i));
+                if (datas.get(i) == null) {
+                    Assert.assertNull(decodedDatas.get(i));
+                } else {
+                    Assert.assertEquals(decodedDatas.get(i).length, datas.get(i).length + 4);
+                    Assert.assertArrayEquals(Arrays.copyOfRange(decodedDatas.get(i), 4, decodedDatas.get(i).length), datas.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCommandEncode() throws Exception {
+        LockCommand command = new LockCommand(ICommand.COMMAND_TYPE_LOCK, (byte) 0, (byte) 0, LockCommand.genLockId(),
+                LockCommand.genLockId(), 5, 10, (short) 0, (byte) 0);
+        byte[] legacyBuf = dumpLegacyCommand(command);
+        byte[] buf = new byte[64];
+        command.dumpCommand(buf, 0);
+        Assert.assertArrayEquals(legacyBuf, buf);
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(64 * 1024);
+        command.dumpCommand(byteBuffer);
+        byteBuffer.flip();
+        byteBuffer.get(buf);
+        Assert.assertArrayEquals(legacyBuf, buf);
+    }
+
+    @Test
+    public void testRequestTable() throws Exception {
+        RequestTable requestTable = new RequestTable(1);
+        Map<Long, Command> liveCommands = new HashMap<>();
+        Random keyRandom = new Random(31);
+        for (int i = 0; i < 20000; i++) {
+            long low = keyRandom.nextInt(4096);
+            if (keyRandom.nextInt(3) == 0) {
+                Assert.assertSame(requestTable.remove(0x5a5aL, low), liveCommands.remove(low));
+            } else {
+                Command command = new PingCommand();
+                Assert.assertSame(requestTable.put(0x5a5aL, low, command), liveCommands.put(low, command));
+            }
+            if (i % 1000 == 999) {
+                for (long key = 0; key < 4096; key++) {
+                    Assert.assertSame(requestTable.get(0x5a5aL, key), liveCommands.get(key));
+                }
+                Assert.assertEquals(requestTable.size(), liveCommands.size());
+            }
+        }
+        List<Command> drainedCommands = new ArrayList<>();
+        Assert.assertEquals(requestTable.drainAll(drainedCommands::add), liveCommands.size());
+        Assert.assertTrue(drainedCommands.containsAll(liveCommands.values()));
+        Assert.assertTrue(requestTable.isEmpty());
+
+        RequestTable concurrentRequestTable = new RequestTable(4);
+        AtomicReference<Exception> exception = new AtomicReference<>(null);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            long high = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    Map<Long, Command> threadCommands = new HashMap<>();
+                    Random threadRandom = new Random(high);
+                    for (int j = 0; j < 20000; j++) {
+                        long low = threadRandom.nextInt(512);
+                        if (threadRandom.nextInt(3) == 0) {
+                            if (concurrentRequestTable.remove(high, low) != threadCommands.remove(low)) {
+                                throw new Exception("request remove error");
+                            }
+                        } else {
+                            Command command = new PingCommand();
+                            if (concurrentRequestTable.put(high, low, command) != threadCommands.put(low, command)) {
+                                throw new Exception("request put error");
+                            }
+                        }
+                    }
+                    for (long low = 0; low < 512; low++) {
+                        if (concurrentRequestTable.remove(high, low) != threadCommands.remove(low)) {
+                            throw new Exception("request remove error");
+                        }
+                    }
+                } catch (Exception e) {
+                    exception.set(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (exception.get() != null) {
+            throw exception.get();
+        }
+        Assert.assertTrue(concurrentRequestTable.isEmpty());
+    }
+
+    @Test
+    public void testIdGenerator() throws Exception {
+        Set<ByteBuffer> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 50000; j++) {
+                    ids.add(ByteBuffer.wrap(Command.genRequestId()));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(ids.size(), 400000);
+        byte[] id = Command.genRequestId();
+        long timestamp = ((id[0] & 0xffL) << 40) | ((id[1] & 0xffL) << 32) | ((id[2] & 0xffL) << 24)
+                | ((id[3] & 0xffL) << 16) | ((id[4] & 0xffL) << 8) | (id[5] & 0xffL);
+        Assert.assertTrue(Math.abs(System.currentTimeMillis() - timestamp) < 60000);
+    }
+
+    @Test
+    public void testKeyNormalizer() throws Exception {
+        String[] keys = new String[64];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "jaslock:normalizer:key:" + i + ":" + (i * 31);
+        }
+        KeyNormalizer keyNormalizer = new KeyNormalizer(1024);
+        for (String key : keys) {
+            byte[] normalizedKey = keyNormalizer.normalize(key);
+            Assert.assertArrayEquals(MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8)), normalizedKey);
+            Assert.assertSame(normalizedKey, keyNormalizer.normalize(key));
+            Assert.assertArrayEquals(normalizedKey, KeyNormalizer.normalizeKey(normalizedKey));
+        }
+        byte[] shortKey = keyNormalizer.normalize("short");
+        Assert.assertEquals(shortKey.length, 16);
+        Assert.assertArrayEquals(Arrays.copyOfRange(shortKey, 11, 16), "short".getBytes(StandardCharsets.UTF_8));
+
+        KeyNormalizer boundedNormalizer = new KeyNormalizer(64);
+        for (int i = 0; i < 10000; i++) {
+            boundedNormalizer.normalize("jaslock:bounded:" + i);
+        }
+        Assert.assertTrue(boundedNormalizer.size() <= 64);
+    }
+
+    @Test
+    public void testWaitStrategy() throws Exception {
+        PingCommand command = new PingCommand();
+        Assert.assertTrue(command.createWaiter(WaitStrategy.spin(100, 10)));
+        command.wakeupWaiter();
+        Assert.assertTrue(command.waiteWaiter());
+
+        command = new PingCommand();
+        Assert.assertTrue(command.createWaiter());
+        Thread.currentThread().interrupt();
+        Assert.assertFalse(command.waiteWaiter());
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+
+        PingCommand wakeupCommand = new PingCommand();
+        Assert.assertTrue(wakeupCommand.createWaiter());
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {}
+            wakeupCommand.wakeupWaiter();
+        });
+        thread.start();
+        Assert.assertTrue(wakeupCommand.waiteWaiter());
+        thread.join();
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.setWaitStrategy(WaitStrategy.spin(2000, 20));
+        client.open();
+        try {
+            for (int i = 0; i < 100; i++) {
+                Lock lock = client.newLock("testWaitStrategy:" + i, 5, 10);
+                lock.acquire();
+                lock.release();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testCommandBatch() throws Exception {
+        int lockCount = 100;
+        for (int mode = 0; mode < 2; mode++) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableAsyncCallback();
+            if (mode == 1) {
+                client.enableNioTransport();
+            }
+            client.open();
+            try {
+                List<Lock> locks = new ArrayList<>();
+                for (int i = 0; i < lockCount; i++) {
+                    locks.add(client.newLock("testCommandBatch" + mode + ":" + i, 5, 10));
+                }
+
+                CommandBatch batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.acquire(lock);
+                }
+                for (LockCommandResult commandResult : batch.executeAll()) {
+                    Assert.assertEquals(commandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                }
+                batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.release(lock);
+                }
+                for (LockCommandResult commandResult : batch.executeAll()) {
+                    Assert.assertEquals(commandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                }
+
+                batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.acquire(lock);
+                }
+                batch.acquire(locks.get(0));
+                List<CallbackFuture<LockCommandResult>> callbackFutures = batch.execute();
+                for (int i = 0; i < lockCount; i++) {
+                    Assert.assertEquals(callbackFutures.get(i).get(10, TimeUnit.SECONDS).getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                }
+                Assert.assertNotEquals(callbackFutures.get(lockCount).get(10, TimeUnit.SECONDS).getResult(), ICommand.COMMAND_RESULT_SUCCED);
+
+                batch = client.batch();
+                for (Lock lock : locks) {
+                    batch.release(lock);
+                }
+                Assert.assertEquals(batch.executeAll().size(), lockCount);
+
+                Event event = client.newEvent("testCommandBatchEvent" + mode, 5, 10, true);
+                Assert.assertEquals(client.batch().clear(event).executeAll().get(0).getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                List<CallbackCommandResult> callbackCommandResults = client.batch().set(event).set(event).executeEach();
+                Assert.assertEquals(callbackCommandResults.get(0).getResult().getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                Assert.assertNotEquals(callbackCommandResults.get(1).getResult().getResult(), ICommand.COMMAND_RESULT_SUCCED);
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testCommandBatchEach() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread serverThread = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    InputStream inputStream = socket.getInputStream();
+                    OutputStream outputStream = socket.getOutputStream();
+                    byte[] buf = new byte[64];
+                    int index = 0;
+                    while (readFully(inputStream, buf, 0, 64) == 64) {
+                        if (buf[2] == ICommand.COMMAND_TYPE_LOCK && index++ % 3 == 1) {
+                            continue;
+                        }
+                        byte[] result = new byte[64];
+                        result[0] = ICommand.MAGIC;
+                        result[1] = ICommand.VERSION;
+                        result[2] = buf[2];
+                        System.arraycopy(buf, 3, result, 3, 16);
+                        result[19] = ICommand.COMMAND_RESULT_SUCCED;
+                        outputStream.write(result);
+                        outputStream.flush();
+                    }
+                } catch (IOException ignored) {}
+            });
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            SlockClient client = new SlockClient("127.0.0.1", serverSocket.getLocalPort());
+            client.setMillisecondTimeoutGrace(20);
+            client.open();
+            try {
+                int timeout = (ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16) | 50;
+                CommandBatch batch = client.batch();
+                for (int i = 0; i < 3; i++) {
+                    batch.acquire(client.newLock("testCommandBatchEach:" + i, timeout, 10));
+                }
+                long startNs = System.nanoTime();
+                List<CallbackCommandResult> callbackCommandResults = batch.executeEach();
+                Assert.assertTrue((System.nanoTime() - startNs) / 1000000 < 500);
+                Assert.assertEquals(callbackCommandResults.size(), 3);
+                Assert.assertEquals(callbackCommandResults.get(0).getResult().getResult(), ICommand.COMMAND_RESULT_SUCCED);
+                Assert.assertTrue(callbackCommandResults.get(1).getException() instanceof ClientCommandTimeoutException);
+                Assert.assertEquals(callbackCommandResults.get(2).getResult().getResult(), ICommand.COMMAND_RESULT_SUCCED);
+
+                try {
+                    batch.executeAll();
+                    Assert.fail();
+                } catch (ClientCommandTimeoutException ignored) {}
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testTimingWheel() throws Exception {
+        TimingWheel timingWheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 8, 3);
+        AtomicInteger expiredCount = new AtomicInteger(0);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+            timingWheel.add(timeout, i * 20, TimeUnit.MILLISECONDS);
+            timeouts.add(timeout);
+        }
+        Assert.assertTrue(timeouts.get(19).cancel());
+        Assert.assertFalse(timeouts.get(19).cancel());
+        long startMs = System.currentTimeMillis();
+        while (System.currentTimeMillis() - startMs < 600) {
+            timingWheel.advance(timeout -> {
+                Assert.assertFalse(timeout.isCancelled());
+                expiredCount.incrementAndGet();
+            });
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(expiredCount.get(), 19);
+        Assert.assertEquals(timingWheel.size(), 0);
+        for (int i = 0; i < 19; i++) {
+            Assert.assertTrue(timeouts.get(i).isExpired());
+        }
+
+        int timeoutCount = 32;
+        TimingWheel orderTimingWheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 8, 3);
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < timeoutCount; i++) {
+            indexes.add(i);
+        }
+        Collections.shuffle(indexes, new Random(7));
+        TimingWheel.Timeout[] orderTimeouts = new TimingWheel.Timeout[timeoutCount];
+        long[] addedNs = new long[timeoutCount];
+        for (int index : indexes) {
+            orderTimeouts[index] = new TimingWheel.Timeout();
+            addedNs[index] = System.nanoTime();
+            orderTimingWheel.add(orderTimeouts[index], index * 25L, TimeUnit.MILLISECONDS);
+        }
+        for (int i = 1; i < timeoutCount; i += 4) {
+            Assert.assertTrue(orderTimeouts[i].cancel());
+        }
+        Assert.assertEquals(orderTimingWheel.size(), timeoutCount - timeoutCount / 4);
+
+        List<Integer> expiredIndexes = new ArrayList<>();
+        AtomicInteger earlyCount = new AtomicInteger(0);
+        boolean lateCancelled = false;
+        startMs = System.currentTimeMillis();
+        while (System.currentTimeMillis() - startMs < 1500 && orderTimingWheel.size() > 0) {
+            orderTimingWheel.advance(timeout -> {
+                for (int i = 0; i < timeoutCount; i++) {
+                    if (orderTimeouts[i] == timeout) {
+                        if (System.nanoTime() - addedNs[i] < TimeUnit.MILLISECONDS.toNanos(i * 25L)) {
+                            earlyCount.incrementAndGet();
+                        }
+                        expiredIndexes.add(i);
+                    }
+                }
+            });
+            if (!lateCancelled && expiredIndexes.size() >= 4) {
+                Assert.assertFalse(orderTimeouts[expiredIndexes.get(0)].cancel());
+                Assert.assertTrue(orderTimeouts[timeoutCount - 2].cancel());
+                lateCancelled = true;
+            }
+            Thread.sleep(2);
+        }
+        Assert.assertEquals(orderTimingWheel.size(), 0);
+        Assert.assertEquals(earlyCount.get(), 0);
+        List<Integer> expectedIndexes = new ArrayList<>();
+        for (int i = 0; i < timeoutCount; i++) {
+            if (i % 4 != 1 && i != timeoutCount - 2) {
+                expectedIndexes.add(i);
+            }
+        }
+        Assert.assertEquals(expiredIndexes, expectedIndexes);
+        for (int i = 0; i < timeoutCount; i++) {
+            Assert.assertEquals(orderTimeouts[i].isExpired(), expectedIndexes.contains(i));
+            Assert.assertEquals(orderTimeouts[i].isCancelled(), !expectedIndexes.contains(i));
+        }
+
+        CallbackExecutorManager callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.DefaultOption);
+        callbackExecutorManager.start();
+        try {
+            List<CallbackCommand> callbackCommands = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                CallbackCommand callbackCommand = new CallbackCommand(new PingCommand(), callbackCommandResult -> {}, callbackCommandResult -> {});
+                callbackExecutorManager.getTimingWheel().add(callbackCommand, 120, TimeUnit.SECONDS);
+                callbackCommands.add(callbackCommand);
+            }
+            Assert.assertEquals(callbackExecutorManager.getTimingWheel().size(), 1000);
+            for (CallbackCommand callbackCommand : callbackCommands) {
+                callbackCommand.close();
+            }
+            Assert.assertEquals(callbackExecutorManager.getTimingWheel().size(), 0);
+        } finally {
+            callbackExecutorManager.stop();
+        }
+    }
+
+    @Test
+    public void testMillisecondDeadline() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread serverThread = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    InputStream inputStream = socket.getInputStream();
+                    OutputStream outputStream = socket.getOutputStream();
+                    byte[] buf = new byte[64];
+                    if (readFully(inputStream, buf, 0, 64) < 64) {
+                        return;
+                    }
+                    byte[] result = new byte[64];
+                    result[0] = ICommand.MAGIC;
+                    result[1] = ICommand.VERSION;
+                    result[2] = ICommand.COMMAND_TYPE_INIT;
+                    System.arraycopy(buf, 3, result, 3, 16);
+                    outputStream.write(result);
+                    outputStream.flush();
+                    while (inputStream.read(buf) >= 0) {
+                    }
+                } catch (IOException ignored) {}
+            });
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            SlockClient client = new SlockClient("127.0.0.1", serverSocket.getLocalPort());
+            client.setMillisecondTimeoutGrace(20);
+            client.enableAsyncCallback();
+            client.open();
+            try {
+                int timeout = (ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16) | 50;
+                Lock lock = client.newLock("millisecondDeadline", timeout, 10);
+                long startNs = System.nanoTime();
+                try {
+                    lock.acquire();
+                    Assert.fail("lock acquire should time out");
+                } catch (ClientCommandTimeoutException ignored) {}
+                long elapsedMs = (System.nanoTime() - startNs) / 1000000;
+                System.out.println("Millisecond Deadline Sync Timeout: " + elapsedMs + "ms");
+                Assert.assertTrue(elapsedMs >= 60 && elapsedMs < 500);
+
+                Lock asyncLock = client.newLock("millisecondDeadlineAsync", timeout, 10);
+                startNs = System.nanoTime();
+                CallbackFuture<Boolean> callbackFuture = asyncLock.acquire(future -> {});
+                try {
+                    callbackFuture.get(5, TimeUnit.SECONDS);
+                    Assert.fail("lock acquire should time out");
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof ClientCommandTimeoutException);
+                }
+                elapsedMs = (System.nanoTime() - startNs) / 1000000;
+                System.out.println("Millisecond Deadline Async Timeout: " + elapsedMs + "ms");
+                Assert.assertTrue(elapsedMs >= 60 && elapsedMs < 500);
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testCompletionStageAsync() throws Exception {
+        int lockCount = 2000;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            Lock lock = client.newLock("testCompletionStageAsync", 5, 10);
+            Assert.assertTrue(lock.acquireAsync().thenCompose(result -> lock.releaseAsync()).get(10, TimeUnit.SECONDS));
+            try {
+                lock.releaseAsync().get(10, TimeUnit.SECONDS);
+                throw new Exception("release unlocked lock succed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof LockUnlockedException);
+            }
+
+            ReentrantLock reentrantLock = client.newReentrantLock("testCompletionStageAsyncReentrant", 5, 10);
+            Assert.assertTrue(reentrantLock.acquireAsync().thenCompose(result -> reentrantLock.acquireAsync())
+                    .thenCompose(result -> reentrantLock.releaseAsync()).thenCompose(result -> reentrantLock.releaseAsync())
+                    .get(10, TimeUnit.SECONDS));
+
+            List<Lock> locks = new ArrayList<>();
+            for (int i = 0; i < lockCount; i++) {
+                locks.add(client.newLock("testCompletionStageAsync:" + i, 5, 10));
+            }
+            CountDownLatch callbackLatch = new CountDownLatch(lockCount);
+            for (Lock l : locks) {
+                l.acquire(callbackCommandResult -> {
+                    try {
+                        l.release(releaseCommandResult -> callbackLatch.countDown());
+                    } catch (SlockException e) {
+                        callbackLatch.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(callbackLatch.await(30, TimeUnit.SECONDS));
+
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (Lock l : locks) {
+                futures.add(l.acquireAsync().thenCompose(result -> l.releaseAsync()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            for (CompletableFuture<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testInlineDispatch() throws Exception {
+        int lockCount = 500;
+        ExecutorOption[] executorOptions = new ExecutorOption[]{ExecutorOption.DefaultOption, ExecutorOption.InlineOption};
+        for (ExecutorOption executorOption : executorOptions) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.enableAsyncCallback(executorOption);
+            client.open();
+            try {
+                CountDownLatch countDownLatch = new CountDownLatch(lockCount);
+                AtomicInteger succedCount = new AtomicInteger(0);
+                for (int i = 0; i < lockCount; i++) {
+                    Lock lock = client.newLock("testInlineDispatch:" + i, 5, 10);
+                    lock.acquire((byte) 0, callbackCommandResult -> {
+                        try {
+                            callbackCommandResult.getResult();
+                            lock.release((byte) 0, releaseCommandResult -> {
+                                try {
+                                    releaseCommandResult.getResult();
+                                    succedCount.incrementAndGet();
+                                } catch (SlockException ignored) {}
+                                countDownLatch.countDown();
+                            });
+                        } catch (SlockException e) {
+                            countDownLatch.countDown();
+                        }
+                    });
+                }
+                Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+                Assert.assertEquals(succedCount.get(), lockCount);
+                CallbackDispatchStats dispatchStats = client.getCallbackDispatchStats();
+                if (executorOption.getDispatchMode() == ExecutorOption.DISPATCH_MODE_INLINE) {
+                    Assert.assertEquals(dispatchStats.getInlineCount(), lockCount * 2L);
+                    Assert.assertEquals(dispatchStats.getExecutorCount(), 0);
+                } else {
+                    Assert.assertEquals(dispatchStats.getExecutorCount(), lockCount * 2L);
+                }
+
+                AtomicReference<String> threadName = new AtomicReference<>();
+                CountDownLatch directLatch = new CountDownLatch(1);
+                client.sendCommand(new PingCommand(), callbackCommandResult -> {
+                    threadName.set(Thread.currentThread().getName());
+                    directLatch.countDown();
+                }, CallbackExecutorManager.DirectExecutor);
+                Assert.assertTrue(directLatch.await(10, TimeUnit.SECONDS));
+                Assert.assertFalse(threadName.get().startsWith("jaslock-callback-"));
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testCallbackFutureCancel() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            CallbackFuture<Integer> callbackFuture = new CallbackFuture<>(null);
+            CallbackFuture<Integer> applyFuture = callbackFuture.thenApply(v -> v * 2);
+            CountDownLatch countDownLatch = new CountDownLatch(4);
+            AtomicInteger resultSum = new AtomicInteger(0);
+            for (int j = 0; j < 4; j++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        resultSum.addAndGet(callbackFuture.get(10, TimeUnit.SECONDS));
+                    } catch (Exception ignored) {}
+                    countDownLatch.countDown();
+                });
+                thread.start();
+            }
+            Assert.assertTrue(callbackFuture.setResult(i));
+            Assert.assertFalse(callbackFuture.setResult(i + 1));
+            Assert.assertFalse(callbackFuture.cancel(true));
+            Assert.assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(resultSum.get(), i * 4);
+            Assert.assertEquals((int) applyFuture.get(10, TimeUnit.SECONDS), i * 2);
+        }
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            Lock lock1 = client.newLock("testCallbackFutureCancel", 5, 10);
+            lock1.acquire();
+            Lock lock2 = client.newLock("testCallbackFutureCancel", 5, 10);
+            AtomicInteger callbackCount = new AtomicInteger(0);
+            CallbackFuture<Boolean> callbackFuture = lock2.acquire(f -> callbackCount.incrementAndGet());
+            CompletableFuture<Boolean> completableFuture = client.newLock("testCallbackFutureCancel", 5, 10).acquireAsync();
+            Thread.sleep(50);
+            Assert.assertFalse(callbackFuture.isDone());
+            Assert.assertTrue(callbackFuture.cancel(true));
+            Assert.assertTrue(callbackFuture.isCancelled());
+            Assert.assertTrue(completableFuture.cancel(true));
+            try {
+                callbackFuture.get();
+                throw new Exception("get canceled future succed");
+            } catch (CancellationException ignored) {}
+            Assert.assertTrue(callbackFuture.getException() instanceof ClientCommandCanceledException);
+            lock1.release();
+
+            Lock lock3 = client.newLock("testCallbackFutureCancel", 0, 10);
+            lock3.acquire();
+            lock3.release();
+            Thread.sleep(50);
+            Assert.assertEquals(callbackCount.get(), 1);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testInflightWindowReleaseOnFailure() throws Exception {
+        InflightWindow inflightWindow = new InflightWindow(InflightOption.asyncWait(1));
+        Assert.assertTrue(inflightWindow.acquireOrQueue(1, () -> {}));
+        AtomicInteger runCount = new AtomicInteger(0);
+        Assert.assertFalse(inflightWindow.acquireOrQueue(1, () -> {
+            runCount.incrementAndGet();
+            throw new IllegalStateException("queued task failed");
+        }));
+        AtomicReference<Thread> runThread = new AtomicReference<>(null);
+        Assert.assertFalse(inflightWindow.acquireOrQueue(1, () -> {
+            runThread.set(Thread.currentThread());
+            runCount.incrementAndGet();
+        }));
+        Assert.assertEquals(inflightWindow.getQueuedCount(), 2);
+        inflightWindow.release(1);
+        long startMs = System.currentTimeMillis();
+        while (runCount.get() < 2 && System.currentTimeMillis() - startMs < 5000) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(runCount.get(), 2);
+        Assert.assertNotSame(runThread.get(), Thread.currentThread());
+        Assert.assertEquals(inflightWindow.getQueuedCount(), 0);
+        Assert.assertEquals(inflightWindow.getInflightCount(), 1);
+        inflightWindow.release(1);
+        Assert.assertEquals(inflightWindow.getInflightCount(), 0);
+
+        InflightWindow expireInflightWindow = new InflightWindow(new InflightOption(1, InflightOption.ADMISSION_POLICY_ASYNC_WAIT, 50, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(expireInflightWindow.acquireOrQueue(1, () -> {}));
+        CompletableFuture<ClientInflightLimitException> rejectFuture = new CompletableFuture<>();
+        Assert.assertFalse(expireInflightWindow.acquireOrQueue(1, runCount::incrementAndGet, rejectFuture::complete));
+        Assert.assertNotNull(rejectFuture.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(expireInflightWindow.getQueuedCount(), 0);
+        Assert.assertEquals(expireInflightWindow.getRejectedCount(), 1);
+        expireInflightWindow.release(1);
+        Thread.sleep(50);
+        Assert.assertEquals(runCount.get(), 2);
+        Assert.assertEquals(expireInflightWindow.getInflightCount(), 0);
+
+        CallbackExecutorManager callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.DefaultOption);
+        callbackExecutorManager.start();
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback(callbackExecutorManager);
+        client.setInflightOption(InflightOption.asyncWait(1));
+        try {
+            AtomicInteger callbackCount = new AtomicInteger(0);
+            Lock lock = client.newLock("testInflightWindowReleaseOnFailure", (ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16) | 20, 10);
+            try {
+                lock.acquire(callbackFuture -> callbackCount.incrementAndGet());
+                Assert.fail("unconnected client should reject the command");
+            } catch (ClientUnconnectException ignored) {}
+            Assert.assertEquals(client.getInflightWindow().getInflightCount(), 0);
+            Thread.sleep(200);
+            Assert.assertEquals(callbackCount.get(), 0);
+            Assert.assertEquals(client.getInflightWindow().getInflightCount(), 0);
+        } finally {
+            callbackExecutorManager.stop();
+        }
+    }
+
+    @Test
+    public void testInflightWindow() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            client.setInflightOption(InflightOption.failFast(1));
+            Lock lock1 = client.newLock("testInflightWindow", 5, 10);
+            lock1.acquire();
+            CallbackFuture<Boolean> callbackFuture = client.newLock("testInflightWindow", 5, 10).acquire(f -> {});
+            Assert.assertEquals(client.getInflightWindow().getInflightCount(), 1);
+            try {
+                client.newLock("testInflightWindow:other", 5, 10).acquire(f -> {});
+                throw new Exception("acquire over in-flight window succed");
+            } catch (ClientInflightLimitException ignored) {}
+            Assert.assertEquals(client.getInflightWindow().getRejectedCount(), 1);
+            client.setInflightOption(null);
+            lock1.release();
+            Assert.assertTrue(callbackFuture.get(10, TimeUnit.SECONDS));
+
+            int maxInflight = 16, lockCount = 5000;
+            client.setInflightOption(InflightOption.asyncWait(maxInflight));
+            InflightWindow inflightWindow = client.getInflightWindow();
+            CountDownLatch countDownLatch = new CountDownLatch(lockCount);
+            AtomicInteger maxObserved = new AtomicInteger(0);
+            AtomicInteger succedCount = new AtomicInteger(0);
+            for (int i = 0; i < lockCount; i++) {
+                Lock lock = client.newLock("testInflightWindow:" + i, 5, 10);
+                lock.acquire((byte) 0, callbackCommandResult -> {
+                    maxObserved.accumulateAndGet(inflightWindow.getInflightCount(), Math::max);
+                    try {
+                        callbackCommandResult.getResult();
+                        succedCount.incrementAndGet();
+                    } catch (SlockException ignored) {}
+                    countDownLatch.countDown();
+                });
+            }
+            Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+            Assert.assertEquals(succedCount.get(), lockCount);
+            Assert.assertTrue(maxObserved.get() <= maxInflight);
+            Thread.sleep(50);
+            Assert.assertEquals(inflightWindow.getInflightCount(), 0);
+            Assert.assertEquals(inflightWindow.getQueuedCount(), 0);
+
+            client.setInflightOption(InflightOption.block(2));
+            List<Thread> threads = new ArrayList<>();
+            AtomicInteger blockSuccedCount = new AtomicInteger(0);
+            for (int i = 0; i < 8; i++) {
+                int index = i;
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < 100; j++) {
+                            Lock lock = client.newLock("testInflightWindowBlock:" + index + ":" + j, 5, 10);
+                            lock.acquire();
+                            lock.release();
+                            blockSuccedCount.incrementAndGet();
+                        }
+                    } catch (SlockException ignored) {}
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join(60000);
+            }
+            Assert.assertEquals(blockSuccedCount.get(), 800);
+            Assert.assertEquals(client.getInflightWindow().getRejectedCount(), 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testStripedExecutor() throws Exception {
+        int taskCount = 20000, keyCount = 64;
+        Random taskRandom = new Random(17);
+        byte[][] keys = new byte[keyCount][];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = KeyNormalizer.DefaultNormalizer.normalize("testStripedExecutor:" + i);
+        }
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(2, 4, 120, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(65536), (r, executor) -> r.run());
+        StripedExecutor stripedExecutor = new StripedExecutor(threadPoolExecutor, 16);
+        int[] nextSequences = new int[keyCount];
+        int[] submitSequences = new int[keyCount];
+        AtomicInteger outOfOrderCount = new AtomicInteger(0);
+        CountDownLatch countDownLatch = new CountDownLatch(taskCount);
+        try {
+            for (int i = 0; i < taskCount; i++) {
+                int key = taskRandom.nextInt(100) < 80 ? taskRandom.nextInt(4) : taskRandom.nextInt(keyCount), sequence = submitSequences[key]++;
+                stripedExecutor.execute(keys[key], () -> {
+                    if (nextSequences[key] != sequence) {
+                        outOfOrderCount.incrementAndGet();
+                    }
+                    nextSequences[key] = sequence + 1;
+                    countDownLatch.countDown();
+                });
+            }
+            Assert.assertTrue(countDownLatch.await(60, TimeUnit.SECONDS));
+            Assert.assertEquals(outOfOrderCount.get(), 0);
+        } finally {
+            threadPoolExecutor.shutdown();
+        }
+
+        int lockCount = 2000;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback(ExecutorOption.striped(4, 16));
+        client.open();
+        try {
+            AtomicInteger nextIndex = new AtomicInteger(0);
+            AtomicInteger callbackOutOfOrderCount = new AtomicInteger(0);
+            CountDownLatch callbackLatch = new CountDownLatch(lockCount);
+            for (int i = 0; i < lockCount; i++) {
+                int index = i;
+                Lock lock = new Lock(client.selectDatabase((byte) 0), KeyNormalizer.DefaultNormalizer.normalize("testStripedCallbackOrder"),
+                        LockCommand.genLockId(), 5, 10, (short) 0xffff, (byte) 0);
+                lock.acquire((byte) 0, callbackCommandResult -> {
+                    if (!nextIndex.compareAndSet(index, index + 1)) {
+                        callbackOutOfOrderCount.incrementAndGet();
+                    }
+                    callbackLatch.countDown();
+                });
+            }
+            Assert.assertTrue(callbackLatch.await(60, TimeUnit.SECONDS));
+            Assert.assertEquals(callbackOutOfOrderCount.get(), 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        CallbackExecutorManager callbackExecutorManager = new CallbackExecutorManager(ExecutorOption.virtual());
+        callbackExecutorManager.start();
+        try {
+            Assert.assertEquals(ExecutorOption.virtual().getDispatchMode(), ExecutorOption.DISPATCH_MODE_VIRTUAL);
+            Assert.assertEquals(callbackExecutorManager.getStripedExecutor(), null);
+        } finally {
+            callbackExecutorManager.stop();
+        }
+
+        ThreadFactory threadFactory = VirtualThreads.isSupported() ? VirtualThreads.newThreadFactory("testVirtualThreadExecutor-") : Thread::new;
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.open();
+        try {
+            AtomicReference<Exception> exception = new AtomicReference<>(null);
+            AtomicInteger holders = new AtomicInteger(0);
+            AtomicInteger overlapCount = new AtomicInteger(0);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                Thread thread = threadFactory.newThread(() -> {
+                    Lock lock = client.newLock("testVirtualThreadExecutor", 60, 10);
+                    try {
+                        lock.acquire();
+                        if (holders.incrementAndGet() != 1) {
+                            overlapCount.incrementAndGet();
+                        }
+                        holders.decrementAndGet();
+                        lock.release();
+                    } catch (Exception e) {
+                        exception.set(e);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (exception.get() != null) {
+                throw exception.get();
+            }
+            Assert.assertEquals(overlapCount.get(), 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testNearLockLeaseRenew() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.setNearLockOption(NearLockOption.handoff(64));
+        client.open();
+        try {
+            int expried = (ICommand.EXPRIED_FLAG_MILLISECOND_TIME << 16) | 300;
+            AtomicReference<Exception> exception = new AtomicReference<>(null);
+            AtomicInteger holders = new AtomicInteger(0);
+            AtomicInteger overlapCount = new AtomicInteger(0);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread thread = new Thread(() -> {
+                    for (int j = 0; j < 8; j++) {
+                        Lock lock = client.newLock("near-lock-lease-renew", 5, expried);
+                        try {
+                            lock.acquire();
+                            if (holders.incrementAndGet() != 1) {
+                                overlapCount.incrementAndGet();
+                            }
+                            Thread.sleep(40);
+                            holders.decrementAndGet();
+                            lock.release();
+                        } catch (Exception e) {
+                            exception.set(e);
+                        }
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (exception.get() != null) {
+                throw exception.get();
+            }
+            Assert.assertEquals(overlapCount.get(), 0);
+
+            NearLockGroup nearLockGroup = client.selectDatabase((byte) 0).getNearLockGroup();
+            Assert.assertTrue(nearLockGroup.getHandoffCount() > 0);
+            Assert.assertTrue(nearLockGroup.getRenewCount() > 0);
+            Assert.assertEquals(nearLockGroup.getQueueCount(), 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testNearLockOwner() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.setNearLockOption(NearLockOption.handoff(16));
+        client.open();
+        try {
+            Lock countLock1 = client.newLock("near-lock-owner-count", 1, 10);
+            countLock1.setCount((short) 10);
+            Lock countLock2 = client.newLock("near-lock-owner-count", 1, 10);
+            countLock2.setCount((short) 10);
+            countLock1.acquire();
+            countLock2.acquire();
+            countLock2.release();
+            countLock1.release();
+
+            Lock lock1 = client.newLock("near-lock-owner", 1, 10);
+            Lock lock2 = client.newLock("near-lock-owner", 1, 10);
+            lock1.acquire();
+            AtomicReference<Exception> exception = new AtomicReference<>(null);
+            CountDownLatch acquiredLatch = new CountDownLatch(1);
+            CountDownLatch releaseLatch = new CountDownLatch(1);
+            Thread thread = new Thread(() -> {
+                try {
+                    lock2.acquire();
+                    acquiredLatch.countDown();
+                    releaseLatch.await();
+                    lock2.release();
+                } catch (Exception e) {
+                    exception.set(e);
+                    acquiredLatch.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            NearLockGroup nearLockGroup = client.selectDatabase((byte) 0).getNearLockGroup();
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+            lock1.release();
+            Assert.assertTrue(acquiredLatch.await(5, TimeUnit.SECONDS));
+            if (exception.get() != null) {
+                throw exception.get();
+            }
+            Assert.assertEquals(nearLockGroup.getHandoffCount(), 1);
+            Assert.assertArrayEquals(lock2.getLockId(), lock1.getLockId());
+            lock2.update();
+            releaseLatch.countDown();
+            thread.join();
+            if (exception.get() != null) {
+                throw exception.get();
+            }
+            Assert.assertEquals(nearLockGroup.getQueueCount(), 0);
+
+            int timeout = 5;
+            Assert.assertEquals(NearLockGroup.remainingTimeout(timeout, TimeUnit.SECONDS.toNanos(6)), timeout);
+            Assert.assertEquals(NearLockGroup.remainingTimeout(timeout, TimeUnit.MILLISECONDS.toNanos(1500)),
+                    (ICommand.TIMEOUT_FLAG_MILLISECOND_TIME << 16) | 1500);
+            Assert.assertEquals(NearLockGroup.remainingTimeout(timeout, 0), 0);
+            Assert.assertEquals(NearLockGroup.remainingTimeout((ICommand.TIMEOUT_FLAG_MINUTE_TIME << 16) | 5, TimeUnit.SECONDS.toNanos(120)), 120);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testNearLock() throws Exception {
+        int threadCount = 64;
+        int loopCount = 50;
+
+        for (NearLockOption nearLockOption : new NearLockOption[]{NearLockOption.DefaultOption, NearLockOption.handoff(16)}) {
+            SlockClient client = new SlockClient(clientHost, clinetPort);
+            client.setNearLockOption(nearLockOption);
+            client.open();
+            try {
+                String lockKey = "near-lock-" + nearLockOption.getMaxHandoffs();
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger holders = new AtomicInteger(0);
+                AtomicInteger overlapCount = new AtomicInteger(0);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    Thread thread = new Thread(() -> {
+                        for (int j = 0; j < loopCount; j++) {
+                            Lock lock = client.newLock(lockKey, 60, 10);
+                            try {
+                                lock.acquire();
+                                if (holders.incrementAndGet() != 1) {
+                                    overlapCount.incrementAndGet();
+                                }
+                                count.incrementAndGet();
+                                holders.decrementAndGet();
+                                lock.release();
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+                Assert.assertEquals(count.get(), threadCount * loopCount);
+                Assert.assertEquals(overlapCount.get(), 0);
+
+                NearLockGroup nearLockGroup = client.selectDatabase((byte) 0).getNearLockGroup();
+                if (nearLockOption.isEnabled()) {
+                    Assert.assertTrue(client.newLock(lockKey, 60, 10) instanceof NearLock);
+                    Assert.assertEquals(nearLockGroup.getRemoteAcquireCount() + nearLockGroup.getHandoffCount(), threadCount * loopCount);
+                    Assert.assertTrue(nearLockGroup.getHandoffCount() > 0);
+                    Assert.assertEquals(nearLockGroup.getQueueCount(), 0);
+                } else {
+                    Assert.assertNull(nearLockGroup);
+                }
+
+                Lock lock = client.newLock(lockKey, 0, 10);
+                lock.acquire();
+                lock.release();
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void testLeaseWatchdog() throws Exception {
+        int lockCount = 5000;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.open();
+        try {
+            Assert.assertTrue(client.enableLeaseWatchdog(LeaseWatchdogOption.batch(512)));
+            Assert.assertFalse(client.enableLeaseWatchdog());
+            LeaseWatchdog leaseWatchdog = client.getLeaseWatchdog();
+            List<SlockException> failures = Collections.synchronizedList(new ArrayList<>());
+            leaseWatchdog.setFailureListener((lock, e) -> failures.add(e));
+
+            List<Lock> locks = new ArrayList<>(lockCount);
+            CommandBatch commandBatch = client.batch();
+            for (int i = 0; i < lockCount; i++) {
+                Lock lock = client.newLock("lease-watchdog-" + i, 5, 1);
+                locks.add(lock);
+                commandBatch.acquire(lock);
+            }
+            for (LockCommandResult lockCommandResult : commandBatch.executeAll()) {
+                Assert.assertEquals(lockCommandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+            }
+            for (Lock lock : locks) {
+                Assert.assertTrue(leaseWatchdog.register(lock));
+            }
+            Assert.assertFalse(leaseWatchdog.register(locks.get(0)));
+            Assert.assertFalse(leaseWatchdog.register(client.newLock("lease-watchdog-unlimited", 5, 0)));
+
+            Lock lostLock = client.newLock("lease-watchdog-0", 5, 1);
+            Assert.assertTrue(leaseWatchdog.register(lostLock));
+
+            long startMs = System.currentTimeMillis();
+            while (leaseWatchdog.getStats().getRenewedCount() < lockCount * 2L && System.currentTimeMillis() - startMs < 10000) {
+                Thread.sleep(50);
+            }
+            LeaseWatchdogStats stats = leaseWatchdog.getStats();
+            Assert.assertTrue(stats.getRenewedCount() >= lockCount * 2L);
+            Assert.assertTrue(stats.getBatchCount() < stats.getRenewedCount() / 10);
+            Assert.assertEquals(stats.getFailedCount(), 1);
+            Assert.assertEquals(failures.size(), 1);
+            Assert.assertTrue(failures.get(0) instanceof LockTimeoutException);
+            Assert.assertFalse(leaseWatchdog.isRegistered(lostLock));
+            Assert.assertEquals(leaseWatchdog.size(), lockCount);
+
+            for (Lock lock : locks) {
+                lock.release();
+            }
+            Assert.assertEquals(leaseWatchdog.size(), 0);
+
+            Lock batchLock = client.newLock("lease-watchdog-batch", 5, 1);
+            batchLock.acquire();
+            Assert.assertTrue(leaseWatchdog.register(batchLock));
+            for (LockCommandResult lockCommandResult : client.batch().release(batchLock).executeAll()) {
+                Assert.assertEquals(lockCommandResult.getResult(), ICommand.COMMAND_RESULT_SUCCED);
+            }
+            Assert.assertFalse(leaseWatchdog.isRegistered(batchLock));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testAcquireAll() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            SlockDatabase database = client.selectDatabase((byte) 0);
+            AtomicReference<Exception> exception = new AtomicReference<>(null);
+            AtomicInteger holders = new AtomicInteger(0);
+            AtomicInteger overlapCount = new AtomicInteger(0);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                boolean reversed = i % 2 == 0;
+                boolean async = i % 4 < 2;
+                Thread thread = new Thread(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        Lock lock1 = client.newLock(reversed ? "acquire-all-2" : "acquire-all-1", 10, 10);
+                        Lock lock2 = client.newLock(reversed ? "acquire-all-1" : "acquire-all-2", 10, 10);
+                        try {
+                            if (async) {
+                                Assert.assertTrue(database.acquireAllAsync(lock1, lock2).get());
+                            } else {
+                                database.acquireAll(lock1, lock2);
+                            }
+                            if (holders.incrementAndGet() != 1) {
+                                overlapCount.incrementAndGet();
+                            }
+                            holders.decrementAndGet();
+                            if (async) {
+                                Assert.assertTrue(database.releaseAllAsync(lock1, lock2).get());
+                            } else {
+                                database.releaseAll(lock1, lock2);
+                            }
+                        } catch (Exception e) {
+                            exception.set(e);
+                        }
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (exception.get() != null) {
+                throw exception.get();
+            }
+            Assert.assertEquals(overlapCount.get(), 0);
+
+            Lock holdLock = client.newLock("acquire-all-2", 5, 10);
+            holdLock.acquire();
+            Lock lock1 = client.newLock("acquire-all-1", 1, 10);
+            Lock lock2 = client.newLock("acquire-all-2", 1, 10);
+            try {
+                database.acquireAll(lock2, lock1);
+                Assert.fail();
+            } catch (LockTimeoutException ignored) {}
+            try {
+                database.acquireAllAsync(lock1, lock2).get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof LockTimeoutException);
+            }
+            Lock checkLock = client.newLock("acquire-all-1", 0, 10);
+            checkLock.acquire();
+            checkLock.release();
+            holdLock.release();
+
+            lock1 = client.newLock("acquire-all-1", 1, 10);
+            lock2 = client.newLock("acquire-all-2", 1, 10);
+            try {
+                MultiLock.acquireAll(newSendCommandsFailingClient(client), lock1, lock2);
+                Assert.fail();
+            } catch (ClientCommandTimeoutException ignored) {}
+            for (String lockKey : new String[]{"acquire-all-1", "acquire-all-2"}) {
+                checkLock = client.newLock(lockKey, 0, 10);
+                checkLock.acquire();
+                checkLock.release();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    private static ISlockClient newSendCommandsFailingClient(ISlockClient client) {
+        return (ISlockClient) java.lang.reflect.Proxy.newProxyInstance(ISlockClient.class.getClassLoader(), new Class<?>[]{ISlockClient.class}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(client, args);
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (method.getName().equals("sendCommands") && args.length == 1) {
+                throw new ClientCommandTimeoutException("Send commands failed");
+            }
+            return result;
+        });
+    }
+
+    @Test
+    public void testPermitLeasing() throws Exception {
+        int threadCount = 16;
+        int loopCount = 500;
+        short permitCount = 4;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            for (PermitLeaseOption permitLeaseOption : new PermitLeaseOption[]{null, new PermitLeaseOption(2, permitCount, 100)}) {
+                io.github.snower.jaslock.Semaphore semaphore = client.newSemaphore("permit-leasing", permitCount, 10, 10);
+                semaphore.setPermitLeaseOption(permitLeaseOption);
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger holders = new AtomicInteger(0);
+                AtomicInteger overflowCount = new AtomicInteger(0);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    boolean async = i % 2 == 0;
+                    Thread thread = new Thread(() -> {
+                        for (int j = 0; j < loopCount; j++) {
+                            try {
+                                if (async) {
+                                    Assert.assertTrue(semaphore.acquireAsync().get());
+                                } else {
+                                    semaphore.acquire();
+                                }
+                                if (holders.incrementAndGet() > permitCount) {
+                                    overflowCount.incrementAndGet();
+                                }
+                                count.incrementAndGet();
+                                holders.decrementAndGet();
+                                if (async) {
+                                    Assert.assertTrue(semaphore.releaseAsync().get());
+                                } else {
+                                    semaphore.release();
+                                }
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+                Assert.assertEquals(count.get(), threadCount * loopCount);
+                Assert.assertEquals(overflowCount.get(), 0);
+
+                PermitPool permitPool = semaphore.getPermitPool();
+                if (permitPool == null) {
+                    continue;
+                }
+                Assert.assertTrue(permitPool.getLocalAcquireCount() > permitPool.getRemoteAcquireCount());
+                Assert.assertTrue(permitPool.getLeasedCount() <= permitCount);
+
+                long waitStartMs = System.currentTimeMillis();
+                while ((permitPool.getLeasedCount() > 0 || permitPool.getReleasingCount() > 0) && System.currentTimeMillis() - waitStartMs < 5000) {
+                    Thread.sleep(20);
+                }
+                Assert.assertEquals(permitPool.getLeasedCount(), 0);
+
+                semaphore.acquire();
+                Assert.assertEquals(permitPool.getLeasedCount(), 2);
+                semaphore.release();
+                semaphore.close();
+                Assert.assertNull(semaphore.getPermitPool());
+                Assert.assertEquals(permitPool.getLeasedCount(), 0);
+                io.github.snower.jaslock.Semaphore checkSemaphore = client.newSemaphore("permit-leasing", permitCount, 0, 10);
+                for (int i = 0; i < permitCount; i++) {
+                    checkSemaphore.acquire();
+                }
+                for (int i = 0; i < permitCount; i++) {
+                    checkSemaphore.release();
+                }
+            }
+
+            MaxConcurrentFlow maxConcurrentFlow = client.newMaxConcurrentFlow("permit-leasing-flow", (short) 2, 5, 10);
+            maxConcurrentFlow.setPermitLeaseOption(PermitLeaseOption.block(2, 2));
+            maxConcurrentFlow.acquire();
+            maxConcurrentFlow.acquire();
+            Assert.assertEquals(maxConcurrentFlow.getPermitPool().getRemoteAcquireCount(), 2);
+            maxConcurrentFlow.release();
+            maxConcurrentFlow.release();
+            maxConcurrentFlow.acquire();
+            maxConcurrentFlow.release();
+            Assert.assertEquals(maxConcurrentFlow.getPermitPool().getLocalAcquireCount(), 2);
+            maxConcurrentFlow.close();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testPermitLeaseRenew() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            int expried = (ICommand.EXPRIED_FLAG_MILLISECOND_TIME << 16) | 400;
+            io.github.snower.jaslock.Semaphore semaphore = client.newSemaphore("permit-lease-renew", (short) 4, 5, expried);
+            semaphore.setPermitLeaseOption(new PermitLeaseOption(2, 4, 5000));
+            PermitPool permitPool = semaphore.getPermitPool();
+            Assert.assertFalse(permitPool.releaseAsync().get());
+
+            semaphore.acquire();
+            semaphore.release();
+            Assert.assertEquals(permitPool.getRemoteAcquireCount(), 2);
+            Assert.assertEquals(permitPool.getIdleCount(), 2);
+
+            Thread.sleep(250);
+            semaphore.acquire();
+            Assert.assertEquals(permitPool.getRenewCount(), 1);
+            Assert.assertEquals(permitPool.getRemoteAcquireCount(), 2);
+            Assert.assertTrue(semaphore.acquireAsync().get());
+            Assert.assertEquals(permitPool.getRenewCount(), 2);
+            Assert.assertEquals(permitPool.getLocalAcquireCount(), 2);
+            Assert.assertTrue(semaphore.releaseAsync().get());
+            semaphore.release();
+
+            Thread.sleep(350);
+            semaphore.acquire();
+            Assert.assertEquals(permitPool.getRenewCount(), 2);
+            Assert.assertEquals(permitPool.getRemoteAcquireCount(), 4);
+            semaphore.release();
+            semaphore.close();
+
+            SlockDatabase failingDatabase = new SlockDatabase(newSendCommandsFailingClient(client), (byte) 0, (short) 0, (short) 0);
+            io.github.snower.jaslock.Semaphore failingSemaphore = new io.github.snower.jaslock.Semaphore(failingDatabase, "permit-lease-reserve", (short) 4, 5, 10);
+            failingSemaphore.setPermitLeaseOption(new PermitLeaseOption(2, 4, 5000));
+            try {
+                failingSemaphore.acquire();
+                Assert.fail();
+            } catch (ClientCommandTimeoutException ignored) {}
+            Assert.assertEquals(failingSemaphore.getPermitPool().getLeasedCount(), 0);
+            failingSemaphore.close();
+            io.github.snower.jaslock.Semaphore checkSemaphore = client.newSemaphore("permit-lease-reserve", (short) 4, 0, 10);
+            for (int i = 0; i < 4; i++) {
+                checkSemaphore.acquire();
+            }
+            for (int i = 0; i < 4; i++) {
+                checkSemaphore.release();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenPrefetch() throws Exception {
+        int threadCount = 8;
+        int loopCount = 400;
+        short tokenCount = 200;
+        double period = 0.1;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            for (TokenPrefetchOption tokenPrefetchOption : new TokenPrefetchOption[]{null, TokenPrefetchOption.adaptive(64)}) {
+                TokenBucketFlow tokenBucketFlow = client.newTokenBucketFlow(tokenPrefetchOption == null ? "token-prefetch-remote" : "token-prefetch-local",
+                        tokenCount, 5, period);
+                tokenBucketFlow.setTokenPrefetchOption(tokenPrefetchOption);
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                AtomicInteger count = new AtomicInteger(0);
+                List<Thread> threads = new ArrayList<>();
+                long startMs = System.currentTimeMillis();
+                for (int i = 0; i < threadCount; i++) {
+                    boolean async = i % 2 == 0;
+                    Thread thread = new Thread(() -> {
+                        for (int j = 0; j < loopCount; j++) {
+                            try {
+                                if (async) {
+                                    Assert.assertTrue(tokenBucketFlow.acquireAsync().get());
+                                } else {
+                                    tokenBucketFlow.acquire();
+                                }
+                                count.incrementAndGet();
+                            } catch (Exception e) {
+                                exception.set(e);
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long endMs = System.currentTimeMillis();
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+                Assert.assertEquals(count.get(), threadCount * loopCount);
+                double rate = ((double) count.get()) / ((endMs - startMs) / 1000d);
+                Assert.assertTrue(rate <= tokenCount / period * 1.5);
+
+                TokenPrefetcher tokenPrefetcher = tokenBucketFlow.getTokenPrefetcher();
+                if (tokenPrefetcher == null) {
+                    continue;
+                }
+                Assert.assertTrue(tokenPrefetcher.getClaimCount() < tokenPrefetcher.getLocalAcquireCount());
+                Assert.assertTrue(tokenPrefetcher.getClaimedCount() <= count.get());
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenPrefetchExhausted() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.enableNioTransport();
+        client.open();
+        try {
+            TokenBucketFlow tokenBucketFlow = client.newTokenBucketFlow("token-prefetch-exhausted", (short) 5, 5, 3);
+            tokenBucketFlow.setTokenPrefetchOption(new TokenPrefetchOption(1, 1));
+            tokenBucketFlow.setNegativeCacheEnabled(true);
+            TokenWindowCache tokenWindowCache = tokenBucketFlow.getTokenWindowCache();
+            int acquiredCount = 0;
+            long frameCount = client.getWriteStats().getFrameCount();
+            while (acquiredCount < 20 && tokenBucketFlow.tryAcquire()) {
+                acquiredCount++;
+                frameCount = client.getWriteStats().getFrameCount();
+            }
+            Assert.assertTrue(acquiredCount >= 5 && acquiredCount < 20);
+            Assert.assertEquals(client.getWriteStats().getFrameCount() - frameCount, 1);
+            Assert.assertTrue(tokenWindowCache.isExhausted());
+            Assert.assertEquals(tokenWindowCache.getExhaustedCount(), 1);
+
+            TokenBucketFlow asyncTokenBucketFlow = client.newTokenBucketFlow("token-prefetch-chained", (short) 200, 5, 3);
+            asyncTokenBucketFlow.setTokenPrefetchOption(new TokenPrefetchOption(8, 64));
+            TokenPrefetcher tokenPrefetcher = asyncTokenBucketFlow.getTokenPrefetcher();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(asyncTokenBucketFlow.acquireAsync());
+            }
+            for (CompletableFuture<Boolean> future : futures) {
+                Assert.assertTrue(future.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(tokenPrefetcher.getLocalAcquireCount(), 16);
+            Assert.assertTrue(tokenPrefetcher.getClaimCount() <= 2);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testTokenWindowCache() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            TokenBucketFlow tokenBucketFlow = client.newTokenBucketFlow("token-window-cache", (short) 5, 5, 3);
+            tokenBucketFlow.setNegativeCacheEnabled(true);
+            TokenWindowCache tokenWindowCache = tokenBucketFlow.getTokenWindowCache();
+            int acquiredCount = 0;
+            while (acquiredCount < 20 && tokenBucketFlow.tryAcquire()) {
+                acquiredCount++;
+            }
+            Assert.assertTrue(acquiredCount >= 5 && acquiredCount < 20);
+            Assert.assertTrue(tokenWindowCache.isExhausted());
+            Assert.assertEquals(tokenWindowCache.getExhaustedCount(), 1);
+
+            int rejectCount = 0;
+            while (rejectCount < 1000 && tokenWindowCache.isExhausted()) {
+                if (!tokenBucketFlow.tryAcquire()) {
+                    rejectCount++;
+                }
+            }
+            Assert.assertTrue(tokenWindowCache.getRejectedCount() > 0);
+
+            while (tokenBucketFlow.tryAcquire()) {
+                Assert.assertFalse(tokenWindowCache.isExhausted());
+            }
+            Assert.assertTrue(tokenWindowCache.isExhausted());
+            long exhaustedUntilMillis = tokenWindowCache.getExhaustedUntilMillis();
+            tokenBucketFlow.acquire();
+            Assert.assertTrue(System.currentTimeMillis() >= exhaustedUntilMillis);
+            Assert.assertEquals(tokenWindowCache.getParkedCount(), 1);
+            Assert.assertTrue(tokenBucketFlow.acquireAsync().get());
+            while (tokenBucketFlow.tryAcquire()) {
+                Assert.assertFalse(tokenWindowCache.isExhausted());
+            }
+            exhaustedUntilMillis = tokenWindowCache.getExhaustedUntilMillis();
+            long parkedCount = tokenWindowCache.getParkedCount();
+            Assert.assertTrue(tokenBucketFlow.acquire(callbackFuture -> {}).get());
+            Assert.assertTrue(System.currentTimeMillis() >= exhaustedUntilMillis);
+            Assert.assertEquals(tokenWindowCache.getParkedCount(), parkedCount + 1);
+
+            TokenBucketFlow shortTokenBucketFlow = client.newTokenBucketFlow("token-window-cache", (short) 5, 0, 3);
+            shortTokenBucketFlow.setNegativeCacheEnabled(true);
+            while (shortTokenBucketFlow.tryAcquire()) {
+                Assert.assertFalse(shortTokenBucketFlow.getTokenWindowCache().isExhausted());
+            }
+            try {
+                shortTokenBucketFlow.acquire();
+                throw new Exception("not exhausted");
+            } catch (LockTimeoutException ignored) {}
+            try {
+                shortTokenBucketFlow.acquireAsync().get();
+                throw new Exception("not exhausted");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof LockTimeoutException);
+            }
+            try {
+                shortTokenBucketFlow.acquire(callbackFuture -> {}).get();
+                throw new Exception("not exhausted");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof LockTimeoutException);
+            }
+            Assert.assertEquals(shortTokenBucketFlow.getTokenWindowCache().getRejectedCount(), 3);
+
+            TokenBucketFlow callbackTokenBucketFlow = client.newTokenBucketFlow("token-window-cache-callback", (short) 5, 0, 3);
+            callbackTokenBucketFlow.setNegativeCacheEnabled(true);
+            TokenWindowCache callbackTokenWindowCache = callbackTokenBucketFlow.getTokenWindowCache();
+            int callbackAcquiredCount = 0;
+            try {
+                while (callbackAcquiredCount < 20) {
+                    Assert.assertTrue(callbackTokenBucketFlow.acquire(callbackFuture -> {}).get());
+                    callbackAcquiredCount++;
+                }
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof LockTimeoutException);
+            }
+            Assert.assertTrue(callbackAcquiredCount >= 5 && callbackAcquiredCount < 20);
+            Assert.assertTrue(callbackTokenWindowCache.isExhausted());
+            Assert.assertEquals(callbackTokenWindowCache.getExhaustedCount(), 1);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testSharedReadLockAsyncWaiters() throws Exception {
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableNioTransport();
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            ReadWriteLock readLock = client.newReadWriteLock("shared-read-async-waiters", 5, 60);
+            readLock.setSharedReadOption(SharedReadOption.share(1000));
+            SharedReadLock sharedReadLock = readLock.getSharedReadLock();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(readLock.acquireReadAsync());
+            }
+            for (CompletableFuture<Boolean> future : futures) {
+                Assert.assertTrue(future.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(sharedReadLock.getReaderCount(), 16);
+            Assert.assertEquals(sharedReadLock.getRemoteAcquireCount(), 1);
+            for (int i = 0; i < 16; i++) {
+                Assert.assertTrue(readLock.releaseReadAsync().get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(sharedReadLock.getReaderCount(), 0);
+            Assert.assertEquals(sharedReadLock.getRemoteReleaseCount(), 1);
+            Assert.assertFalse(sharedReadLock.releaseAsync().get());
+
+            ReadWriteLock leaseReadLock = client.newReadWriteLock("shared-read-lease", 5, (ICommand.EXPRIED_FLAG_MILLISECOND_TIME << 16) | 300);
+            leaseReadLock.setSharedReadOption(SharedReadOption.share(1000));
+            SharedReadLock leaseSharedReadLock = leaseReadLock.getSharedReadLock();
+            leaseReadLock.acquireRead();
+            Assert.assertTrue(leaseReadLock.acquireReadAsync().get());
+            Assert.assertEquals(leaseSharedReadLock.getRemoteAcquireCount(), 1);
+            Thread.sleep(200);
+            CompletableFuture<Boolean> future = leaseReadLock.acquireReadAsync();
+            Thread.sleep(50);
+            Assert.assertFalse(future.isDone());
+            leaseReadLock.releaseRead();
+            leaseReadLock.releaseRead();
+            Assert.assertTrue(future.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(leaseSharedReadLock.getRemoteAcquireCount(), 2);
+            Assert.assertEquals(leaseSharedReadLock.getReaderCount(), 1);
+            leaseReadLock.releaseRead();
+            Assert.assertEquals(leaseSharedReadLock.getRemoteReleaseCount(), 2);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testSharedScheduledExecutor() throws Exception {
+        Assert.assertSame(SharedScheduledExecutor.get(), SharedScheduledExecutor.get());
+        CountDownLatch countDownLatch = new CountDownLatch(16);
+        for (int i = 0; i < 16; i++) {
+            SharedScheduledExecutor.get().schedule(countDownLatch::countDown, i, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertTrue(countDownLatch.await(5, TimeUnit.SECONDS));
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            io.github.snower.jaslock.Semaphore semaphore = client.newSemaphore("shared-scheduled-executor", (short) 4, 5, 10);
+            semaphore.setPermitLeaseOption(new PermitLeaseOption(2, 4, 100));
+            semaphore.acquire();
+            semaphore.release();
+            semaphore.close();
+        } finally {
+            client.close();
+        }
+        int threadCount = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("jaslock-shared-schedule")) {
+                threadCount++;
+            }
+        }
+        Assert.assertEquals(threadCount, 1);
+    }
+
+    @Test
+    public void testSharedReadLock() throws Exception {
+        int threadCount = 32;
+        int loopCount = 200;
+
+        SlockClient client = new SlockClient(clientHost, clinetPort);
+        client.enableNioTransport();
+        client.enableAsyncCallback();
+        client.open();
+        try {
+            ReadWriteLock readLock = client.newReadWriteLock("shared-read-lock", 5, 60);
+            readLock.setSharedReadOption(SharedReadOption.share(1000));
+            ReadWriteLock writeLock = client.newReadWriteLock("shared-read-lock", 0, 60);
+            SharedReadLock sharedReadLock = readLock.getSharedReadLock();
+            readLock.acquireRead();
+            Assert.assertTrue(readLock.acquireReadAsync().get());
+            Assert.assertEquals(sharedReadLock.getReaderCount(), 2);
+            Assert.assertEquals(sharedReadLock.getRemoteAcquireCount(), 1);
+            try {
+                writeLock.acquireWrite();
+                writeLock.releaseWrite();
+                throw new SlockException("lock error");
+            } catch (LockTimeoutException e) {}
+            readLock.releaseRead();
+            Assert.assertTrue(readLock.releaseReadAsync().get());
+            Assert.assertEquals(sharedReadLock.getReaderCount(), 0);
+            Assert.assertEquals(sharedReadLock.getRemoteReleaseCount(), 1);
+            writeLock.acquireWrite();
+            writeLock.releaseWrite();
+
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            readLock.acquireRead();
+            Thread writerThread = new Thread(() -> {
+                try {
+                    readLock.acquireWrite();
+                    events.add("write");
+                    Thread.sleep(100);
+                    readLock.releaseWrite();
+                } catch (Exception e) {
+                    events.add(e.toString());
+                }
+            });
+            writerThread.start();
+            Thread.sleep(100);
+            Thread readerThread = new Thread(() -> {
+                try {
+                    readLock.acquireRead();
+                    events.add("read");
+                    readLock.releaseRead();
+                } catch (Exception e) {
+                    events.add(e.toString());
+                }
+            });
+            readerThread.start();
+            Thread.sleep(100);
+            Assert.assertTrue(events.isEmpty());
+            readLock.releaseRead();
+            writerThread.join();
+            readerThread.join();
+            Assert.assertEquals(events, Arrays.asList("write", "read"));
+
+            events.clear();
+            readLock.acquireRead();
+            CallbackFuture<Boolean> writeFuture = readLock.acquireWrite(callbackFuture -> events.add("write"));
+            Thread callbackReaderThread = new Thread(() -> {
+                try {
+                    readLock.acquireRead();
+                    events.add("read");
+                    readLock.releaseRead();
+                } catch (Exception e) {
+                    events.add(e.toString());
+                }
+            });
+            callbackReaderThread.start();
+            Thread.sleep(100);
+            Assert.assertTrue(events.isEmpty());
+            readLock.releaseRead();
+            Assert.assertTrue(writeFuture.get(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            Assert.assertEquals(events, Collections.singletonList("write"));
+            Assert.assertTrue(readLock.releaseWrite(callbackFuture -> {}).get(5, TimeUnit.SECONDS));
+            callbackReaderThread.join();
+            Assert.assertEquals(events, Arrays.asList("write", "read"));
+
+            for (SharedReadOption sharedReadOption : new SharedReadOption[]{null, SharedReadOption.share(1000)}) {
+                ReadWriteLock readWriteLock = client.newReadWriteLock(sharedReadOption == null ? "shared-read-remote" : "shared-read-local", 5, 60);
+                readWriteLock.setSharedReadOption(sharedReadOption);
+                AtomicReference<Exception> exception = new AtomicReference<>(null);
+                CountDownLatch startLatch = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                for (int i = 0; i < threadCount; i++) {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            startLatch.await();
+                            for (int j = 0; j < loopCount; j++) {
+                                readWriteLock.acquireRead();
+                                Thread.yield();
+                                readWriteLock.releaseRead();
+                            }
+                        } catch (Exception e) {
+                            exception.set(e);
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                    threads.add(thread);
+                }
+                long startFrameCount = client.getWriteStats().getFrameCount();
+                startLatch.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long frameCount = client.getWriteStats().getFrameCount() - startFrameCount;
+                if (exception.get() != null) {
+                    throw exception.get();
+                }
+
+                int totalCount = threadCount * loopCount;
+                if (sharedReadOption == null) {
+                    Assert.assertEquals(frameCount, totalCount * 2);
+                    continue;
+                }
+                SharedReadLock benchSharedReadLock = readWriteLock.getSharedReadLock();
+                Assert.assertEquals(benchSharedReadLock.getReadCount(), totalCount);
+                Assert.assertEquals(benchSharedReadLock.getReaderCount(), 0);
+                Assert.assertEquals(benchSharedReadLock.getRemoteAcquireCount(), benchSharedReadLock.getRemoteReleaseCount());
+                Assert.assertTrue(frameCount < totalCount * 2);
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    static byte[] dumpLegacyCommand(LockCommand command) {
+        ByteArrayOutputStream byteArrayOutputStream = new CapacityByteArrayOutputStream(64);
+        byteArrayOutputStream.write(ICommand.MAGIC);
+        byteArrayOutputStream.write(ICommand.VERSION);
+        byteArrayOutputStream.write(command.getCommandType());
+        byteArrayOutputStream.write(command.getRequestId(), 0, 16);
+        byteArrayOutputStream.write(command.getFlag());
+        byteArrayOutputStream.write(command.getDbId());
+        byteArrayOutputStream.write(command.getLockId(), 0, 16);
+        byteArrayOutputStream.write(command.getLockKey(), 0, 16);
+        byteArrayOutputStream.write(command.getTimeout() & 0xff);
+        byteArrayOutputStream.write((command.getTimeout() >> 8) & 0xff);
+        byteArrayOutputStream.write((command.getTimeout() >> 16) & 0xff);
+        byteArrayOutputStream.write((command.getTimeout() >> 24) & 0xff);
+        byteArrayOutputStream.write(command.getExpried() & 0xff);
+        byteArrayOutputStream.write((command.getExpried() >> 8) & 0xff);
+        byteArrayOutputStream.write((command.getExpried() >> 16) & 0xff);
+        byteArrayOutputStream.write((command.getExpried() >> 24) & 0xff);
+        byteArrayOutputStream.write(command.getCount() & 0xff);
+        byteArrayOutputStream.write((command.getCount() >> 8) & 0xff);
+        byteArrayOutputStream.write(command.getrCount());
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    static int readFully(InputStream inputStream, byte[] buf, int offset, int len) throws IOException {
+        int n = 0;
+        while (n < len) {
+            int nn = inputStream.read(buf, offset + n, len - n);
+            if (nn <= 0) {
+                break;
+            }
+            n += nn;
+        }
+        return n;
+    }
+
     private void runBenchmarkAsyncLock(SlockClient client, CountDownLatch countDownLatch, int totalCount, AtomicInteger count, AtomicReference<Exception> exception) {
         Lock lock = client.newLock("benchmark" + count.get(), 5, 10);
         try {